@@ -0,0 +1,59 @@
+package local.jfx360.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * <p> BenchmarkMain Class. </p>
+ *
+ * <p> Description: Runs the benchmarks once for each thread count and writes one JMH JSON
+ * result file per run, so results of two builds can be compared file by file. Settings:
+ * -Djfx360.bench.threads (comma separated, default 1,4), -Djfx360.bench.warmupIterations
+ * (default 3), -Djfx360.bench.iterations (default 5), -Djfx360.bench.iterationSeconds
+ * (default 2) and -Djfx360.bench.resultDir (default target/jmh). Program arguments are regular
+ * JMH options, for example a benchmark pattern or -p bodyLength=4096 to narrow the input sizes. </p>
+ */
+public class BenchmarkMain {
+
+    private static final String THREADS = System.getProperty("jfx360.bench.threads", "1,4");
+    private static final int WARMUP_ITERATIONS = Integer.getInteger("jfx360.bench.warmupIterations", 3);
+    private static final int ITERATIONS = Integer.getInteger("jfx360.bench.iterations", 5);
+    private static final int ITERATION_SECONDS = Integer.getInteger("jfx360.bench.iterationSeconds", 2);
+    private static final Path RESULT_DIR = Path.of(System.getProperty("jfx360.bench.resultDir", "target/jmh"));
+
+    public static void main(String[] args) throws RunnerException, IOException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Files.createDirectories(RESULT_DIR);
+
+        for (String value : THREADS.split(",")) {
+            int threads = Integer.parseInt(value.trim());
+            Path resultFile = RESULT_DIR.resolve("jmh-threads-" + threads + ".json");
+
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .warmupIterations(WARMUP_ITERATIONS)
+                    .warmupTime(TimeValue.seconds(ITERATION_SECONDS))
+                    .measurementIterations(ITERATIONS)
+                    .measurementTime(TimeValue.seconds(ITERATION_SECONDS))
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultFile.toString());
+            if (commandLine.getIncludes().isEmpty()) {
+                options.include(BenchmarkMain.class.getPackageName() + ".*Benchmark");
+            }
+
+            new Runner(options.build()).run();
+            System.out.println("Results for " + threads + " thread(s) written to " + resultFile);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package local.jfx360.benchmarks;
+
+import local.jfx360.utils.SimpleEncryption;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p> EncryptionBenchmark Class. </p>
+ *
+ * <p> Description: Measures SimpleEncryption on article bodies from a short note up to a long
+ * article. Bodies are encrypted on every save and decrypted on every preview, search result
+ * and backup. </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class EncryptionBenchmark {
+
+    @Param({"64", "4096", "65536"})
+    public int bodyLength;
+
+    private String body;
+    private String encrypted;
+
+    @Setup
+    public void setUp() {
+        body = Inputs.text(bodyLength);
+        encrypted = SimpleEncryption.encrypt(body);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return SimpleEncryption.encrypt(body);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return SimpleEncryption.decrypt(encrypted);
+    }
+}
@@ -0,0 +1,26 @@
+package local.jfx360.benchmarks;
+
+import java.util.Random;
+
+/**
+ * <p> Inputs Class. </p>
+ *
+ * <p> Description: Builds benchmark inputs from a fixed seed, so every run measures the same text. </p>
+ */
+final class Inputs {
+
+    private static final String ALPHABET =
+            "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 .,!?-";
+
+    private Inputs() {
+    }
+
+    static String text(int length) {
+        Random random = new Random(360L + length);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package local.jfx360.benchmarks;
+
+import local.jfx360.utils.PasswordUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p> PasswordBenchmark Class. </p>
+ *
+ * <p> Description: Measures PBKDF2 hashing and verification in PasswordUtils, which every login,
+ * account creation and password reset runs once, for passwords of different lengths. </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class PasswordBenchmark {
+
+    @Param({"8", "32", "128"})
+    public int passwordLength;
+
+    private String password;
+    private String stored;
+
+    @Setup
+    public void setUp() {
+        password = Inputs.text(passwordLength);
+        stored = PasswordUtils.hashPassword(password);
+    }
+
+    @Benchmark
+    public String hashPassword() {
+        return PasswordUtils.hashPassword(password);
+    }
+
+    @Benchmark
+    public boolean verifyPassword() {
+        return PasswordUtils.verifyPassword(password, stored);
+    }
+}
@@ -5,18 +5,25 @@ import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.collections.ObservableList;
 import javafx.scene.layout.GridPane;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import local.jfx360.service.ArticleService;
+import local.jfx360.service.AuthService;
 import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.GroupCache;
+import local.jfx360.utils.InvitationCodes;
 
+import java.io.File;
 import java.io.IOException;
 import java.sql.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Random;
 import javafx.collections.FXCollections;
 import javafx.beans.property.SimpleStringProperty;
@@ -130,8 +137,13 @@ public class AdminMainPage extends HelpSystemHelper{
 
     private ObservableList<Integer> adminRightsList;
 
+    private PerformanceDashboard performanceDashboard;
+
     public int userId;
 
+    private static final Duration INVITATION_VALIDITY = Duration.ofHours(24);
+    private static final int MAX_INVITATION_BATCH = 10000;
+
     /**
      * Initializes the Admin Main Page controller.
      * Sets up table columns, loads users, and initializes the help system components.
@@ -161,6 +173,22 @@ public class AdminMainPage extends HelpSystemHelper{
         } else {
             adminRightsTab.setDisable(true);
         }
+
+        showPerformanceTab();
+    }
+
+    /**
+     * Adds the live Performance tab for users holding the Admin role.
+     */
+    private void showPerformanceTab() {
+        try {
+            if (performanceDashboard == null && AuthService.getInstance().loadRoles(userId).contains("Admin")) {
+                performanceDashboard = new PerformanceDashboard();
+                tabPane.getTabs().add(performanceDashboard.getTab());
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
     }
 
     /**
@@ -174,43 +202,6 @@ public class AdminMainPage extends HelpSystemHelper{
 
     }
 
-    /**
-     * Loads articles from the database into the table view.
-     * Groups multiple articles and concatenates their group names.
-     *
-     * @param tableView The TableView to load articles into
-     */
-    @Override
-    protected void loadArticles(TableView<HelpArticle> tableView) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String query = "SELECT ha.*, GROUP_CONCAT(hag.name) as group_names " +
-                    "FROM help_articles ha " +
-                    "LEFT JOIN help_article_group_mapping hagm ON ha.id = hagm.article_id " +
-                    "LEFT JOIN help_article_groups hag ON hagm.group_id = hag.id " +
-                    "GROUP BY ha.id";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query);
-                 ResultSet rs = pstmt.executeQuery()) {
-
-                ObservableList<HelpArticle> articles = FXCollections.observableArrayList();
-
-                while (rs.next()) {
-                    HelpArticle article = new HelpArticle();
-                    article.id = rs.getLong("id");
-                    article.title = rs.getString("title");
-                    article.description = rs.getString("description");
-                    article.level = rs.getString("level");
-                    article.groups = rs.getString("group_names");
-                    articles.add(article);
-                }
-
-                tableView.setItems(articles);
-            }
-        } catch (SQLException e) {
-            showError("Load Error", e.getMessage());
-        }
-    }
-
 //    // Add method to format the preview text nicely
 //    private String formatPreviewText(String text) {
 //        if (text == null || text.isEmpty()) {
@@ -276,43 +267,6 @@ public class AdminMainPage extends HelpSystemHelper{
         }
     }
 
-    /**
-     * Loads articles filtered by a specific group.
-     * Supports the grouping requirement for help articles.
-     *
-     * @param group The name of the group to filter by
-     */
-    private void loadArticlesByGroup(String group) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String query = "SELECT ha.*, GROUP_CONCAT(hag.name) as group_names " +
-                    "FROM help_articles ha " +
-                    "LEFT JOIN help_article_group_mapping hagm ON ha.id = hagm.article_id " +
-                    "LEFT JOIN help_article_groups hag ON hagm.group_id = hag.id " +
-                    "WHERE hag.name = ? " +
-                    "GROUP BY ha.id";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, group);
-                ResultSet rs = pstmt.executeQuery();
-                ObservableList<HelpArticle> articles = FXCollections.observableArrayList();
-
-                while (rs.next()) {
-                    HelpArticle article = new HelpArticle();
-                    article.id = rs.getLong("id");
-                    article.title = rs.getString("title");
-                    article.description = rs.getString("description");
-                    article.level = rs.getString("level");
-                    article.groups = rs.getString("group_names");
-                    articles.add(article);
-                }
-
-                helpArticlesTableView.setItems(articles);
-            }
-        } catch (SQLException e) {
-            showError("Load Error", e.getMessage());
-        }
-    }
-
     private void updateCurrentUserInfo() {
         String query = "SELECT u.username, " +
                 "CONCAT(COALESCE(u.preferred_first_name, u.first_name), ' ', u.last_name) AS full_name, " +
@@ -390,35 +344,19 @@ public class AdminMainPage extends HelpSystemHelper{
     @FXML
     private void generateInvitationCode() {
         String role = roleComboBox.getSelectionModel().getSelectedItem();
-        if (role.isEmpty()) {
+        if (role == null || role.isEmpty()) {
             displayConsole.setText("Please enter a role.");
             return;
         }
 
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String checkRoleQuery = "SELECT id FROM roles WHERE name = ?";
-            int roleId;
-            try (PreparedStatement pstmt = conn.prepareStatement(checkRoleQuery)) {
-                pstmt.setString(1, role);
-                ResultSet rs = pstmt.executeQuery();
-                if (!rs.next()) {
-                    displayConsole.setText("Role does not exist.");
-                    return;
-                }
-                roleId = rs.getInt("id");
-            }
-
-            String invitationCode = generateRandomStr();
-            LocalDateTime expiration = LocalDateTime.now().plusHours(24);
-
-            String insertCodeQuery = "INSERT INTO invitation_codes (code, role_id, expiration) VALUES (?, ?, ?)";
-            try (PreparedStatement pstmt = conn.prepareStatement(insertCodeQuery)) {
-                pstmt.setString(1, invitationCode);
-                pstmt.setInt(2, roleId);
-                pstmt.setTimestamp(3, Timestamp.valueOf(expiration));
-                pstmt.executeUpdate();
+        try {
+            Integer roleId = findRoleId(role);
+            if (roleId == null) {
+                displayConsole.setText("Role does not exist.");
+                return;
             }
 
+            String invitationCode = InvitationCodes.createBatch(roleId, 1, INVITATION_VALIDITY).get(0);
             displayConsole.setText("Invitation code: " + invitationCode);
 
         } catch (SQLException e) {
@@ -427,6 +365,71 @@ public class AdminMainPage extends HelpSystemHelper{
         }
     }
 
+    /**
+     * Generates many invitation codes for the selected role at once and shows them in a
+     * copyable list, one per line.
+     */
+    @FXML
+    private void generateInvitationCodes() {
+        String role = roleComboBox.getSelectionModel().getSelectedItem();
+        if (role == null || role.isEmpty()) {
+            displayConsole.setText("Please enter a role.");
+            return;
+        }
+
+        TextInputDialog countDialog = new TextInputDialog("25");
+        countDialog.setTitle("Generate Invitation Codes");
+        countDialog.setHeaderText("How many " + role + " invitation codes?");
+        countDialog.setContentText("Number of codes:");
+        countDialog.showAndWait().ifPresent(text -> {
+            int count;
+            try {
+                count = Integer.parseInt(text.trim());
+            } catch (NumberFormatException e) {
+                displayConsole.setText("Please enter a whole number of codes.");
+                return;
+            }
+            if (count < 1 || count > MAX_INVITATION_BATCH) {
+                displayConsole.setText("Please enter between 1 and " + MAX_INVITATION_BATCH + " codes.");
+                return;
+            }
+
+            try {
+                Integer roleId = findRoleId(role);
+                if (roleId == null) {
+                    displayConsole.setText("Role does not exist.");
+                    return;
+                }
+
+                List<String> codes = InvitationCodes.createBatch(roleId, count, INVITATION_VALIDITY);
+                displayConsole.setText("Generated " + codes.size() + " " + role + " invitation codes.");
+
+                TextArea codesArea = new TextArea(String.join("\n", codes));
+                codesArea.setEditable(false);
+                codesArea.setPrefRowCount(15);
+
+                Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Invitation Codes");
+                alert.setHeaderText(codes.size() + " codes valid for " + INVITATION_VALIDITY.toHours() + " hours");
+                alert.getDialogPane().setContent(codesArea);
+                alert.showAndWait();
+            } catch (SQLException e) {
+                e.printStackTrace();
+                displayConsole.setText("Error generating invitation codes: " + e.getMessage());
+            }
+        });
+    }
+
+    private Integer findRoleId(String role) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT id FROM roles WHERE name = ?")) {
+            pstmt.setString(1, role);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt("id") : null;
+            }
+        }
+    }
+
     @FXML
     private void generatePassword() {
         String username = usernameTextField.getText().trim();
@@ -545,6 +548,65 @@ public class AdminMainPage extends HelpSystemHelper{
         }
     }
 
+    /**
+     * Creates user accounts in bulk from a CSV roster and reports the rows that were rejected.
+     */
+    @FXML
+    private void importUsers() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Select User Roster");
+        fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("CSV Files", "*.csv")
+        );
+
+        File file = fileChooser.showOpenDialog(new Stage());
+        if (file == null) {
+            return;
+        }
+
+        UserImportTask task = new UserImportTask(file);
+        Stage progressStage = showProgressWindow("Importing Users", task);
+
+        task.setOnSucceeded(event -> {
+            progressStage.close();
+            UserImportTask.Result result = task.getValue();
+            displayConsole.setText(task.getMessage());
+            loadUsers();
+
+            if (!result.errors().isEmpty()) {
+                StringBuilder report = new StringBuilder();
+                for (UserImportTask.RowError error : result.errors()) {
+                    report.append(error).append('\n');
+                }
+                TextArea reportArea = new TextArea(report.toString());
+                reportArea.setEditable(false);
+                reportArea.setPrefRowCount(15);
+
+                Alert alert = new Alert(Alert.AlertType.WARNING);
+                alert.setTitle("Import Users");
+                alert.setHeaderText(String.format("%d users imported, %d rows rejected",
+                        result.imported(), result.errors().size()));
+                alert.getDialogPane().setContent(reportArea);
+                alert.showAndWait();
+            }
+        });
+        task.setOnFailed(event -> {
+            progressStage.close();
+            task.getException().printStackTrace();
+            loadUsers();
+            displayConsole.setText("Error importing users: " + task.getException().getMessage());
+        });
+        task.setOnCancelled(event -> {
+            progressStage.close();
+            loadUsers();
+            displayConsole.setText("User import cancelled.");
+        });
+
+        Thread thread = new Thread(task, "user-import");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     @FXML
     private void removeRole() {
         String username = usernameTextField.getText().trim();
@@ -578,9 +640,11 @@ public class AdminMainPage extends HelpSystemHelper{
 
     @FXML
     private void handleLogoutButton() {
+        if (performanceDashboard != null) {
+            performanceDashboard.stop();
+        }
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/local/jfx360/fxml/Login.fxml"));
-            Parent loginRoot = loader.load();
+            Parent loginRoot = SceneLoader.load("Login.fxml").root();
 
             Scene loginScene = new Scene(loginRoot);
             Stage currentStage = (Stage) logoutButton.getScene().getWindow();
@@ -618,7 +682,7 @@ public class AdminMainPage extends HelpSystemHelper{
                         }
                         // User exists, proceed with update
                         updateArticle(article);
-                        loadArticles(helpArticlesTableView);
+                        refreshArticles(helpArticlesTableView);
                     }
                 } catch (SQLException e) {
                     showError("Database Error", "Failed to verify user: " + e.getMessage());
@@ -655,7 +719,7 @@ public class AdminMainPage extends HelpSystemHelper{
                             pstmt.executeUpdate();
                         }
 
-                        loadArticles(helpArticlesTableView);
+                        refreshArticles(helpArticlesTableView);
                     } catch (SQLException e) {
                         showError("Delete Error", e.getMessage());
                     }
@@ -714,72 +778,11 @@ public class AdminMainPage extends HelpSystemHelper{
      * @param article The article with updated information
      */
     private void updateArticle(HelpArticle article) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            conn.setAutoCommit(false);
-            try {
-                // Debug print
-                System.out.println("Updating article with userId: " + userId);
-
-                // Update the article
-                String sql = "UPDATE help_articles SET " +
-                        "title = ?, " +
-                        "description = ?, " +
-                        "level = ?, " +
-                        "keywords = ?, " +
-                        "body = ?, " +
-                        "reference_links = ?, " +
-                        "is_restricted = ?, " +
-                        "public_title = ?, " +
-                        "public_desc = ?, " +
-                        "last_modified_by = ?, " +
-                        "updated_at = CURRENT_TIMESTAMP " +
-                        "WHERE id = ?";
-
-                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                    pstmt.setString(1, article.title);
-                    pstmt.setString(2, article.description);
-                    pstmt.setString(3, article.level);
-                    pstmt.setString(4, article.keywords);
-                    pstmt.setString(5, article.body);
-                    pstmt.setString(6, article.referenceLinks);
-                    pstmt.setBoolean(7, article.isRestricted);
-                    pstmt.setString(8, article.publicTitle);
-                    pstmt.setString(9, article.publicDesc);
-                    pstmt.setInt(10, userId);  // Use the class's userId
-                    pstmt.setLong(11, article.id);
-
-                    int updatedRows = pstmt.executeUpdate();
-                    if (updatedRows == 0) {
-                        throw new SQLException("No rows were updated - article may not exist");
-                    }
-                }
-
-                // Handle group mappings
-                try (PreparedStatement pstmt = conn.prepareStatement(
-                        "DELETE FROM help_article_group_mapping WHERE article_id = ?")) {
-                    pstmt.setLong(1, article.id);
-                    pstmt.executeUpdate();
-                }
-
-                if (article.groups != null && !article.groups.isEmpty()) {
-                    String[] groupNames = article.groups.split(",");
-                    for (String groupName : groupNames) {
-                        groupName = groupName.trim();
-                        if (!groupName.isEmpty()) {
-                            int groupId = ensureGroupExists(conn, groupName);
-                            mapArticleToGroup(conn, article.id, groupId);
-                        }
-                    }
-                }
-
-                conn.commit();
-                showInformationAlert("Success", "Article updated successfully!");
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
+        try {
+            // Debug print
+            System.out.println("Updating article with userId: " + userId);
+            ArticleService.getInstance().updateArticle(article.toUpdate(), userId);
+            showInformationAlert("Success", "Article updated successfully!");
         } catch (SQLException e) {
             showError("Update Error", "Failed to update article: " + e.getMessage());
             e.printStackTrace();
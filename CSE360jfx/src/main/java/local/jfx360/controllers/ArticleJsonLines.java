@@ -0,0 +1,540 @@
+package local.jfx360.controllers;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import javafx.concurrent.Task;
+import local.jfx360.utils.DatabaseUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p> ArticleJsonLines Class. </p>
+ *
+ * <p> Description: Exports and imports help articles as JSON Lines, one record per line, using
+ * the Jackson streaming API. A file holds a header record followed by group, article and mapping
+ * records, in that order so that an import never references a row it has not seen yet. Rows are
+ * streamed from the database straight into the generator and from the parser straight into
+ * batched inserts, so neither side holds the whole backup in memory. </p>
+ */
+class ArticleJsonLines {
+
+    static final String EXTENSION = ".jsonl";
+
+    private static final String FORMAT = "jfx360-help-articles";
+    private static final int VERSION = 1;
+
+    private static final String HEADER = "header";
+    private static final String GROUP = "group";
+    private static final String ARTICLE = "article";
+    private static final String MAPPING = "mapping";
+
+    private static final int EMBEDDED_FETCH_SIZE = 1000;
+
+    // Jackson factories are thread-safe and meant to be shared
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private ArticleJsonLines() {
+    }
+
+    static boolean isJsonLines(File file) {
+        return file.getName().toLowerCase().endsWith(EXTENSION);
+    }
+
+    /**
+     * Totals of an export, used to compare the format with the serialized backups.
+     */
+    record ExportResult(int groups, int articles, int mappings, long bytes, long nanos) {
+    }
+
+    /**
+     * Writes the articles (optionally only those in one group), all groups and the mappings of
+     * the exported articles.
+     *
+     * @param file the file to write
+     * @param group the group to export, or null or empty for every article
+     */
+    static ExportResult export(File file, String group) throws SQLException, IOException {
+        long start = System.nanoTime();
+        boolean filtered = group != null && !group.isEmpty();
+        int groups = 0;
+        int articles = 0;
+        int mappings = 0;
+
+        String articleSql = "SELECT ha.* FROM help_articles ha" + (filtered
+                ? " WHERE EXISTS (SELECT 1 FROM help_article_group_mapping hagm " +
+                "JOIN help_article_groups hag ON hagm.group_id = hag.id " +
+                "WHERE hagm.article_id = ha.id AND hag.name = ?)"
+                : "") + " ORDER BY ha.id";
+        String mappingSql = "SELECT hagm.article_id, hag.name FROM help_article_group_mapping hagm " +
+                "JOIN help_article_groups hag ON hagm.group_id = hag.id" + (filtered
+                ? " WHERE hagm.article_id IN (SELECT m.article_id FROM help_article_group_mapping m " +
+                "JOIN help_article_groups g ON m.group_id = g.id WHERE g.name = ?)"
+                : "") + " ORDER BY hagm.article_id";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             JsonGenerator gen = FACTORY.createGenerator(file, JsonEncoding.UTF8)) {
+            // One record per line
+            gen.setRootValueSeparator(new SerializedString("\n"));
+
+            gen.writeStartObject();
+            gen.writeStringField("type", HEADER);
+            gen.writeStringField("format", FORMAT);
+            gen.writeNumberField("version", VERSION);
+            gen.writeEndObject();
+
+            try (PreparedStatement pstmt = streamingStatement(conn,
+                    "SELECT name, is_special_access FROM help_article_groups ORDER BY name");
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    gen.writeStartObject();
+                    gen.writeStringField("type", GROUP);
+                    gen.writeStringField("name", rs.getString("name"));
+                    gen.writeBooleanField("specialAccess", rs.getBoolean("is_special_access"));
+                    gen.writeEndObject();
+                    groups++;
+                }
+            }
+
+            try (PreparedStatement pstmt = streamingStatement(conn, articleSql)) {
+                if (filtered) {
+                    pstmt.setString(1, group);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        gen.writeStartObject();
+                        gen.writeStringField("type", ARTICLE);
+                        gen.writeNumberField("id", rs.getLong("id"));
+                        writeString(gen, "title", rs.getString("title"));
+                        writeString(gen, "description", rs.getString("description"));
+                        writeString(gen, "level", rs.getString("level"));
+                        writeString(gen, "keywords", rs.getString("keywords"));
+                        writeString(gen, "body", rs.getString("body"));
+                        writeString(gen, "referenceLinks", rs.getString("reference_links"));
+                        gen.writeBooleanField("restricted", rs.getBoolean("is_restricted"));
+                        writeString(gen, "publicTitle", rs.getString("public_title"));
+                        writeString(gen, "publicDesc", rs.getString("public_desc"));
+                        writeUserId(gen, "createdBy", rs, "created_by");
+                        writeUserId(gen, "lastModifiedBy", rs, "last_modified_by");
+                        writeTimestamp(gen, "createdAt", rs.getTimestamp("created_at"));
+                        writeTimestamp(gen, "updatedAt", rs.getTimestamp("updated_at"));
+                        gen.writeEndObject();
+                        articles++;
+                    }
+                }
+            }
+
+            try (PreparedStatement pstmt = streamingStatement(conn, mappingSql)) {
+                if (filtered) {
+                    pstmt.setString(1, group);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        gen.writeStartObject();
+                        gen.writeStringField("type", MAPPING);
+                        gen.writeNumberField("articleId", rs.getLong("article_id"));
+                        gen.writeStringField("group", rs.getString("name"));
+                        gen.writeEndObject();
+                        mappings++;
+                    }
+                }
+            }
+            gen.writeRaw('\n');
+        }
+        return new ExportResult(groups, articles, mappings, file.length(), System.nanoTime() - start);
+    }
+
+    // Asks Connector/J to stream rows one at a time instead of buffering the whole result. The
+    // MIN_VALUE hint is Connector/J's own and H2 rejects it, so H2 reads in pages instead
+    private static PreparedStatement streamingStatement(Connection conn, String sql) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        pstmt.setFetchSize(DatabaseUtil.isEmbedded() ? EMBEDDED_FETCH_SIZE : Integer.MIN_VALUE);
+        return pstmt;
+    }
+
+    private static void writeString(JsonGenerator gen, String field, String value) throws IOException {
+        if (value != null) {
+            gen.writeStringField(field, value);
+        }
+    }
+
+    // Articles whose author was deleted keep a null user id, which must not come back as user 0
+    private static void writeUserId(JsonGenerator gen, String field, ResultSet rs, String column)
+            throws SQLException, IOException {
+        int userId = rs.getInt(column);
+        if (!rs.wasNull()) {
+            gen.writeNumberField(field, userId);
+        }
+    }
+
+    private static void writeTimestamp(JsonGenerator gen, String field, Timestamp value) throws IOException {
+        if (value != null) {
+            gen.writeNumberField(field, value.getTime());
+        }
+    }
+
+    /**
+     * One parsed line. A single instance is reused for every record of a file.
+     */
+    private static class Record {
+        String type;
+        String format;
+        int version;
+        long id;
+        String title;
+        String description;
+        String level;
+        String keywords;
+        String body;
+        String referenceLinks;
+        boolean restricted;
+        String publicTitle;
+        String publicDesc;
+        Integer createdBy;
+        Integer lastModifiedBy;
+        Long createdAt;
+        Long updatedAt;
+        String name;
+        boolean specialAccess;
+        long articleId;
+        String group;
+
+        void clear() {
+            type = format = title = description = level = keywords = body = null;
+            referenceLinks = publicTitle = publicDesc = name = group = null;
+            createdAt = updatedAt = null;
+            createdBy = lastModifiedBy = null;
+            id = articleId = 0;
+            version = 0;
+            restricted = specialAccess = false;
+        }
+    }
+
+    /**
+     * Reads the next record into the holder, returning false at the end of the file.
+     */
+    private static boolean nextRecord(JsonParser parser, Record record) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return false;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a record at line " + parser.currentLocation().getLineNr());
+        }
+        record.clear();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "type" -> record.type = parser.getText();
+                case "format" -> record.format = parser.getText();
+                case "version" -> record.version = parser.getIntValue();
+                case "id" -> record.id = parser.getLongValue();
+                case "title" -> record.title = parser.getText();
+                case "description" -> record.description = parser.getText();
+                case "level" -> record.level = parser.getText();
+                case "keywords" -> record.keywords = parser.getText();
+                case "body" -> record.body = parser.getText();
+                case "referenceLinks" -> record.referenceLinks = parser.getText();
+                case "restricted" -> record.restricted = parser.getBooleanValue();
+                case "publicTitle" -> record.publicTitle = parser.getText();
+                case "publicDesc" -> record.publicDesc = parser.getText();
+                case "createdBy" -> record.createdBy = parser.getIntValue();
+                case "lastModifiedBy" -> record.lastModifiedBy = parser.getIntValue();
+                case "createdAt" -> record.createdAt = parser.getLongValue();
+                case "updatedAt" -> record.updatedAt = parser.getLongValue();
+                case "name" -> record.name = parser.getText();
+                case "specialAccess" -> record.specialAccess = parser.getBooleanValue();
+                case "articleId" -> record.articleId = parser.getLongValue();
+                case "group" -> record.group = parser.getText();
+                // Ignore fields added by newer versions
+                default -> {
+                    if (value.isStructStart()) {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        if (record.type == null) {
+            throw new IOException("Record without a type at line " + parser.currentLocation().getLineNr());
+        }
+        return true;
+    }
+
+    private static void checkHeader(JsonParser parser, Record record, File file) throws IOException {
+        if (!nextRecord(parser, record) || !HEADER.equals(record.type) || !FORMAT.equals(record.format)) {
+            throw new IOException(file.getName() + " is not a help article export");
+        }
+        if (record.version > VERSION) {
+            throw new IOException("Unsupported export version " + record.version);
+        }
+    }
+
+    /**
+     * Imports a JSON Lines export on a background thread. Articles and mappings are inserted in
+     * batches and committed once per batch. A replace import parses the whole file once before
+     * deleting anything, so a damaged file never leaves the help system empty.
+     */
+    static class ImportTask extends Task<Integer> {
+
+        private static final String INSERT_GROUP = "INSERT INTO help_article_groups (name, is_special_access) " +
+                "VALUES (?, ?) ON DUPLICATE KEY UPDATE id = id";
+
+        private static final String SELECT_GROUP = "SELECT id FROM help_article_groups WHERE name = ?";
+
+        private static final String INSERT_ARTICLE = "INSERT INTO help_articles (id, title, description, level, keywords, " +
+                "body, reference_links, is_restricted, public_title, public_desc, " +
+                "created_by, last_modified_by, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, COALESCE(?, CURRENT_TIMESTAMP), COALESCE(?, CURRENT_TIMESTAMP))";
+
+        private static final String INSERT_MAPPING = "INSERT IGNORE INTO help_article_group_mapping (article_id, group_id) " +
+                "VALUES (?, ?)";
+
+        private final File file;
+        private final boolean merge;
+        private final int batchSize;
+
+        private volatile int restoredCount;
+        private volatile boolean deletedArticles;
+        private long fileSize;
+        private long startNanos;
+
+        ImportTask(File file, boolean merge) {
+            this(file, merge, ArticleRestoreTask.DEFAULT_BATCH_SIZE);
+        }
+
+        ImportTask(File file, boolean merge, int batchSize) {
+            this.file = file;
+            this.merge = merge;
+            this.batchSize = Math.max(1, batchSize);
+        }
+
+        /**
+         * Number of articles committed so far, including when the import failed part way.
+         */
+        int getRestoredCount() {
+            return restoredCount;
+        }
+
+        /**
+         * Returns true once a replace import has deleted the articles it replaces.
+         */
+        boolean hasDeletedArticles() {
+            return deletedArticles;
+        }
+
+        @Override
+        protected Integer call() throws Exception {
+            fileSize = Math.max(1, file.length());
+            if (!merge) {
+                updateMessage("Checking " + file.getName() + "...");
+                validate();
+            }
+
+            startNanos = System.nanoTime();
+            try (Connection conn = DatabaseUtil.getConnection()) {
+                Set<Long> seenIds = prepareTarget(conn);
+                // Articles skipped in merge mode, whose mappings must be skipped too
+                Set<Long> skippedIds = new HashSet<>();
+                // Group ids read on this connection: a group created by the import stays locked
+                // until it commits, so GroupCache's own connection would wait on it
+                Map<String, Integer> groupIds = new HashMap<>();
+
+                conn.setAutoCommit(false);
+                try (JsonParser parser = FACTORY.createParser(file);
+                     PreparedStatement groupStmt = conn.prepareStatement(INSERT_GROUP);
+                     PreparedStatement groupIdStmt = conn.prepareStatement(SELECT_GROUP);
+                     PreparedStatement articleStmt = conn.prepareStatement(INSERT_ARTICLE);
+                     PreparedStatement mappingStmt = conn.prepareStatement(INSERT_MAPPING)) {
+                    Record record = new Record();
+                    checkHeader(parser, record, file);
+
+                    int pendingArticles = 0;
+                    int pendingMappings = 0;
+                    while (nextRecord(parser, record)) {
+                        if (isCancelled()) {
+                            conn.rollback();
+                            return restoredCount;
+                        }
+                        switch (record.type) {
+                            case GROUP -> groupIds.put(record.name,
+                                    createGroup(groupStmt, groupIdStmt, record.name, record.specialAccess));
+                            case ARTICLE -> {
+                                if (!seenIds.add(record.id)) {
+                                    skippedIds.add(record.id);
+                                    break;
+                                }
+                                bindArticle(articleStmt, record);
+                                articleStmt.addBatch();
+                                pendingArticles++;
+                            }
+                            case MAPPING -> {
+                                if (skippedIds.contains(record.articleId)) {
+                                    break;
+                                }
+                                mappingStmt.setLong(1, record.articleId);
+                                Integer groupId = groupIds.get(record.group);
+                                if (groupId == null) {
+                                    // Exports list every group first, but older files may not
+                                    groupId = createGroup(groupStmt, groupIdStmt, record.group, false);
+                                    groupIds.put(record.group, groupId);
+                                }
+                                mappingStmt.setInt(2, groupId);
+                                mappingStmt.addBatch();
+                                pendingMappings++;
+                            }
+                            default -> {
+                                // Unknown record types from newer versions are skipped
+                            }
+                        }
+
+                        if (pendingArticles >= batchSize || pendingMappings >= batchSize) {
+                            flush(conn, articleStmt, pendingArticles, mappingStmt, pendingMappings);
+                            pendingArticles = 0;
+                            pendingMappings = 0;
+                            reportProgress(parser);
+                        }
+                    }
+                    flush(conn, articleStmt, pendingArticles, mappingStmt, pendingMappings);
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+
+            updateProgress(1, 1);
+            updateMessage(String.format("Restored %d articles in %.1f s (%,.0f rows/s)",
+                    restoredCount, elapsedSeconds(), restoredCount / Math.max(elapsedSeconds(), 1e-9)));
+            return restoredCount;
+        }
+
+        // Parses the whole file without touching the database
+        private void validate() throws IOException {
+            try (JsonParser parser = FACTORY.createParser(file)) {
+                Record record = new Record();
+                checkHeader(parser, record, file);
+                while (nextRecord(parser, record)) {
+                    if (isCancelled()) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private Set<Long> prepareTarget(Connection conn) throws SQLException {
+            Set<Long> existingIds = new HashSet<>();
+            if (merge) {
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT id FROM help_articles")) {
+                    while (rs.next()) {
+                        existingIds.add(rs.getLong("id"));
+                    }
+                }
+            } else {
+                // Delete in correct order to avoid foreign key constraints
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SET FOREIGN_KEY_CHECKS=0");
+                    try {
+                        stmt.execute("DELETE FROM help_article_group_mapping");
+                        deletedArticles = true;
+                        stmt.execute("DELETE FROM help_articles");
+                    } finally {
+                        stmt.execute("SET FOREIGN_KEY_CHECKS=1");
+                    }
+                }
+            }
+            return existingIds;
+        }
+
+        // Inserts the group unless it exists and returns its id
+        private static int createGroup(PreparedStatement groupStmt, PreparedStatement groupIdStmt,
+                                       String name, boolean specialAccess) throws SQLException {
+            groupStmt.setString(1, name);
+            groupStmt.setBoolean(2, specialAccess);
+            groupStmt.executeUpdate();
+            groupIdStmt.setString(1, name);
+            try (ResultSet rs = groupIdStmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+            throw new SQLException("Failed to create group: " + name);
+        }
+
+        private static void bindArticle(PreparedStatement pstmt, Record record) throws SQLException {
+            pstmt.setLong(1, record.id);
+            pstmt.setString(2, record.title);
+            pstmt.setString(3, record.description);
+            pstmt.setString(4, record.level);
+            pstmt.setString(5, record.keywords);
+            pstmt.setString(6, record.body);
+            pstmt.setString(7, record.referenceLinks);
+            pstmt.setBoolean(8, record.restricted);
+            pstmt.setString(9, record.publicTitle);
+            pstmt.setString(10, record.publicDesc);
+            setUserId(pstmt, 11, record.createdBy);
+            setUserId(pstmt, 12, record.lastModifiedBy);
+            setTimestamp(pstmt, 13, record.createdAt);
+            setTimestamp(pstmt, 14, record.updatedAt);
+        }
+
+        private static void setUserId(PreparedStatement pstmt, int index, Integer userId) throws SQLException {
+            if (userId != null) {
+                pstmt.setInt(index, userId);
+            } else {
+                pstmt.setNull(index, Types.INTEGER);
+            }
+        }
+
+        private static void setTimestamp(PreparedStatement pstmt, int index, Long millis) throws SQLException {
+            if (millis != null) {
+                pstmt.setTimestamp(index, new Timestamp(millis));
+            } else {
+                pstmt.setNull(index, Types.TIMESTAMP);
+            }
+        }
+
+        // Articles go first so that the mappings in the same batch can reference them
+        private void flush(Connection conn, PreparedStatement articleStmt, int articles,
+                           PreparedStatement mappingStmt, int mappings) throws SQLException {
+            if (articles > 0) {
+                articleStmt.executeBatch();
+            }
+            if (mappings > 0) {
+                mappingStmt.executeBatch();
+            }
+            conn.commit();
+            restoredCount += articles;
+        }
+
+        private void reportProgress(JsonParser parser) {
+            updateProgress(parser.currentLocation().getByteOffset(), fileSize);
+            updateMessage(String.format("Restored %d articles (%,.0f rows/s)",
+                    restoredCount, restoredCount / Math.max(elapsedSeconds(), 1e-9)));
+        }
+
+        private double elapsedSeconds() {
+            return (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package local.jfx360.controllers;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import local.jfx360.controllers.HelpSystemHelper.HelpArticle;
+import local.jfx360.utils.ArticleCatalog;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p> ArticleListBinding Class. </p>
+ *
+ * <p> Description: The article list of one page, kept in step with the shared
+ * {@link ArticleCatalog}. The list is filled from the catalog's memory, and every change the
+ * catalog publishes is patched into the same ObservableList on the FX thread: changed rows are
+ * replaced where they are, new rows are appended and deleted rows removed, so the table keeps
+ * its selection and scroll position. Group filters are live views of the same list. </p>
+ *
+ * <p> A page prefetched by {@link SceneLoader} fills its list on the preloader thread. Catalog
+ * changes are ignored until the page is handed to the FX thread, which calls {@link #resync()},
+ * so the list is never patched from two threads. </p>
+ */
+class ArticleListBinding implements ArticleCatalog.Listener {
+
+    private final ObservableList<HelpArticle> articles = FXCollections.observableArrayList();
+    // Set on the FX thread only; catalog changes are applied once it is
+    private boolean synced;
+    // Set when the list was filled on the thread that preloaded the page
+    private boolean filled;
+
+    ArticleListBinding() {
+        ArticleCatalog.getInstance().addListener(this);
+    }
+
+    /**
+     * Returns the list of all articles, filling it from the catalog on first use.
+     */
+    ObservableList<HelpArticle> getArticles() throws SQLException {
+        if (Platform.isFxApplicationThread()) {
+            if (!synced) {
+                articles.setAll(toArticles(ArticleCatalog.getInstance().getArticles()));
+                synced = true;
+            }
+        } else if (!filled) {
+            articles.setAll(toArticles(ArticleCatalog.getInstance().getArticles()));
+            filled = true;
+        }
+        return articles;
+    }
+
+    /**
+     * Fills a list that was filled on the preloader thread again, on the FX thread, and starts
+     * applying catalog changes to it. Changes published in between were ignored.
+     */
+    void resync() throws SQLException {
+        if (filled && !synced) {
+            articles.setAll(toArticles(ArticleCatalog.getInstance().getArticles()));
+            synced = true;
+        }
+    }
+
+    /**
+     * Returns a live view of the articles in one group.
+     */
+    ObservableList<HelpArticle> getArticlesInGroup(String group) throws SQLException {
+        return new FilteredList<>(getArticles(), article -> {
+            ArticleCatalog.Entry entry = ArticleCatalog.getInstance().peek(article.id);
+            return entry != null && entry.inGroup(group);
+        });
+    }
+
+    /**
+     * Returns true if the items are this list or a group view of it.
+     */
+    boolean isBound(ObservableList<HelpArticle> items) {
+        return items == articles || (items instanceof FilteredList<?> filtered && filtered.getSource() == articles);
+    }
+
+    @Override
+    public void catalogChanged(ArticleCatalog.Change change) {
+        if (Platform.isFxApplicationThread()) {
+            apply(change);
+        } else {
+            Platform.runLater(() -> apply(change));
+        }
+    }
+
+    private void apply(ArticleCatalog.Change change) {
+        if (!synced) {
+            return;
+        }
+        if (change.reloaded()) {
+            try {
+                articles.setAll(toArticles(ArticleCatalog.getInstance().getArticles()));
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+        if (!change.removed().isEmpty()) {
+            articles.removeIf(article -> change.removed().contains(article.id));
+        }
+        if (change.updated().isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> positions = new HashMap<>(articles.size() * 2);
+        for (int i = 0; i < articles.size(); i++) {
+            positions.put(articles.get(i).id, i);
+        }
+        List<HelpArticle> added = new ArrayList<>();
+        for (ArticleCatalog.Entry entry : change.updated()) {
+            Integer position = positions.get(entry.id());
+            if (position == null) {
+                added.add(toArticle(entry));
+            } else {
+                articles.set(position, toArticle(entry));
+            }
+        }
+        articles.addAll(added);
+    }
+
+    static List<HelpArticle> toArticles(Iterable<ArticleCatalog.Entry> entries) {
+        List<HelpArticle> result = new ArrayList<>();
+        for (ArticleCatalog.Entry entry : entries) {
+            result.add(toArticle(entry));
+        }
+        return result;
+    }
+
+    private static HelpArticle toArticle(ArticleCatalog.Entry entry) {
+        HelpArticle article = new HelpArticle();
+        article.id = entry.id();
+        article.title = entry.title();
+        article.description = entry.description();
+        article.level = entry.level();
+        article.groups = entry.groupNames();
+        article.createdAt = entry.createdAt();
+        article.updatedAt = entry.updatedAt();
+        return article;
+    }
+}
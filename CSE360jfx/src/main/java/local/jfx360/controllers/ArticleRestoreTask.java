@@ -0,0 +1,445 @@
+package local.jfx360.controllers;
+
+import javafx.concurrent.Task;
+import local.jfx360.controllers.HelpSystemHelper.HelpArticle;
+import local.jfx360.utils.ChunkedBackup;
+import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.GroupCache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p> ArticleRestoreTask Class. </p>
+ *
+ * <p> Description: Restores help articles from a backup file as a pipeline. The task thread
+ * reads the backup one checksummed chunk at a time and queues its articles in batches, while a
+ * set of writer threads insert those batches on their own pooled connections, committing once
+ * per batch. The queue is bounded, so the reader waits for the writers and only a few batches
+ * are held in memory whatever the size of the backup. Progress and throughput (rows/s) are
+ * published through the Task progress and message properties so they can be bound to a
+ * ProgressBar. </p>
+ *
+ * <p> Every committed batch is checkpointed in the restore_journal table as an offset into the
+ * backup, counting articles in file order, together with the number of articles actually
+ * inserted. Because writers finish out of order, the journal only records the end of the
+ * contiguous run of committed batches. A resumed restore skips everything before that offset
+ * and filters out articles past it that are already in the database. It keeps the merge or
+ * replace mode of the restore it resumes. </p>
+ *
+ * <p> Because batches commit on their own, a replace restore deletes the existing articles for
+ * good before the first batch is written. It therefore only accepts a chunked backup, whose
+ * checksums are all verified before anything is deleted; a legacy backup, a single serialized
+ * list that can only be read as a whole, can only be merged. </p>
+ */
+class ArticleRestoreTask extends Task<Integer> {
+
+    // Number of writer threads, override with -Djfx360.restore.writers=N
+    static final int DEFAULT_WRITERS = Integer.getInteger("jfx360.restore.writers",
+            Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    // Articles per insert batch, override with -Djfx360.restore.batchSize=N
+    static final int DEFAULT_BATCH_SIZE = Integer.getInteger("jfx360.restore.batchSize", 500);
+
+    private static final String INSERT_ARTICLE = "INSERT INTO help_articles (id, title, description, level, keywords, " +
+            "body, reference_links, is_restricted, public_title, public_desc, " +
+            "created_by, last_modified_by, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, COALESCE(?, CURRENT_TIMESTAMP), COALESCE(?, CURRENT_TIMESTAMP))";
+
+    private static final String INSERT_MAPPING = "INSERT IGNORE INTO help_article_group_mapping (article_id, group_id) " +
+            "VALUES (?, ?)";
+
+    // Marks the end of the batch queue, one per writer
+    private static final Batch END_OF_INPUT = new Batch(-1, -1, List.of());
+
+    // A range [from, to) of backup offsets and the articles in it that still need inserting
+    private record Batch(int from, int to, List<HelpArticle> articles) {
+    }
+
+    private final File file;
+    private final boolean merge;
+    private final RestoreJournal resumeFrom;
+    private final int writers;
+    private final int batchSize;
+
+    private final AtomicInteger restoredCount = new AtomicInteger();
+    private final AtomicInteger processedOffset = new AtomicInteger();
+    private volatile boolean deletedArticles;
+    private volatile int total;
+    private volatile long startNanos;
+
+    // Batches committed past the contiguous offset, keyed by their start offset
+    private final TreeMap<Integer, Integer> committedBatches = new TreeMap<>();
+    private int committedOffset;
+    private RestoreJournal journal;
+
+    ArticleRestoreTask(File file, boolean merge) {
+        this(file, merge, null);
+    }
+
+    /**
+     * Creates a restore task, resuming the given unfinished restore of the same file if not null.
+     */
+    ArticleRestoreTask(File file, boolean merge, RestoreJournal resumeFrom) {
+        this(file, merge, resumeFrom, DEFAULT_WRITERS, DEFAULT_BATCH_SIZE);
+    }
+
+    ArticleRestoreTask(File file, boolean merge, RestoreJournal resumeFrom, int writers, int batchSize) {
+        this.file = file;
+        this.merge = resumeFrom != null ? resumeFrom.merge : merge;
+        this.resumeFrom = resumeFrom;
+        this.writers = Math.max(1, writers);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    protected Integer call() throws Exception {
+        if (!merge && resumeFrom == null && !ChunkedBackup.isChunked(file)) {
+            throw new IOException(file.getName() + " has no checksums to verify, so it cannot replace the " +
+                    "existing articles. Merge it instead, or back up again to get a checksummed file.");
+        }
+        // Check the whole file, and count its articles, before making any database changes
+        List<HelpArticle> legacy = null;
+        if (ChunkedBackup.isChunked(file)) {
+            updateMessage("Verifying " + file.getName() + "...");
+            total = Math.toIntExact(ChunkedBackup.verify(file).records());
+        } else {
+            updateMessage("Reading " + file.getName() + "...");
+            legacy = readLegacyBackup();
+            total = legacy.size();
+        }
+
+        int startOffset = 0;
+        if (resumeFrom != null) {
+            if (resumeFrom.totalRows != total) {
+                throw new IllegalStateException("The backup file no longer matches the interrupted restore");
+            }
+            startOffset = resumeFrom.committedOffset;
+            journal = resumeFrom;
+            journal.resume();
+        } else {
+            journal = RestoreJournal.start(file, merge, total);
+        }
+        committedOffset = startOffset;
+        processedOffset.set(startOffset);
+
+        try {
+            Set<Long> existingIds;
+            try (Connection conn = DatabaseUtil.getConnection()) {
+                existingIds = prepareTarget(conn);
+            }
+
+            startNanos = System.nanoTime();
+            updateProgress(startOffset, total);
+
+            runPipeline(legacy, startOffset, existingIds);
+            journal.setStatus(RestoreJournal.COMPLETED);
+        } catch (Exception e) {
+            try {
+                journal.setStatus(isCancelled() || e instanceof InterruptedException
+                        ? RestoreJournal.CANCELLED : RestoreJournal.FAILED);
+            } catch (SQLException journalError) {
+                e.addSuppressed(journalError);
+            }
+            throw e;
+        }
+
+        int restored = restoredCount.get();
+        updateMessage(String.format("Restored %d articles in %.1f s (%,.0f rows/s)",
+                restored, elapsedSeconds(), rowsPerSecond(restored)));
+        return restored;
+    }
+
+    /**
+     * Reads a legacy backup, which was written as a single serialized list.
+     */
+    @SuppressWarnings("unchecked")
+    private List<HelpArticle> readLegacyBackup() throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+            return (List<HelpArticle>) in.readObject();
+        }
+    }
+
+    /**
+     * Clears the tables for a replace restore, or loads the ids that a merge or resumed
+     * restore must skip. A resumed replace restore must not clear what it already restored.
+     */
+    private Set<Long> prepareTarget(Connection conn) throws SQLException {
+        Set<Long> existingIds = new HashSet<>();
+        if (merge || resumeFrom != null) {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT id FROM help_articles")) {
+                while (rs.next()) {
+                    existingIds.add(rs.getLong("id"));
+                }
+            }
+        } else {
+            // Delete in correct order to avoid foreign key constraints
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SET FOREIGN_KEY_CHECKS=0");
+                try {
+                    stmt.execute("DELETE FROM help_article_group_mapping");
+                    deletedArticles = true;
+                    stmt.execute("DELETE FROM help_articles");
+                } finally {
+                    stmt.execute("SET FOREIGN_KEY_CHECKS=1");
+                }
+            }
+        }
+        return existingIds;
+    }
+
+    /**
+     * Streams the articles from the start offset in batches to the writer threads and waits
+     * for them to finish. Existing articles and duplicates within the file are dropped here,
+     * but their batch is still queued so that the checkpoint moves past them.
+     *
+     * @param legacy the articles of a legacy backup, or null to read the chunked backup
+     */
+    private void runPipeline(List<HelpArticle> legacy, int startOffset, Set<Long> existingIds) throws Exception {
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(writers * 2);
+        ExecutorService pool = Executors.newFixedThreadPool(writers, runnable -> {
+            Thread thread = new Thread(runnable, "article-restore-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            futures.add(pool.submit(() -> {
+                writeBatches(queue);
+                return null;
+            }));
+        }
+
+        try {
+            BatchFeeder feeder = new BatchFeeder(queue, futures, startOffset, existingIds);
+            if (legacy != null) {
+                feeder.add(legacy);
+            } else {
+                try (ChunkedBackup.Reader<HelpArticle> in = ChunkedBackup.openReader(file)) {
+                    List<HelpArticle> chunk;
+                    while ((chunk = in.nextChunk()) != null) {
+                        feeder.add(chunk);
+                    }
+                }
+            }
+            feeder.finish();
+            for (int i = 0; i < writers; i++) {
+                enqueue(queue, END_OF_INPUT, futures);
+            }
+            pool.shutdown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } finally {
+            // Stops the remaining writers if the reader or one of the writers failed
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Cuts the articles read from the backup into batches of consecutive offsets and queues them.
+     */
+    private final class BatchFeeder {
+        private final BlockingQueue<Batch> queue;
+        private final List<Future<?>> futures;
+        private final int startOffset;
+        private final Set<Long> existingIds;
+
+        private int offset;
+        private int batchFrom;
+        private List<HelpArticle> pending = new ArrayList<>();
+
+        BatchFeeder(BlockingQueue<Batch> queue, List<Future<?>> futures, int startOffset, Set<Long> existingIds) {
+            this.queue = queue;
+            this.futures = futures;
+            this.startOffset = startOffset;
+            this.existingIds = existingIds;
+            this.batchFrom = startOffset;
+        }
+
+        void add(List<HelpArticle> articles) throws Exception {
+            for (HelpArticle article : articles) {
+                if (offset++ < startOffset) {
+                    continue;
+                }
+                if (existingIds.add(article.id)) {
+                    pending.add(article);
+                }
+                if (offset - batchFrom == batchSize) {
+                    queueBatch();
+                }
+            }
+        }
+
+        void finish() throws Exception {
+            if (offset > batchFrom) {
+                queueBatch();
+            }
+            if (offset != total) {
+                throw new ChunkedBackup.CorruptBackupException(file.getName() + " changed while it was restored");
+            }
+        }
+
+        private void queueBatch() throws Exception {
+            enqueue(queue, new Batch(batchFrom, offset, pending), futures);
+            batchFrom = offset;
+            pending = new ArrayList<>(batchSize);
+        }
+    }
+
+    // Offers a batch to the writers, giving up as soon as one of them has failed
+    private void enqueue(BlockingQueue<Batch> queue, Batch batch,
+                         List<Future<?>> futures) throws Exception {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            for (Future<?> future : futures) {
+                if (future.isDone()) {
+                    future.get();
+                    throw new IllegalStateException("Restore writer stopped unexpectedly");
+                }
+            }
+        }
+    }
+
+    private void writeBatches(BlockingQueue<Batch> queue) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement articleStmt = conn.prepareStatement(INSERT_ARTICLE);
+                 PreparedStatement mappingStmt = conn.prepareStatement(INSERT_MAPPING)) {
+                Batch batch;
+                while ((batch = queue.take()) != END_OF_INPUT) {
+                    if (isCancelled()) {
+                        return;
+                    }
+
+                    int mappings = 0;
+                    for (HelpArticle article : batch.articles()) {
+                        articleStmt.setLong(1, article.id);
+                        articleStmt.setString(2, article.title);
+                        articleStmt.setString(3, article.description);
+                        articleStmt.setString(4, article.level);
+                        articleStmt.setString(5, article.keywords);
+                        articleStmt.setString(6, article.body);
+                        articleStmt.setString(7, article.referenceLinks);
+                        articleStmt.setBoolean(8, article.isRestricted);
+                        articleStmt.setString(9, article.publicTitle);
+                        articleStmt.setString(10, article.publicDesc);
+                        articleStmt.setInt(11, article.createdBy);
+                        articleStmt.setInt(12, article.lastModifiedBy);
+                        // Keep the backup's timestamps, backups written before they were saved have none
+                        articleStmt.setTimestamp(13, article.createdAt);
+                        articleStmt.setTimestamp(14, article.updatedAt);
+                        articleStmt.addBatch();
+
+                        for (String groupName : groupNames(article)) {
+                            mappingStmt.setLong(1, article.id);
+                            mappingStmt.setInt(2, GroupCache.resolve(groupName));
+                            mappingStmt.addBatch();
+                            mappings++;
+                        }
+                    }
+
+                    if (!batch.articles().isEmpty()) {
+                        articleStmt.executeBatch();
+                    }
+                    if (mappings > 0) {
+                        mappingStmt.executeBatch();
+                    }
+                    conn.commit();
+                    restoredCount.addAndGet(batch.articles().size());
+
+                    // Checkpoint only after the batch is durable, so the journal never gets ahead of the data
+                    int earlier = resumeFrom != null ? resumeFrom.restoredRows : 0;
+                    journal.checkpoint(conn, markCommitted(batch), earlier + restoredCount.get());
+                    conn.commit();
+
+                    reportProgress(processedOffset.addAndGet(batch.to() - batch.from()));
+                }
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Records a committed batch and returns the end of the contiguous run of committed batches.
+     */
+    private synchronized int markCommitted(Batch batch) {
+        committedBatches.put(batch.from(), batch.to());
+        Integer end;
+        while ((end = committedBatches.remove(committedOffset)) != null) {
+            committedOffset = end;
+        }
+        return committedOffset;
+    }
+
+    private void reportProgress(int processed) {
+        updateProgress(processed, total);
+        updateMessage(String.format("Processed %d of %d articles (%,.0f rows/s)",
+                processed, total, rowsPerSecond(restoredCount.get())));
+    }
+
+    /**
+     * Number of articles committed so far by this run, including when it failed part way.
+     * Articles restored by the earlier runs of a resumed restore are not included.
+     */
+    int getRestoredCount() {
+        return restoredCount.get();
+    }
+
+    /**
+     * Returns true once a replace restore has deleted the articles it replaces, including in
+     * the earlier run of a resumed one.
+     */
+    boolean hasDeletedArticles() {
+        return deletedArticles || (resumeFrom != null && !merge);
+    }
+
+    private double elapsedSeconds() {
+        return (System.nanoTime() - startNanos) / 1_000_000_000.0;
+    }
+
+    private double rowsPerSecond(int rows) {
+        double seconds = elapsedSeconds();
+        return seconds > 0 ? rows / seconds : 0;
+    }
+
+    private static List<String> groupNames(HelpArticle article) {
+        List<String> names = new ArrayList<>();
+        if (article.groups != null && !article.groups.isEmpty()) {
+            for (String groupName : article.groups.split(",")) {
+                groupName = groupName.trim();
+                if (!groupName.isEmpty()) {
+                    names.add(groupName);
+                }
+            }
+        }
+        return names;
+    }
+}
@@ -16,9 +16,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Random;
 
 import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.IdBlockAllocator;
 import local.jfx360.utils.PasswordUtils;
 
 /**
@@ -92,7 +92,7 @@ public class CreateAccount {
             }
 
             // Generate a unique user ID first
-            int newUserId = generateUniqueUserId(conn);
+            int newUserId = generateUniqueUserId();
 
             // Hash the password using PasswordUtils
             String hashedPassword = PasswordUtils.hashPassword(password);
@@ -150,7 +150,7 @@ public class CreateAccount {
             // Redirect to FinishSettingUpAccount.fxml, passing the user ID
             try {
                 FXMLLoader loader = new FXMLLoader(getClass().getResource("/local/jfx360/fxml/FinishSettingUpAccount.fxml"));
-                Parent finishSetupRoot = loader.load();
+                Parent finishSetupRoot = FxTracing.load(loader);
                 FinishSettingUpAccount controller = loader.getController();
                 controller.setUserId(userId); // Pass the user ID to the next scene
                 Scene finishSetupScene = new Scene(finishSetupRoot);
@@ -180,31 +180,12 @@ public class CreateAccount {
     }
 
     /**
-     * Generates a unique user ID that doesn't exist in the database.
+     * Generates a unique user ID from a block reserved in the id_sequences table.
      *
-     * @param conn The database connection
      * @return A unique user ID
-     * @throws SQLException if a database access error occurs
+     * @throws SQLException if a new block of ids could not be reserved
      */
-    private int generateUniqueUserId(Connection conn) throws SQLException {
-        Random random = new Random();
-        int newId;
-        boolean idExists;
-
-        do {
-            // Generate a random number between 1 and 1,000,000
-            newId = random.nextInt(1000000) + 1;
-
-            // Check if this ID already exists in the database
-            String query = "SELECT COUNT(*) FROM users WHERE id = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                stmt.setInt(1, newId);
-                ResultSet rs = stmt.executeQuery();
-                rs.next();
-                idExists = rs.getInt(1) > 0;
-            }
-        } while (idExists);
-
-        return newId;
+    private int generateUniqueUserId() throws SQLException {
+        return Math.toIntExact(IdBlockAllocator.forUsers().nextId());
     }
 }
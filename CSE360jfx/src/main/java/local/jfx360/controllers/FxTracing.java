@@ -0,0 +1,275 @@
+package local.jfx360.controllers;
+
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+import javafx.event.Event;
+import javafx.event.EventDispatchChain;
+import javafx.event.EventDispatcher;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Labeled;
+import javafx.stage.Window;
+import local.jfx360.utils.AppMetrics;
+import local.jfx360.utils.FxHandlerEvent;
+import local.jfx360.utils.SceneLoadEvent;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * <p> FxTracing Class. </p>
+ *
+ * <p> Description: Java Flight Recorder instrumentation of the views. {@link #load(FXMLLoader)}
+ * replaces {@code loader.load()}: it records a {@link SceneLoadEvent} for the load and, once
+ * the view is put in a Scene, wraps the scene's event dispatcher so every input event that
+ * keeps the FX thread busy past the threshold becomes a {@link FxHandlerEvent}. The handler
+ * method is looked up from the on...="#method" attributes of the FXML, by fx:id or button text,
+ * so a recording reads "AdminMainPage.deleteUser" rather than "MOUSE_RELEASED on Button". </p>
+ *
+ * <p> Start a recording with -XX:StartFlightRecording or jcmd &lt;pid&gt; JFR.start. Handlers
+ * slower than -Djfx360.fx.slowHandlerMillis (default 100) are also counted in
+ * {@link AppMetrics} as fx.slowHandlers, recording or not. </p>
+ */
+public final class FxTracing {
+
+    private static final long SLOW_HANDLER_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Integer.getInteger("jfx360.fx.slowHandlerMillis", 100));
+    private static final LongAdder SLOW_HANDLERS = new LongAdder();
+
+    static {
+        AppMetrics.counter("fx.slowHandlers", SLOW_HANDLERS::sum);
+    }
+
+    // Handler methods of each FXML file, keyed by "#fxId" or "text:Button text"
+    private static final Map<URL, Map<String, String>> HANDLERS = new ConcurrentHashMap<>();
+
+    // Handler running on the FX thread, null when idle
+    private static Frame current;
+    private static boolean windowsWatched;
+
+    private FxTracing() {
+    }
+
+    /**
+     * Loads the FXML view of the loader, recording the load and tracing the scene it ends up in.
+     */
+    public static <T> T load(FXMLLoader loader) throws IOException {
+        SceneLoadEvent event = new SceneLoadEvent();
+        event.begin();
+        T root = loader.load();
+        event.end();
+        String controller = controllerName(loader.getController());
+        if (event.shouldCommit()) {
+            event.fxml = fileName(loader.getLocation());
+            event.controller = controller;
+            event.fxThread = Platform.isFxApplicationThread();
+            event.commit();
+        }
+        if (root instanceof Parent parent) {
+            traceWhenShown(parent, controller, handlersOf(loader.getLocation()));
+        }
+        return root;
+    }
+
+    private static void traceWhenShown(Parent root, String controller, Map<String, String> handlers) {
+        if (root.getScene() != null) {
+            trace(root.getScene(), controller, handlers);
+            return;
+        }
+        root.sceneProperty().addListener(new ChangeListener<>() {
+            @Override
+            public void changed(ObservableValue<? extends Scene> observable, Scene old, Scene scene) {
+                if (scene != null && scene.getRoot() == root) {
+                    root.sceneProperty().removeListener(this);
+                    trace(scene, controller, handlers);
+                }
+            }
+        });
+    }
+
+    private static void trace(Scene scene, String controller, Map<String, String> handlers) {
+        if (!windowsWatched) {
+            windowsWatched = true;
+            // A handler that opens a dialog with showAndWait waits for the user, mark it as such
+            Window.getWindows().addListener((ListChangeListener<Window>) change -> {
+                while (change.next()) {
+                    if (change.wasAdded()) {
+                        for (Frame frame = current; frame != null; frame = frame.outer) {
+                            frame.windowShown = true;
+                        }
+                    }
+                }
+            });
+        }
+        scene.setEventDispatcher(new TracingDispatcher(scene.getEventDispatcher(), controller, handlers));
+    }
+
+    static final class TracingDispatcher implements EventDispatcher {
+        private final EventDispatcher delegate;
+        private final String controller;
+        private final Map<String, String> handlers;
+
+        TracingDispatcher(EventDispatcher delegate, String controller, Map<String, String> handlers) {
+            this.delegate = delegate;
+            this.controller = controller;
+            this.handlers = handlers;
+        }
+
+        @Override
+        public Event dispatchEvent(Event event, EventDispatchChain tail) {
+            Frame outer = current;
+            // Events fired from inside a handler, like a button's ActionEvent, belong to it,
+            // unless a dialog opened in between and this is the user clicking again
+            if (outer != null && !outer.windowShown) {
+                return delegate.dispatchEvent(event, tail);
+            }
+            Frame frame = new Frame(this, event, outer);
+            FxHandlerEvent jfr = new FxHandlerEvent();
+            jfr.begin();
+            long start = System.nanoTime();
+            current = frame;
+            Supplier<String> previous = FxHandlerEvent.enter(frame);
+            try {
+                return delegate.dispatchEvent(event, tail);
+            } finally {
+                FxHandlerEvent.exit(previous);
+                current = outer;
+                // Time spent waiting for the user in a dialog is not a stall
+                if (System.nanoTime() - start >= SLOW_HANDLER_NANOS && !frame.windowShown) {
+                    SLOW_HANDLERS.increment();
+                }
+                jfr.end();
+                if (jfr.shouldCommit()) {
+                    jfr.controller = controller;
+                    jfr.handler = frame.method();
+                    jfr.eventType = event.getEventType().getName();
+                    jfr.target = describe(event.getTarget());
+                    jfr.windowShown = frame.windowShown;
+                    jfr.commit();
+                }
+            }
+        }
+
+        // Method bound in the FXML to the target or the closest ancestor that has one
+        String methodFor(Object target) {
+            for (Node node = target instanceof Node n ? n : null; node != null; node = node.getParent()) {
+                String method = node.getId() != null ? handlers.get("#" + node.getId()) : null;
+                if (method == null && node instanceof Labeled labeled && labeled.getText() != null) {
+                    method = handlers.get("text:" + labeled.getText());
+                }
+                if (method != null) {
+                    return method;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Frame implements Supplier<String> {
+        final TracingDispatcher dispatcher;
+        final Event event;
+        final Frame outer;
+        boolean windowShown;
+        private String method;
+        private boolean resolved;
+
+        Frame(TracingDispatcher dispatcher, Event event, Frame outer) {
+            this.dispatcher = dispatcher;
+            this.event = event;
+            this.outer = outer;
+        }
+
+        String method() {
+            if (!resolved) {
+                resolved = true;
+                method = dispatcher.methodFor(event.getTarget());
+            }
+            return method;
+        }
+
+        @Override
+        public String get() {
+            String handler = method();
+            return dispatcher.controller + (handler != null ? "." + handler : " " + event.getEventType().getName());
+        }
+    }
+
+    private static String describe(Object target) {
+        if (target instanceof Labeled labeled && labeled.getText() != null) {
+            return target.getClass().getSimpleName() + " '" + labeled.getText() + "'";
+        }
+        if (target instanceof Node node && node.getId() != null) {
+            return target.getClass().getSimpleName() + " #" + node.getId();
+        }
+        return target == null ? null : target.getClass().getSimpleName();
+    }
+
+    private static String controllerName(Object controller) {
+        return controller == null ? "(no controller)" : controller.getClass().getSimpleName();
+    }
+
+    private static String fileName(URL location) {
+        if (location == null) {
+            return null;
+        }
+        String path = location.getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static Map<String, String> handlersOf(URL location) {
+        return location == null ? Map.of() : HANDLERS.computeIfAbsent(location, FxTracing::parseHandlers);
+    }
+
+    // Reads the on...="#method" attributes of the elements that have an fx:id or text
+    static Map<String, String> parseHandlers(URL location) {
+        Map<String, String> handlers = new HashMap<>();
+        try (InputStream in = location.openStream()) {
+            XMLStreamReader reader = XMLInputFactory.newFactory().createXMLStreamReader(in);
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String id = null;
+                String text = null;
+                String method = null;
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    String name = reader.getAttributeLocalName(i);
+                    String value = reader.getAttributeValue(i);
+                    if (name.equals("id") && "fx".equals(reader.getAttributePrefix(i))) {
+                        id = value;
+                    } else if (name.equals("text")) {
+                        text = value;
+                    } else if (name.startsWith("on") && value.startsWith("#")
+                            && (method == null || name.equals("onAction"))) {
+                        method = value.substring(1);
+                    }
+                }
+                if (method != null && id != null) {
+                    handlers.put("#" + id, method);
+                }
+                if (method != null && text != null) {
+                    handlers.putIfAbsent("text:" + text, method);
+                }
+            }
+            reader.close();
+        } catch (IOException | XMLStreamException e) {
+            e.printStackTrace();
+        }
+        return handlers;
+    }
+}
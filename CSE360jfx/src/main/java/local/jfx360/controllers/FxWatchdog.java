@@ -0,0 +1,251 @@
+package local.jfx360.controllers;
+
+import javafx.application.Platform;
+import local.jfx360.utils.AppMetrics;
+import local.jfx360.utils.FxStallEvent;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * <p> FxWatchdog Class. </p>
+ *
+ * <p> Description: Detects the JavaFX application thread being blocked. A daemon thread posts
+ * a heartbeat with Platform.runLater every -Djfx360.fx.heartbeatMillis (default 100) and
+ * measures how long it waits to run. When it waits longer than -Djfx360.fx.stallMillis
+ * (default 250), the FX thread's stack is sampled while it is still stuck, and the stall is
+ * blamed on the first controller method in it, such as a handler running JDBC on the FX
+ * thread. Each stall is printed (with the full stack the first time a method is blamed),
+ * committed as a {@link FxStallEvent} and counted in {@link AppMetrics} as fx.stalls, with
+ * fx.heartbeatDelayMillis and fx.maxStallMillis. Turn it off with -Djfx360.fx.watchdog=false. </p>
+ */
+public final class FxWatchdog {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("jfx360.fx.watchdog", "true"));
+    private static final long HEARTBEAT_MILLIS = Integer.getInteger("jfx360.fx.heartbeatMillis", 100);
+    private static final long STALL_MILLIS = Integer.getInteger("jfx360.fx.stallMillis", 250);
+
+    // Frames printed for a stall
+    private static final int STACK_DEPTH = 30;
+
+    private static FxWatchdog instance;
+
+    /**
+     * One stall: the method blamed, how long the heartbeat waited and the FX thread's stack.
+     */
+    public record Stall(String culprit, long millis, StackTraceElement[] stack) {
+    }
+
+    private final Consumer<Runnable> post;
+    private final Thread fxThread;
+    private final long heartbeatMillis;
+    private final long stallMillis;
+
+    private final LongAdder stalls = new LongAdder();
+    private final AtomicLong maxStallMillis = new AtomicLong();
+    private final Map<String, LongAdder> stallsByCulprit = new ConcurrentHashMap<>();
+    private volatile long lastDelayMillis;
+    private volatile Stall lastStall;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param post     runs a task on the watched thread, Platform::runLater for the FX thread
+     * @param watched  the thread the tasks run on
+     */
+    FxWatchdog(Consumer<Runnable> post, Thread watched, long heartbeatMillis, long stallMillis) {
+        this.post = post;
+        this.fxThread = watched;
+        this.heartbeatMillis = heartbeatMillis;
+        this.stallMillis = stallMillis;
+    }
+
+    /**
+     * Starts watching the FX thread. Must be called on the FX thread.
+     */
+    public static synchronized void start() {
+        if (!ENABLED || instance != null) {
+            return;
+        }
+        FxWatchdog watchdog = new FxWatchdog(Platform::runLater, Thread.currentThread(), HEARTBEAT_MILLIS, STALL_MILLIS);
+        AppMetrics.counter("fx.stalls", watchdog::getStallCount);
+        AppMetrics.gauge("fx.heartbeatDelayMillis", watchdog::getLastDelayMillis);
+        AppMetrics.gauge("fx.maxStallMillis", watchdog::getMaxStallMillis);
+        watchdog.startThread();
+        instance = watchdog;
+    }
+
+    public static synchronized void stop() {
+        if (instance != null) {
+            instance.stopThread();
+            instance = null;
+        }
+    }
+
+    /**
+     * Returns the running watchdog, or null if it is not running.
+     */
+    public static synchronized FxWatchdog getInstance() {
+        return instance;
+    }
+
+    void startThread() {
+        running = true;
+        thread = new Thread(this::watch, "fx-watchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stopThread() {
+        running = false;
+        thread.interrupt();
+    }
+
+    public long getStallCount() {
+        return stalls.sum();
+    }
+
+    public long getLastDelayMillis() {
+        return lastDelayMillis;
+    }
+
+    public long getMaxStallMillis() {
+        return maxStallMillis.get();
+    }
+
+    /**
+     * Returns the most recent stall, or null if there has been none.
+     */
+    public Stall getLastStall() {
+        return lastStall;
+    }
+
+    /**
+     * Returns how many stalls were blamed on each method.
+     */
+    public Map<String, Long> getStallsByCulprit() {
+        Map<String, Long> counts = new TreeMap<>();
+        stallsByCulprit.forEach((culprit, count) -> counts.put(culprit, count.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    private void watch() {
+        try {
+            while (running) {
+                beat();
+                Thread.sleep(heartbeatMillis);
+            }
+        } catch (InterruptedException e) {
+            // Stopped
+        }
+    }
+
+    private void beat() throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(1);
+        FxStallEvent event = new FxStallEvent();
+        event.begin();
+        long posted = System.nanoTime();
+        post.accept(ran::countDown);
+        if (ran.await(stallMillis, TimeUnit.MILLISECONDS)) {
+            lastDelayMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - posted);
+            return;
+        }
+
+        // Stuck: sample the stack until the heartbeat runs and blame the method seen most often
+        Map<String, Integer> seen = new HashMap<>();
+        String culprit = null;
+        StackTraceElement[] culpritStack = null;
+        do {
+            StackTraceElement[] stack = fxThread.getStackTrace();
+            String method = culpritOf(stack);
+            int times = seen.merge(method, 1, Integer::sum);
+            if (culprit == null || times > seen.get(culprit)) {
+                culprit = method;
+                culpritStack = stack;
+            }
+        } while (!ran.await(stallMillis, TimeUnit.MILLISECONDS) && running);
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - posted);
+        lastDelayMillis = millis;
+        record(culprit, millis, culpritStack);
+        event.end();
+        if (event.shouldCommit()) {
+            event.culprit = culprit;
+            event.stack = format(culpritStack);
+            event.commit();
+        }
+    }
+
+    private void record(String culprit, long millis, StackTraceElement[] stack) {
+        stalls.increment();
+        maxStallMillis.accumulateAndGet(millis, Math::max);
+        lastStall = new Stall(culprit, millis, stack);
+        boolean first = stallsByCulprit.putIfAbsent(culprit, new LongAdder()) == null;
+        stallsByCulprit.get(culprit).increment();
+        if (first) {
+            System.out.printf("FX thread stalled for %d ms in %s%n%s", millis, culprit, format(stack));
+        } else {
+            System.out.printf("FX thread stalled for %d ms in %s%n", millis, culprit);
+        }
+    }
+
+    /**
+     * Returns the application method a stack is in: the innermost controller or main frame,
+     * else the innermost application frame, else the top frame.
+     */
+    static String culpritOf(StackTraceElement[] stack) {
+        StackTraceElement app = null;
+        for (StackTraceElement frame : stack) {
+            String className = frame.getClassName();
+            if (!className.startsWith("local.jfx360.") || isClass(className, FxWatchdog.class)
+                    || isClass(className, FxTracing.class)) {
+                continue;
+            }
+            if (className.startsWith("local.jfx360.controllers.") || className.startsWith("local.jfx360.main.")) {
+                return describe(frame);
+            }
+            if (app == null) {
+                app = frame;
+            }
+        }
+        if (app != null) {
+            return describe(app);
+        }
+        return stack.length > 0 ? describe(stack[0]) : "(idle)";
+    }
+
+    private static boolean isClass(String className, Class<?> type) {
+        return className.equals(type.getName()) || className.startsWith(type.getName() + "$");
+    }
+
+    private static String describe(StackTraceElement frame) {
+        String className = frame.getClassName();
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        // Inner and anonymous classes keep the outer class name: AdminMainPage$1 -> AdminMainPage
+        int inner = simpleName.indexOf('$');
+        if (inner > 0) {
+            simpleName = simpleName.substring(0, inner);
+        }
+        return simpleName + "." + frame.getMethodName();
+    }
+
+    private static String format(StackTraceElement[] stack) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < Math.min(stack.length, STACK_DEPTH); i++) {
+            text.append("\tat ").append(stack[i]).append(System.lineSeparator());
+        }
+        if (stack.length > STACK_DEPTH) {
+            text.append("\t... ").append(stack.length - STACK_DEPTH).append(" more").append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+}
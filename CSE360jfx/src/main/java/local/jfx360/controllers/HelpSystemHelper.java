@@ -4,18 +4,33 @@ package local.jfx360.controllers;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import local.jfx360.service.ArticleService;
+import local.jfx360.utils.ArticleCatalog;
+import local.jfx360.utils.ChunkedBackup;
 import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.GroupCache;
+import local.jfx360.utils.SnowflakeIdGenerator;
 
 import java.io.*;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
 
 import static local.jfx360.utils.SimpleEncryption.decrypt;
 import static local.jfx360.utils.SimpleEncryption.encrypt;
@@ -29,7 +44,7 @@ import static local.jfx360.utils.DatabaseUtil.getConnection;
  *
  */
 
-public abstract class HelpSystemHelper {
+public abstract class HelpSystemHelper implements SceneLoader.HandOver {
     public static class HelpArticle implements Serializable {
         private static final long serialVersionUID = 1L;  // Add a serialVersionUID
 
@@ -61,6 +76,15 @@ public abstract class HelpSystemHelper {
         public String getAuthor() throws SQLException { return getAccount(); }
         // Add other getters as needed for TableView
 
+        /**
+         * Returns the edited values in the form the article service saves.
+         */
+        ArticleService.ArticleUpdate toUpdate() {
+            return new ArticleService.ArticleUpdate(id, title, description, level, keywords, body,
+                    referenceLinks, isRestricted, publicTitle, publicDesc,
+                    groups == null ? List.of() : Arrays.asList(groups.split(",")));
+        }
+
         /**
          * - Converts the createdBy ID into the author's username
          * - Currently Does not work
@@ -95,6 +119,9 @@ public abstract class HelpSystemHelper {
         }
     }
 
+    // This page's view of the shared article catalog
+    private final ArticleListBinding articleList = new ArticleListBinding();
+
     /**
      * Initializes the HelpSystemHelper controller.
      */
@@ -143,7 +170,6 @@ public abstract class HelpSystemHelper {
         dialog.setResultConverter(buttonType -> {
             if (buttonType == ButtonType.OK) {
                 HelpArticle article = new HelpArticle();
-                article.id = generateUniqueId();
                 article.title = titleField.getText();
                 article.description = descriptionArea.getText();
                 article.level = levelCombo.getValue();
@@ -163,7 +189,7 @@ public abstract class HelpSystemHelper {
 
         dialog.showAndWait().ifPresent(article -> {
             saveArticle(article);
-            loadArticles(tableView);
+            refreshArticles(tableView);
         });
     }
 
@@ -175,12 +201,25 @@ public abstract class HelpSystemHelper {
     protected void backupArticles(String group) {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Save Backup File");
-        fileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("Backup Files", "*.backup")
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Backup Files", "*.backup"),
+                new FileChooser.ExtensionFilter("JSON Lines Files", "*" + ArticleJsonLines.EXTENSION)
         );
 
         File file = fileChooser.showSaveDialog(new Stage());
-        if (file != null) {
+        if (file != null && ArticleJsonLines.isJsonLines(file)) {
+            try {
+                ArticleJsonLines.ExportResult result = ArticleJsonLines.export(file, group);
+                showInformationAlert("Backup Success", String.format(
+                        "Successfully backed up %d articles, %d groups and %d group mappings.%n%.1f KB written in %.2f s",
+                        result.articles(), result.groups(), result.mappings(),
+                        result.bytes() / 1024.0, result.nanos() / 1_000_000_000.0));
+            } catch (Exception e) {
+                showError("Backup Error", "Failed to backup articles: " + e.getMessage());
+                e.printStackTrace();
+            }
+        } else if (file != null) {
+            long start = System.nanoTime();
             try (Connection conn = getConnection()) {
                 // Build the query based on whether a group filter is applied
                 StringBuilder queryBuilder = new StringBuilder(
@@ -204,34 +243,36 @@ public abstract class HelpSystemHelper {
                     }
 
                     ResultSet rs = pstmt.executeQuery();
-                    List<HelpArticle> articles = new ArrayList<>();
-
-                    while (rs.next()) {
-                        HelpArticle article = new HelpArticle();
-                        article.id = rs.getLong("id");
-                        article.title = rs.getString("title");
-                        article.description = rs.getString("description");
-                        article.level = rs.getString("level");
-                        article.keywords = rs.getString("keywords");
-                        article.body = rs.getString("body");
-                        article.referenceLinks = rs.getString("reference_links");
-                        article.isRestricted = rs.getBoolean("is_restricted");
-                        article.publicTitle = rs.getString("public_title");
-                        article.publicDesc = rs.getString("public_desc");
-                        article.groups = rs.getString("group_names");
-                        article.createdAt = rs.getTimestamp("created_at");
-                        article.updatedAt = rs.getTimestamp("updated_at");
-                        article.createdBy = rs.getInt("created_by");
-                        article.lastModifiedBy = rs.getInt("last_modified_by");
-
-                        articles.add(article);
-                    }
 
-                    // Write the backup file
-                    try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
-                        out.writeObject(articles);
-                        showInformationAlert("Backup Success", "Successfully backed up " + articles.size() + " articles.");
+                    // Stream the rows into checksummed chunks of the backup file
+                    int backedUp;
+                    try (ChunkedBackup.Writer<HelpArticle> out = ChunkedBackup.openWriter(file)) {
+                        while (rs.next()) {
+                            HelpArticle article = new HelpArticle();
+                            article.id = rs.getLong("id");
+                            article.title = rs.getString("title");
+                            article.description = rs.getString("description");
+                            article.level = rs.getString("level");
+                            article.keywords = rs.getString("keywords");
+                            article.body = rs.getString("body");
+                            article.referenceLinks = rs.getString("reference_links");
+                            article.isRestricted = rs.getBoolean("is_restricted");
+                            article.publicTitle = rs.getString("public_title");
+                            article.publicDesc = rs.getString("public_desc");
+                            article.groups = rs.getString("group_names");
+                            article.createdAt = rs.getTimestamp("created_at");
+                            article.updatedAt = rs.getTimestamp("updated_at");
+                            article.createdBy = rs.getInt("created_by");
+                            article.lastModifiedBy = rs.getInt("last_modified_by");
+
+                            out.add(article);
+                        }
+                        out.finish();
+                        backedUp = out.getRecordCount();
                     }
+                    showInformationAlert("Backup Success", String.format(
+                            "Successfully backed up %d articles.%n%.1f KB written in %.2f s",
+                            backedUp, file.length() / 1024.0, (System.nanoTime() - start) / 1_000_000_000.0));
                 }
             } catch (Exception e) {
                 showError("Backup Error", "Failed to backup articles: " + e.getMessage());
@@ -251,178 +292,226 @@ public abstract class HelpSystemHelper {
         alert.showAndWait();
     }
 
+    /**
+     * Restore articles from a backup file on a background task, showing its progress
+     *
+     * @param merge true to keep existing articles, false to replace them
+     * @param tableView the table to reload once the restore finishes
+     */
     protected void restoreArticles(boolean merge, TableView<HelpArticle> tableView) {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Select Backup File");
-        fileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("Backup Files", "*.backup")
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Backup Files", "*.backup"),
+                new FileChooser.ExtensionFilter("JSON Lines Files", "*" + ArticleJsonLines.EXTENSION)
         );
 
         File file = fileChooser.showOpenDialog(new Stage());
-        if (file != null) {
-            try (Connection conn = getConnection()) {
-                // Read the backup file first before making any database changes
-                List<HelpArticle> articles;
-                try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
-                    articles = (List<HelpArticle>) in.readObject();
+        if (file != null && ArticleJsonLines.isJsonLines(file)) {
+            ArticleJsonLines.ImportTask task = new ArticleJsonLines.ImportTask(file, merge);
+            runRestoreTask(task, task::getRestoredCount, task::hasDeletedArticles, merge, tableView, "");
+        } else if (file != null) {
+            RestoreJournal resumeFrom;
+            try {
+                resumeFrom = RestoreJournal.findResumable(file);
+                if (resumeFrom != null) {
+                    String earlierMode = resumeFrom.merge ? "merge" : "replace";
+                    String content = String.format("It went through %d of the %d articles in the backup and " +
+                                    "restored %d of them%s. Resume from there? Choose No to start over.",
+                            resumeFrom.committedOffset, resumeFrom.totalRows, resumeFrom.restoredRows,
+                            resumeFrom.merge ? ", skipping those that already existed" : "");
+                    // A resumed restore keeps its mode, say so when it is not the one picked now
+                    if (resumeFrom.merge != merge) {
+                        content += String.format("%n%nThe earlier restore was a %s. Resuming continues it as a %s; " +
+                                        "choose No to start a %s instead.",
+                                earlierMode, earlierMode, merge ? "merge" : "replace");
+                    }
+                    Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+                    alert.setTitle("Resume Restore");
+                    alert.setHeaderText("An earlier " + earlierMode + " restore of this file did not finish");
+                    alert.setContentText(content);
+                    alert.getButtonTypes().setAll(ButtonType.YES, ButtonType.NO, ButtonType.CANCEL);
+                    ButtonType response = alert.showAndWait().orElse(ButtonType.CANCEL);
+                    if (response == ButtonType.CANCEL) {
+                        return;
+                    }
+                    if (response == ButtonType.NO) {
+                        resumeFrom.setStatus(RestoreJournal.ABANDONED);
+                        resumeFrom = null;
+                    }
                 }
+            } catch (SQLException e) {
+                e.printStackTrace();
+                showError("Restore Error", "Failed to read the restore journal: " + e.getMessage());
+                return;
+            }
 
-                // Set a longer timeout for the transaction
-                try (Statement stmt = conn.createStatement()) {
-                    stmt.execute("SET SESSION innodb_lock_wait_timeout=150");
-                }
+            ArticleRestoreTask task = new ArticleRestoreTask(file, merge, resumeFrom);
+            boolean effectiveMerge = resumeFrom != null ? resumeFrom.merge : merge;
+            runRestoreTask(task, task::getRestoredCount, task::hasDeletedArticles, effectiveMerge, tableView,
+                    " Restore the same file again to resume from the last checkpoint.");
+        }
+    }
+
+    /**
+     * Runs a restore task in the background with a progress window, then reloads the articles
+     *
+     */
+    private void runRestoreTask(Task<Integer> task, IntSupplier restoredCount, BooleanSupplier articlesDeleted,
+                                boolean merge, TableView<HelpArticle> tableView, String resumeHint) {
+        Stage progressStage = showProgressWindow("Restoring Articles", task);
+
+        task.setOnSucceeded(event -> {
+            progressStage.close();
+            reloadArticles(tableView);
+            showInformationAlert("Restore Success",
+                    String.format("Successfully restored %d articles%s.%n%s",
+                            task.getValue(),
+                            merge ? " (skipped existing articles)" : "",
+                            task.getMessage()));
+        });
+        task.setOnFailed(event -> {
+            progressStage.close();
+            task.getException().printStackTrace();
+            reloadArticles(tableView);
+            showError("Restore Error", "Failed to restore articles: " + task.getException().getMessage() +
+                    String.format("%n%s%s", describeStop(restoredCount.getAsInt(), articlesDeleted), resumeHint));
+        });
+        task.setOnCancelled(event -> {
+            progressStage.close();
+            reloadArticles(tableView);
+            showInformationAlert("Restore Cancelled",
+                    String.format("Restore cancelled.%n%s%s", describeStop(restoredCount.getAsInt(), articlesDeleted), resumeHint));
+        });
 
-                conn.setAutoCommit(false);
-                try {
-                    if (!merge) {
-                        // Delete in correct order to avoid foreign key constraints
-                        try (Statement stmt = conn.createStatement()) {
-                            // Disable foreign key checks temporarily
-                            stmt.execute("SET FOREIGN_KEY_CHECKS=0");
+        Thread thread = new Thread(task, "article-restore");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-                            // Delete in batches to avoid long locks
-                            stmt.execute("DELETE FROM help_article_group_mapping");
-                            stmt.execute("DELETE FROM help_articles");
+    // Batches commit on their own, so a replace that stopped part way cannot bring the old articles back
+    private static String describeStop(int restored, BooleanSupplier articlesDeleted) {
+        if (articlesDeleted.getAsBoolean()) {
+            return String.format("The previous articles were deleted and cannot be recovered. " +
+                    "Only the %d articles restored before it stopped are in the help system now.", restored);
+        }
+        return String.format("%d articles were restored before it stopped.", restored);
+    }
 
-                            // Re-enable foreign key checks
-                            stmt.execute("SET FOREIGN_KEY_CHECKS=1");
-                        }
-                    }
+    /**
+     * Checks every chunk checksum of a backup file without touching the database
+     *
+     */
+    protected void verifyBackup() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Select Backup File");
+        fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("Backup Files", "*.backup")
+        );
 
-                    // Batch insert the articles
-                    int batchSize = 50;
-                    int count = 0;
-                    int restoredCount = 0;
-
-                    String insertArticle = "INSERT INTO help_articles (id, title, description, level, keywords, " +
-                            "body, reference_links, is_restricted, public_title, public_desc, " +
-                            "created_by, last_modified_by, created_at, updated_at) " +
-                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
-
-                    try (PreparedStatement pstmt = conn.prepareStatement(insertArticle)) {
-                        for (HelpArticle article : articles) {
-                            if (merge) {
-                                // Check if article exists
-                                try (PreparedStatement checkStmt = conn.prepareStatement(
-                                        "SELECT id FROM help_articles WHERE id = ?")) {
-                                    checkStmt.setLong(1, article.id);
-                                    if (checkStmt.executeQuery().next()) {
-                                        continue; // Skip existing articles in merge mode
-                                    }
-                                }
-                            }
-
-                            pstmt.setLong(1, article.id);
-                            pstmt.setString(2, article.title);
-                            pstmt.setString(3, article.description);
-                            pstmt.setString(4, article.level);
-                            pstmt.setString(5, article.keywords);
-                            pstmt.setString(6, article.body);
-                            pstmt.setString(7, article.referenceLinks);
-                            pstmt.setBoolean(8, article.isRestricted);
-                            pstmt.setString(9, article.publicTitle);
-                            pstmt.setString(10, article.publicDesc);
-                            pstmt.setInt(11, article.createdBy);
-                            pstmt.setInt(12, article.lastModifiedBy);
-                            pstmt.addBatch();
-
-                            if (++count % batchSize == 0) {
-                                pstmt.executeBatch();
-                            }
-                            restoredCount++;
-                        }
-                        // Execute any remaining batch
-                        if (count % batchSize != 0) {
-                            pstmt.executeBatch();
-                        }
+        File file = fileChooser.showOpenDialog(new Stage());
+        if (file != null) {
+            Task<ChunkedBackup.VerifyResult> task = new Task<>() {
+                @Override
+                protected ChunkedBackup.VerifyResult call() throws Exception {
+                    updateMessage("Verifying " + file.getName() + "...");
+                    if (!ChunkedBackup.isChunked(file)) {
+                        throw new IOException(ChunkedBackup.isLegacy(file)
+                                ? "This backup was written in the old format, which has no checksums."
+                                : "This is not a backup file.");
                     }
+                    return ChunkedBackup.verify(file);
+                }
+            };
+            Stage progressStage = showProgressWindow("Verifying Backup", task);
+
+            task.setOnSucceeded(event -> {
+                progressStage.close();
+                ChunkedBackup.VerifyResult result = task.getValue();
+                showInformationAlert("Backup Verified",
+                        String.format("%s is intact: %d articles in %d chunks.%n%.1f MB checked in %.2f s (%.0f MB/s)",
+                                file.getName(), result.records(), result.chunks(), result.bytes() / 1_048_576.0,
+                                result.nanos() / 1_000_000_000.0, result.megabytesPerSecond()));
+            });
+            task.setOnFailed(event -> {
+                progressStage.close();
+                showError("Verify Error", "Backup verification failed: " + task.getException().getMessage());
+            });
+            task.setOnCancelled(event -> progressStage.close());
+
+            Thread thread = new Thread(task, "backup-verify");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
 
-                    // Handle group mappings in batches
-                    if (restoredCount > 0) {
-                        String insertMapping = "INSERT INTO help_article_group_mapping (article_id, group_id) " +
-                                "SELECT ?, ? FROM dual WHERE NOT EXISTS (" +
-                                "SELECT 1 FROM help_article_group_mapping " +
-                                "WHERE article_id = ? AND group_id = ?)";
-                        try (PreparedStatement pstmt = conn.prepareStatement(insertMapping)) {
-                            count = 0;
-                            for (HelpArticle article : articles) {
-                                // Skip group mappings for articles that weren't restored in merge mode
-                                if (merge) {
-                                    try (PreparedStatement checkStmt = conn.prepareStatement(
-                                            "SELECT id FROM help_articles WHERE id = ?")) {
-                                        checkStmt.setLong(1, article.id);
-                                        if (!checkStmt.executeQuery().next()) {
-                                            continue;
-                                        }
-                                    }
-                                }
-
-                                if (article.groups != null && !article.groups.isEmpty()) {
-                                    String[] groupNames = article.groups.split(",");
-                                    for (String groupName : groupNames) {
-                                        groupName = groupName.trim();
-                                        if (!groupName.isEmpty()) {
-                                            int groupId = ensureGroupExists(conn, groupName);
-                                            pstmt.setLong(1, article.id);
-                                            pstmt.setInt(2, groupId);
-                                            pstmt.setLong(3, article.id);
-                                            pstmt.setInt(4, groupId);
-                                            pstmt.addBatch();
-
-                                            if (++count % batchSize == 0) {
-                                                pstmt.executeBatch();
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                            // Execute any remaining batch
-                            if (count % batchSize != 0) {
-                                pstmt.executeBatch();
-                            }
-                        }
-                    }
+    /**
+     * Opens a small window with a progress bar and a cancel button bound to a background task
+     *
+     */
+    Stage showProgressWindow(String title, Task<?> task) {
+        Label messageLabel = new Label();
+        messageLabel.textProperty().bind(task.messageProperty());
+
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(360);
+        progressBar.progressProperty().bind(task.progressProperty());
+
+        Button cancelButton = new Button("Cancel");
+        cancelButton.setOnAction(event -> task.cancel());
+
+        VBox content = new VBox(10, messageLabel, progressBar, cancelButton);
+        content.setPadding(new Insets(20));
+
+        Stage stage = new Stage();
+        stage.setTitle(title);
+        stage.setScene(new Scene(content));
+        stage.setOnCloseRequest(event -> task.cancel());
+        stage.show();
+        return stage;
+    }
 
-                    conn.commit();
-
-                    // Reload the table after successful restoration
-                    if (tableView != null) {
-                        int finalRestoredCount = restoredCount;
-                        Platform.runLater(() -> {
-                            loadArticles(tableView);
-                            showInformationAlert("Restore Success",
-                                    String.format("Successfully restored %d articles%s.",
-                                            finalRestoredCount,
-                                            merge ? " (skipped existing articles)" : ""));
-                        });
-                    }
+    /**
+     * Save article
+     *
+     */
+    private void saveArticle(HelpArticle article) {
+        try {
+            article.id = generateUniqueId();
 
-                } catch (Exception e) {
-                    conn.rollback();
-                    throw e;
-                } finally {
-                    // Reset the timeout to default
-                    try (Statement stmt = conn.createStatement()) {
-                        stmt.execute("SET SESSION innodb_lock_wait_timeout=50");
+            // Resolve the groups first; GroupCache answers from memory and creates missing
+            // groups on its own connection, so the transaction below never waits on it
+            Set<Integer> groupIds = new LinkedHashSet<>();
+            if (article.groups != null && !article.groups.isEmpty()) {
+                for (String groupName : article.groups.split(",")) {
+                    groupName = groupName.trim();
+                    if (!groupName.isEmpty()) {
+                        groupIds.add(GroupCache.resolve(groupName));
                     }
-                    conn.setAutoCommit(true);
                 }
+            }
 
-            } catch (Exception e) {
-                Platform.runLater(() ->
-                        showError("Restore Error", "Failed to restore articles: " + e.getMessage()));
-                e.printStackTrace();
+            try (Connection conn = getConnection()) {
+                insertArticle(conn, article, groupIds);
             }
+        } catch (SQLException e) {
+            showError("Save Error", e.getMessage());
         }
     }
 
     /**
-     * Save article
+     * Inserts an article, maps it to its groups and grants every admin access to those groups
+     * as one unit of work. The save costs the same number of statements whatever the number of
+     * groups: the article insert, one multi-row mapping insert and one set-based grant. Their
+     * latencies are recorded in QueryStats like every other statement.
      *
+     * @param conn the connection to use
+     * @param article the article to insert
+     * @param groupIds the ids of the article's groups
      */
-    private void saveArticle(HelpArticle article) {
-        try (Connection conn = getConnection()) {
-            // Insert the article
+    void insertArticle(Connection conn, HelpArticle article, Collection<Integer> groupIds) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
             String sql = "INSERT INTO help_articles (id, title, description, level, keywords, " +
                     "body, reference_links, is_restricted, public_title, public_desc, " +
                     "created_by, last_modified_by) " +
@@ -446,136 +535,131 @@ public abstract class HelpSystemHelper {
                 pstmt.executeUpdate();
             }
 
-            // Handle groups
-            if (article.groups != null && !article.groups.isEmpty()) {
-                String[] groupNames = article.groups.split(",");
-                for (String groupName : groupNames) {
-                    groupName = groupName.trim();
-                    // Ensure the group exists
-                    int groupId = ensureGroupExists(conn, groupName);
-                    // Map the article to the group
-                    mapArticleToGroup(conn, article.id, groupId);
+            if (!groupIds.isEmpty()) {
+                // All mappings in a single multi-row insert
+                StringBuilder mappingSql = new StringBuilder(
+                        "INSERT IGNORE INTO help_article_group_mapping (article_id, group_id) VALUES ");
+                for (int i = 0; i < groupIds.size(); i++) {
+                    mappingSql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
                 }
-            }
-
-            // Query to update help_article_group_roles
-            String queryAdminRights = "SELECT userid FROM AdminRights"; // Step 1: Query AdminRights
-            String queryGroupMapping = "SELECT group_id FROM help_article_group_mapping WHERE article_id = ?"; // Step 2: Query group mapping
-
-            try (PreparedStatement adminStmt = conn.prepareStatement(queryAdminRights);
-                 ResultSet adminRs = adminStmt.executeQuery()) {
-
-                // Fetch all user IDs from AdminRights
-                List<Integer> userIds = new ArrayList<>();
-                while (adminRs.next()) {
-                    userIds.add(adminRs.getInt("userid"));
+                try (PreparedStatement pstmt = conn.prepareStatement(mappingSql.toString())) {
+                    int index = 1;
+                    for (int groupId : groupIds) {
+                        pstmt.setLong(index++, article.id);
+                        pstmt.setInt(index++, groupId);
+                    }
+                    pstmt.executeUpdate();
                 }
 
-                // Fetch group IDs associated with the article
-                try (PreparedStatement groupStmt = conn.prepareStatement(queryGroupMapping)) {
-                    groupStmt.setLong(1, article.id); // Set the article ID to find associated groups
-
-                    try (ResultSet groupRs = groupStmt.executeQuery()) {
-                        List<Integer> groupIds = new ArrayList<>();
-                        while (groupRs.next()) {
-                            groupIds.add(groupRs.getInt("group_id"));
-                        }
-
-                        // Insert into help_article_group_roles
-                        String insertRoleSql = "INSERT INTO help_article_group_roles (group_id, user_id) VALUES (?, ?)";
-                        try (PreparedStatement insertStmt = conn.prepareStatement(insertRoleSql)) {
-                            for (int groupId : groupIds) {
-                                for (int userId : userIds) {
-                                    insertStmt.setInt(1, groupId); // Insert group ID
-                                    insertStmt.setInt(2, userId); // Insert user ID (role ID)
-                                    insertStmt.addBatch(); // Add to batch for efficiency
-                                }
-                            }
-                            insertStmt.executeBatch(); // Execute batch insert
-                        }
-                    }
+                // Give every admin access to the article's groups in one statement; rows that
+                // already exist are skipped, so saving never adds duplicates
+                String grantAdminsSql = "INSERT IGNORE INTO help_article_group_roles (group_id, user_id) " +
+                        "SELECT hagm.group_id, ar.userid " +
+                        "FROM help_article_group_mapping hagm CROSS JOIN AdminRights ar " +
+                        "WHERE hagm.article_id = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(grantAdminsSql)) {
+                    pstmt.setLong(1, article.id);
+                    pstmt.executeUpdate();
                 }
             }
 
+            conn.commit();
         } catch (SQLException e) {
-            showError("Save Error", e.getMessage());
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
         }
     }
 
+    public abstract void setUserId(int userId);
 
+    /**
+     * Re-syncs the article list filled while the page was prefetched in the background.
+     */
+    @Override
+    public void handedToFxThread() {
+        try {
+            articleList.resync();
+        } catch (SQLException e) {
+            showError("Load Error", e.getMessage());
+        }
+    }
 
     /**
-     * Save article
+     * Load article to the ui from the shared article catalog. Only the first page to show
+     * articles reads them from the database; later pages are filled from memory.
      *
      */
-    int ensureGroupExists(Connection conn, String groupName) throws SQLException {
-        // First try to find the existing group
-        String selectSql = "SELECT id FROM help_article_groups WHERE name = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
-            pstmt.setString(1, groupName);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("id");
+    protected void loadArticles(TableView<HelpArticle> tableView) {
+        try {
+            ObservableList<HelpArticle> articles = articleList.getArticles();
+            if (tableView.getItems() != articles) {
+                tableView.setItems(articles);
             }
+        } catch (SQLException e) {
+            showError("Load Error", e.getMessage());
         }
+    }
 
-        // If not found, create new group
-        String insertSql = "INSERT INTO help_article_groups (name) VALUES (?)";
-        try (PreparedStatement pstmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, groupName);
-            pstmt.executeUpdate();
-            ResultSet rs = pstmt.getGeneratedKeys();
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-            throw new SQLException("Failed to create group: " + groupName);
+    /**
+     * Show only the articles of one group. The view follows later changes to the catalog.
+     *
+     */
+    protected void loadArticlesByGroup(TableView<HelpArticle> tableView, String group) {
+        try {
+            tableView.setItems(articleList.getArticlesInGroup(group));
+        } catch (SQLException e) {
+            showError("Load Error", e.getMessage());
         }
     }
 
-    void mapArticleToGroup(Connection conn, long articleId, int groupId) throws SQLException {
-        String sql = "INSERT IGNORE INTO help_article_group_mapping (article_id, group_id) VALUES (?, ?)";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setLong(1, articleId);
-            pstmt.setInt(2, groupId);
-            pstmt.executeUpdate();
+    /**
+     * Show the articles whose title, description or keywords contain the text.
+     *
+     */
+    protected void searchArticles(TableView<HelpArticle> tableView, String searchText) {
+        try {
+            tableView.setItems(FXCollections.observableArrayList(
+                    ArticleListBinding.toArticles(ArticleService.getInstance().search(searchText))));
+        } catch (SQLException e) {
+            showError("Search Error", e.getMessage());
         }
     }
 
-    public abstract void setUserId(int userId);
-
     /**
-     * Load article to the ui from the information in tableview
+     * Publishes a create, edit or delete to every open page. The catalog fetches only the
+     * articles changed since its last refresh, and each page patches its list in place so the
+     * table keeps its selection, scroll position and group filter. A table showing a search
+     * result is switched back to all articles.
      *
      */
-    protected void loadArticles(TableView<HelpArticle> tableView) {
-        try (Connection conn = getConnection()) {
-            String query = "SELECT ha.*, GROUP_CONCAT(hag.name) as group_names " +
-                    "FROM help_articles ha " +
-                    "LEFT JOIN help_article_group_mapping hagm ON ha.id = hagm.article_id " +
-                    "LEFT JOIN help_article_groups hag ON hagm.group_id = hag.id " +
-                    "GROUP BY ha.id";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                ResultSet rs = pstmt.executeQuery();
-                ObservableList<HelpArticle> articles = FXCollections.observableArrayList();
-
-                while (rs.next()) {
-                    HelpArticle article = new HelpArticle();
-                    article.id = rs.getLong("id");
-                    article.title = rs.getString("title");
-                    article.description = rs.getString("description");
-                    article.level = rs.getString("level");
-                    article.groups = rs.getString("group_names");
-                    article.createdAt = rs.getTimestamp("created_at");
-                    article.updatedAt = rs.getTimestamp("updated_at");
-                    articles.add(article);
-                }
+    protected void refreshArticles(TableView<HelpArticle> tableView) {
+        try {
+            ArticleCatalog.getInstance().refresh();
+        } catch (SQLException e) {
+            showError("Load Error", e.getMessage());
+        }
+        if (!articleList.isBound(tableView.getItems())) {
+            loadArticles(tableView);
+        }
+    }
 
-                tableView.setItems(articles);
-            }
+    /**
+     * Reloads the whole catalog after a restore, which changes too many articles to apply them
+     * one by one from the change log. The table may be null when the restore was started from
+     * a page without one.
+     *
+     */
+    protected void reloadArticles(TableView<HelpArticle> tableView) {
+        try {
+            ArticleCatalog.getInstance().reload();
         } catch (SQLException e) {
             showError("Load Error", e.getMessage());
         }
+        if (tableView != null) {
+            loadArticles(tableView);
+        }
     }
 
     /**
@@ -583,27 +667,20 @@ public abstract class HelpSystemHelper {
      *
      */
     protected void loadGroups(ComboBox<String> groupFilterComboBox) {
-        try (Connection conn = getConnection()) {
-            String query = "SELECT name FROM help_article_groups ORDER BY name";
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                ResultSet rs = pstmt.executeQuery();
-                ObservableList<String> groups = FXCollections.observableArrayList();
-                while (rs.next()) {
-                    groups.add(rs.getString("name"));
-                }
-                groupFilterComboBox.setItems(groups);
-            }
+        try {
+            // Reloading the names also refreshes the group id cache
+            groupFilterComboBox.setItems(FXCollections.observableArrayList(GroupCache.reload()));
         } catch (SQLException e) {
             showError("Load Groups Error", e.getMessage());
         }
     }
 
     /**
-     * Generate id for articles using times
+     * Generate a time-ordered id for articles that is unique across workstations
      *
      */
-    private Long generateUniqueId() {
-        return System.currentTimeMillis();
+    private Long generateUniqueId() throws SQLException {
+        return SnowflakeIdGenerator.getInstance().nextId();
     }
 
     /**
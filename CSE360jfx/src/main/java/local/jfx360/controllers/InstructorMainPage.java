@@ -6,7 +6,6 @@ import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -22,7 +21,9 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import local.jfx360.service.ArticleService;
 import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.GroupCache;
 import javafx.geometry.Insets;
 
 import static local.jfx360.utils.SimpleEncryption.decrypt;
@@ -66,6 +67,8 @@ public class InstructorMainPage extends HelpSystemHelper {
     @FXML
     private Button restoreButton;
     @FXML
+    private Button verifyBackupButton;
+    @FXML
     private Button editButton;
     @FXML
     private Button deleteButton;
@@ -239,7 +242,7 @@ public class InstructorMainPage extends HelpSystemHelper {
                     if (newVal == null || newVal.equals("All Articles")) {
                         loadArticles(helpArticlesTableView);
                     } else {
-                        loadArticlesByGroup(newVal);
+                        loadArticlesByGroup(helpArticlesTableView, newVal);
                     }
                 });
 
@@ -247,6 +250,7 @@ public class InstructorMainPage extends HelpSystemHelper {
         createHelpButton.setOnAction(e -> createHelpArticle(helpArticlesTableView, userId));
         backupButton.setOnAction(e -> backupArticles(groupFilterComboBox.getValue()));
         restoreButton.setOnAction(e -> showRestoreDialog());
+        verifyBackupButton.setOnAction(e -> verifyBackup());
         editButton.setOnAction(e -> editSelectedArticle());
         deleteButton.setOnAction(e -> deleteSelectedArticle());
         viewButton.setOnAction(e -> viewSelectedArticle());
@@ -255,44 +259,6 @@ public class InstructorMainPage extends HelpSystemHelper {
         loadArticles(helpArticlesTableView);
     }
 
-    /**
-     * Loads and displays articles belonging to a specific group.
-     * Queries the database for articles associated with the given group name
-     * and updates the table view with the filtered results.
-     *
-     * @param group The name of the group to filter articles by
-     */
-    private void loadArticlesByGroup(String group) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String query = "SELECT ha.*, GROUP_CONCAT(hag.name) as group_names " +
-                    "FROM help_articles ha " +
-                    "LEFT JOIN help_article_group_mapping hagm ON ha.id = hagm.article_id " +
-                    "LEFT JOIN help_article_groups hag ON hagm.group_id = hag.id " +
-                    "WHERE hag.name = ? " +
-                    "GROUP BY ha.id";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, group);
-                ResultSet rs = pstmt.executeQuery();
-                ObservableList<HelpArticle> articles = FXCollections.observableArrayList();
-
-                while (rs.next()) {
-                    HelpArticle article = new HelpArticle();
-                    article.id = rs.getLong("id");
-                    article.title = rs.getString("title");
-                    article.description = rs.getString("description");
-                    article.level = rs.getString("level");
-                    article.groups = rs.getString("group_names");
-                    articles.add(article);
-                }
-
-                helpArticlesTableView.setItems(articles);
-            }
-        } catch (SQLException e) {
-            showError("Load Error", e.getMessage());
-        }
-    }
-
     /**
      * Sets up real-time search functionality for the help articles.
      * Adds a listener to the search text field that:
@@ -304,56 +270,11 @@ public class InstructorMainPage extends HelpSystemHelper {
             if (newValue == null || newValue.isEmpty()) {
                 loadArticles(helpArticlesTableView);
             } else {
-                searchArticles(newValue);
+                searchArticles(helpArticlesTableView, newValue);
             }
         });
     }
 
-    /**
-     * Searches for articles based on the provided search text.
-     * Performs a case-insensitive search across multiple fields:
-     * - Article title
-     * - Description
-     * - Keywords
-     * Results are grouped by article ID and include associated group names.
-     *
-     * @param searchText The text to search for in articles
-     */
-    private void searchArticles(String searchText) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String query = "SELECT ha.*, GROUP_CONCAT(hag.name) as group_names " +
-                    "FROM help_articles ha " +
-                    "LEFT JOIN help_article_group_mapping hagm ON ha.id = hagm.article_id " +
-                    "LEFT JOIN help_article_groups hag ON hagm.group_id = hag.id " +
-                    "WHERE ha.title LIKE ? OR ha.description LIKE ? OR ha.keywords LIKE ? " +
-                    "GROUP BY ha.id";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                String searchPattern = "%" + searchText + "%";
-                pstmt.setString(1, searchPattern);
-                pstmt.setString(2, searchPattern);
-                pstmt.setString(3, searchPattern);
-
-                ResultSet rs = pstmt.executeQuery();
-                ObservableList<HelpArticle> articles = FXCollections.observableArrayList();
-
-                while (rs.next()) {
-                    HelpArticle article = new HelpArticle();
-                    article.id = rs.getLong("id");
-                    article.title = rs.getString("title");
-                    article.description = rs.getString("description");
-                    article.level = rs.getString("level");
-                    article.groups = rs.getString("group_names");
-                    articles.add(article);
-                }
-
-                helpArticlesTableView.setItems(articles);
-            }
-        } catch (SQLException e) {
-            showError("Search Error", e.getMessage());
-        }
-    }
-
     /**
      * Loads and displays a preview of the selected article.
      * Retrieves comprehensive article details including:
@@ -397,7 +318,9 @@ public class InstructorMainPage extends HelpSystemHelper {
                     boolean isAuthorized = checkAuthorization(userId, groupId);
 
                     if (isAuthorized) {
-                        preview.append("Content:\n").append(decrypt(rs.getString("body"))).append("\n\n");
+                        // Only bodies of restricted articles are saved encrypted
+                        String body = rs.getBoolean("is_restricted") ? decrypt(rs.getString("body")) : rs.getString("body");
+                        preview.append("Content:\n").append(body).append("\n\n");
                     } else {
                         preview.append("Content: [Access Restricted]\n\n");
                     }
@@ -484,7 +407,7 @@ public class InstructorMainPage extends HelpSystemHelper {
                         }
                         // User exists, proceed with update
                         updateArticle(article);
-                        loadArticles(helpArticlesTableView);
+                        refreshArticles(helpArticlesTableView);
                     }
                 } catch (SQLException e) {
                     showError("Database Error", "Failed to verify user: " + e.getMessage());
@@ -620,97 +543,31 @@ public class InstructorMainPage extends HelpSystemHelper {
      * @param article The article with updated information
      */
     private void updateArticle(HelpArticle article) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            conn.setAutoCommit(false);
-            try {
-                System.out.println("Updating article with userId: " + userId);
-
-                // Update article details
-                String sql = "UPDATE help_articles SET " +
-                        "title = ?, description = ?, level = ?, " +
-                        "keywords = ?, body = ?, reference_links = ?, " +
-                        "is_restricted = ?, public_title = ?, " +
-                        "public_desc = ?, last_modified_by = ?, " +
-                        "updated_at = CURRENT_TIMESTAMP " +
-                        "WHERE id = ?";
-
-                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                    pstmt.setString(1, article.title);
-                    pstmt.setString(2, article.description);
-                    pstmt.setString(3, article.level);
-                    pstmt.setString(4, article.keywords);
-                    pstmt.setString(5, article.body);
-                    pstmt.setString(6, article.referenceLinks);
-                    pstmt.setBoolean(7, article.isRestricted);
-                    pstmt.setString(8, article.publicTitle);
-                    pstmt.setString(9, article.publicDesc);
-                    pstmt.setInt(10, userId);
-                    pstmt.setLong(11, article.id);
-
-                    int updatedRows = pstmt.executeUpdate();
-                    if (updatedRows == 0) {
-                        throw new SQLException("No rows were updated - article may not exist");
-                    }
-                }
-
-                // Delete existing group mappings
-                try (PreparedStatement pstmt = conn.prepareStatement(
-                        "DELETE FROM help_article_group_mapping WHERE article_id = ?")) {
-                    pstmt.setLong(1, article.id);
-                    pstmt.executeUpdate();
-                }
-
-                // Check if user has admin rights
-                try (PreparedStatement checkAdmin = conn.prepareStatement(
-                        "SELECT userid FROM AdminRights WHERE userid = ?")) {
-                    checkAdmin.setInt(1, userId);
-                    ResultSet rs = checkAdmin.executeQuery();
-                    if (!rs.next()) {
-                        // Insert into AdminRights if not exists
-                        try (PreparedStatement insertAdmin = conn.prepareStatement(
-                                "INSERT INTO AdminRights (userid) VALUES (?)")) {
-                            insertAdmin.setInt(1, userId);
-                            insertAdmin.executeUpdate();
-                        }
-                    }
-                }
-
-                // Insert new group mappings with is_special_access and role_id
-                if (article.groups != null && !article.groups.isEmpty()) {
-                    String insertMappingSql =
-                            "INSERT INTO help_article_group_mapping " +
-                                    "(article_id, group_id, is_special_access, role_id) " +
-                                    "VALUES (?, ?, true, ?)";
-
-                    try (PreparedStatement pstmt = conn.prepareStatement(insertMappingSql)) {
-                        String[] groupNames = article.groups.split(",");
-                        for (String groupName : groupNames) {
-                            groupName = groupName.trim();
-                            if (!groupName.isEmpty()) {
-                                int groupId = ensureGroupExists(conn, groupName);
-                                pstmt.setLong(1, article.id);
-                                pstmt.setInt(2, groupId);
-                                pstmt.setInt(3, userId);  // Set role_id to current userId
-                                pstmt.executeUpdate();
-                            }
-                        }
-                    }
-                }
-
-                conn.commit();
-                showInformationAlert("Success", "Article updated successfully!");
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
+        try {
+            System.out.println("Updating article with userId: " + userId);
+            ensureAdminRights();
+            ArticleService.getInstance().updateArticle(article.toUpdate(), userId);
+            showInformationAlert("Success", "Article updated successfully!");
         } catch (SQLException e) {
             showError("Update Error", "Failed to update article: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    /**
+     * Gives the instructor admin rights on help articles if they do not have them yet.
+     */
+    private void ensureAdminRights() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement insertAdmin = conn.prepareStatement(
+                     "INSERT INTO AdminRights (userid) SELECT ? FROM DUAL " +
+                             "WHERE NOT EXISTS (SELECT 1 FROM AdminRights WHERE userid = ?)")) {
+            insertAdmin.setInt(1, userId);
+            insertAdmin.setInt(2, userId);
+            insertAdmin.executeUpdate();
+        }
+    }
+
     /**
      * Displays an information alert dialog.
      * Used for showing success messages and important notifications.
@@ -758,7 +615,7 @@ public class InstructorMainPage extends HelpSystemHelper {
                             pstmt.executeUpdate();
                         }
 
-                        loadArticles(helpArticlesTableView);
+                        refreshArticles(helpArticlesTableView);
                     } catch (SQLException e) {
                         showError("Delete Error", e.getMessage());
                     }
@@ -889,8 +746,7 @@ public class InstructorMainPage extends HelpSystemHelper {
     @FXML
     private void handleLogoutButton() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/local/jfx360/fxml/Login.fxml"));
-            Parent loginRoot = loader.load();
+            Parent loginRoot = SceneLoader.load("Login.fxml").root();
             Scene loginScene = new Scene(loginRoot);
             Stage currentStage = (Stage) logoutButton.getScene().getWindow();
             currentStage.setScene(loginScene);
@@ -900,46 +756,6 @@ public class InstructorMainPage extends HelpSystemHelper {
         }
     }
 
-    /**
-     * Loads and displays all help articles in the table view.
-     * Retrieves articles with their associated groups and displays:
-     * - Article ID and title
-     * - Description and level
-     * - Associated groups (concatenated)
-     *
-     * @param tableView The TableView to populate with articles
-     */
-    @Override
-    protected void loadArticles(TableView<HelpArticle> tableView) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String query = "SELECT ha.*, GROUP_CONCAT(hag.name) as group_names " +
-                    "FROM help_articles ha " +
-                    "LEFT JOIN help_article_group_mapping hagm ON ha.id = hagm.article_id " +
-                    "LEFT JOIN help_article_groups hag ON hagm.group_id = hag.id " +
-                    "GROUP BY ha.id";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query);
-                 ResultSet rs = pstmt.executeQuery()) {
-
-                ObservableList<HelpArticle> articles = FXCollections.observableArrayList();
-
-                while (rs.next()) {
-                    HelpArticle article = new HelpArticle();
-                    article.id = rs.getLong("id");
-                    article.title = rs.getString("title");
-                    article.description = rs.getString("description");
-                    article.level = rs.getString("level");
-                    article.groups = rs.getString("group_names");
-                    articles.add(article);
-                }
-
-                tableView.setItems(articles);
-            }
-        } catch (SQLException e) {
-            showError("Load Error", e.getMessage());
-        }
-    }
-
     public static class UserRecord {
         private final IntegerProperty id = new SimpleIntegerProperty();
         private final StringProperty fullName = new SimpleStringProperty();
@@ -1290,6 +1106,9 @@ public class InstructorMainPage extends HelpSystemHelper {
                         }
 
                         conn.commit();
+                        GroupCache.invalidateAll();
+                        // The removed mappings are in the change log, so only the affected articles are re-read
+                        refreshArticles(helpArticlesTableView);
                         showInformationAlert("Success", "Group deleted successfully!");
                         loadGroupsTable(); // Refresh the table
 
@@ -18,8 +18,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 
+import local.jfx360.service.AuthService;
 import local.jfx360.utils.DatabaseUtil;
-import local.jfx360.utils.PasswordUtils;
 
 /**
  * Login Controller Class.
@@ -60,46 +60,23 @@ public class Login {
             return;
         }
 
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            // Query to get the stored hashed password
-            String loginQuery = "SELECT id, password, is_one_time_password, one_time_password_expiration FROM users WHERE username = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(loginQuery)) {
-                stmt.setString(1, username);
-
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    int userId = rs.getInt("id");
-                    String storedPasswordHash = rs.getString("password");
-                    boolean isOneTimePassword = rs.getBoolean("is_one_time_password");
-
-                    // Verify the password using PasswordUtils
-                    if (PasswordUtils.verifyPassword(password,storedPasswordHash)) {
-                        // If the password is a one-time password, check if it is still valid
-                        if (isOneTimePassword) {
-                            LocalDateTime expiration = rs.getTimestamp("one_time_password_expiration").toLocalDateTime();
-                            if (expiration.isAfter(LocalDateTime.now())) {
-                                // Redirect to ResetAccount scene to allow password reset
-                                loadResetAccountScene(userId);
-                            } else {
-                                // The one-time password has expired, show an error message
-                                warningmessageTextField.setText("The one-time password has expired.");
-                            }
-                        } else {
-                            // Regular login flow, redirect to SelectRole scene
-                            loadSelectRoleScene(userId);
-                        }
-                    } else {
-                        // Incorrect password
-                        warningmessageTextField.setText("Incorrect username or password.");
-                    }
-                } else {
-                    // Username not found
-                    warningmessageTextField.setText("Incorrect username or password.");
-                }
+        try {
+            AuthService.LoginResult result = AuthService.getInstance().verify(username, password);
+            switch (result.status()) {
+                // Regular login flow, redirect to SelectRole scene
+                case OK -> loadSelectRoleScene(result.userId());
+                // Redirect to ResetAccount scene to allow password reset
+                case ONE_TIME_PASSWORD -> loadResetAccountScene(result.userId());
+                case ONE_TIME_PASSWORD_EXPIRED -> warningmessageTextField.setText("The one-time password has expired.");
+                default -> warningmessageTextField.setText("Incorrect username or password.");
             }
         } catch (SQLException e) {
             e.printStackTrace();
             warningmessageTextField.setText("Database error: " + e.getMessage());
+        } catch (AuthService.BusyException e) {
+            warningmessageTextField.setText(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -108,14 +85,12 @@ public class Login {
     // Loads the SelectRole scene after successful login.
     private void loadSelectRoleScene(int userId) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/local/jfx360/fxml/SelectRole.fxml"));
-            Parent selectRoleRoot = loader.load();
+            SceneLoader.View<SelectRole> selectRole = SceneLoader.load("SelectRole.fxml");
 
             // Pass the userId to the next controller
-            SelectRole controller = loader.getController();
-            controller.setUserId(userId);
+            selectRole.controller().setUserId(userId);
 
-            Scene selectRoleScene = new Scene(selectRoleRoot);
+            Scene selectRoleScene = new Scene(selectRole.root());
             Stage currentStage = (Stage) loginButton.getScene().getWindow();
             currentStage.setScene(selectRoleScene);
             currentStage.show();
@@ -129,7 +104,7 @@ public class Login {
     private void loadResetAccountScene(int userId) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/local/jfx360/fxml/ResetAccount.fxml"));
-            Parent resetAccountRoot = loader.load();
+            Parent resetAccountRoot = FxTracing.load(loader);
 
             // Pass the userId to the ResetAccount controller
             ResetAccount controller = loader.getController();
@@ -196,7 +171,7 @@ public class Login {
     private void loadCreateAccountScene(int invitationCodeId, int roleId) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/local/jfx360/fxml/CreateAccount.fxml"));
-            Parent createAccountRoot = loader.load();
+            Parent createAccountRoot = FxTracing.load(loader);
 
             // Pass the invitationCodeId and roleId to the next controller
             CreateAccount controller = loader.getController();
@@ -0,0 +1,113 @@
+package local.jfx360.controllers;
+
+import eu.hansolo.tilesfx.Tile;
+import eu.hansolo.tilesfx.Tile.SkinType;
+import eu.hansolo.tilesfx.TileBuilder;
+import eu.hansolo.tilesfx.tools.FlowGridPane;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.Tab;
+import local.jfx360.utils.AppMetrics;
+
+import java.util.function.Consumer;
+
+/**
+ * <p> PerformanceDashboard Class. </p>
+ *
+ * <p> Description: The admin page's Performance tab, live tiles of the {@link AppMetrics}
+ * registry: connection pool use, query rate and p99 latency, cache hit ratios, the login
+ * verification queue, heap and FX thread stalls from the {@link FxWatchdog}. The registry is only sampled while the tab
+ * is selected and its page is on screen; the samples are taken on the metrics thread and only
+ * the tile updates run on the FX thread. </p>
+ */
+class PerformanceDashboard {
+
+    private static final double TILE_SIZE = 250;
+
+    private final Tab tab = new Tab("Performance");
+    private final Consumer<AppMetrics.Sample> listener = sample -> Platform.runLater(() -> show(sample));
+    private boolean listening;
+
+    private final Tile pool = TileBuilder.create().skinType(SkinType.GAUGE).prefSize(TILE_SIZE, TILE_SIZE)
+            .title("Connection Pool").unit("%").maxValue(100).threshold(80).thresholdVisible(true).build();
+    private final Tile queryRate = TileBuilder.create().skinType(SkinType.SPARK_LINE).prefSize(TILE_SIZE, TILE_SIZE)
+            .title("Queries").unit("/s").decimals(1).averagingPeriod(60).build();
+    private final Tile queryP99 = TileBuilder.create().skinType(SkinType.SPARK_LINE).prefSize(TILE_SIZE, TILE_SIZE)
+            .title("Query p99").unit("ms").decimals(1).averagingPeriod(60).build();
+    private final Tile groupCache = TileBuilder.create().skinType(SkinType.CIRCULAR_PROGRESS).prefSize(TILE_SIZE, TILE_SIZE)
+            .title("Group Cache Hits").unit("%").maxValue(100).build();
+    private final Tile articleCache = TileBuilder.create().skinType(SkinType.CIRCULAR_PROGRESS).prefSize(TILE_SIZE, TILE_SIZE)
+            .title("Article Cache Hits").unit("%").maxValue(100).build();
+    private final Tile authQueue = TileBuilder.create().skinType(SkinType.SPARK_LINE).prefSize(TILE_SIZE, TILE_SIZE)
+            .title("Login Queue").unit("waiting").decimals(0).averagingPeriod(60).build();
+    private final Tile heap = TileBuilder.create().skinType(SkinType.GAUGE).prefSize(TILE_SIZE, TILE_SIZE)
+            .title("Heap").unit("MB").decimals(0).build();
+    private final Tile fxStalls = TileBuilder.create().skinType(SkinType.NUMBER).prefSize(TILE_SIZE, TILE_SIZE)
+            .title("FX Stalls").unit("stalls").decimals(0).textVisible(true).build();
+
+    PerformanceDashboard() {
+        FlowGridPane tiles = new FlowGridPane(4, 2,
+                pool, queryRate, queryP99, authQueue, groupCache, articleCache, heap, fxStalls);
+        tiles.setHgap(10);
+        tiles.setVgap(10);
+        tiles.setPadding(new Insets(20));
+        tab.setContent(new ScrollPane(tiles));
+
+        tab.selectedProperty().addListener((observable, wasSelected, selected) -> updateListening());
+    }
+
+    Tab getTab() {
+        return tab;
+    }
+
+    /**
+     * Stops sampling for good.
+     */
+    void stop() {
+        if (listening) {
+            AppMetrics.removeListener(listener);
+            listening = false;
+        }
+    }
+
+    private void updateListening() {
+        boolean visible = tab.isSelected() && tab.getTabPane() != null && tab.getTabPane().getScene() != null
+                && tab.getTabPane().getScene().getWindow() != null;
+        if (visible && !listening) {
+            AppMetrics.addListener(listener);
+            listening = true;
+        } else if (!visible) {
+            stop();
+        }
+    }
+
+    private void show(AppMetrics.Sample sample) {
+        // Stops once the page is no longer shown, for example after logging out
+        updateListening();
+        if (!listening) {
+            return;
+        }
+        pool.setValue(orZero(sample.get("db.pool.utilization")));
+        pool.setDescription(String.format("%.0f of %.0f in use, %.0f waiting", orZero(sample.get("db.pool.active")),
+                orZero(sample.get("db.pool.max")), orZero(sample.get("db.pool.waiting"))));
+        queryRate.setValue(orZero(sample.get("db.queries.rate")));
+        queryP99.setValue(orZero(sample.get("db.query.p99Millis")));
+        queryP99.setText(String.format("%.0f slow queries", orZero(sample.get("db.slowQueries"))));
+        groupCache.setValue(orZero(sample.get("cache.groups.hitRatio")));
+        articleCache.setValue(orZero(sample.get("cache.articles.hitRatio")));
+        authQueue.setValue(orZero(sample.get("auth.queueDepth")));
+        heap.setMaxValue(Math.max(1, orZero(sample.get("jvm.heap.maxMB"))));
+        heap.setValue(orZero(sample.get("jvm.heap.usedMB")));
+        fxStalls.setValue(orZero(sample.get("fx.stalls")));
+        FxWatchdog watchdog = FxWatchdog.getInstance();
+        FxWatchdog.Stall last = watchdog == null ? null : watchdog.getLastStall();
+        fxStalls.setText(last == null ? "none" : String.format("last %d ms in %s", last.millis(), last.culprit()));
+        fxStalls.setDescription(String.format("%.0f slow handlers, heartbeat %.0f ms",
+                orZero(sample.get("fx.slowHandlers")), orZero(sample.get("fx.heartbeatDelayMillis"))));
+    }
+
+    private static double orZero(double value) {
+        return Double.isNaN(value) ? 0 : value;
+    }
+}
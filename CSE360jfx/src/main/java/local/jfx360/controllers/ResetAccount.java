@@ -7,7 +7,6 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import java.io.IOException;
 import java.sql.Connection;
@@ -92,7 +91,7 @@ public class ResetAccount {
      */
     private void loadLoginScene() {
         try {
-            Parent loginRoot = FXMLLoader.load(getClass().getResource("/local/jfx360/fxml/Login.fxml"));
+            Parent loginRoot = SceneLoader.load("Login.fxml").root();
             Scene loginScene = new Scene(loginRoot);
 
             Stage currentStage = (Stage) confirmButton.getScene().getWindow();
@@ -0,0 +1,124 @@
+package local.jfx360.controllers;
+
+import local.jfx360.utils.DatabaseUtil;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * <p> RestoreJournal Class. </p>
+ *
+ * <p> Description: One row of the restore_journal table. A restore records how far into the
+ * backup (in file order) it has committed, so that a failed or cancelled restore of the same
+ * file can resume from that offset instead of starting over, and how many articles it
+ * actually inserted, since a merge skips the articles that already exist. A backup file is
+ * recognised by its name, size and modification time. </p>
+ */
+class RestoreJournal {
+
+    static final String RUNNING = "running";
+    static final String FAILED = "failed";
+    static final String CANCELLED = "cancelled";
+    static final String COMPLETED = "completed";
+    static final String ABANDONED = "abandoned";
+
+    final int id;
+    final boolean merge;
+    final int totalRows;
+    final int committedOffset;
+    final int restoredRows;
+
+    private RestoreJournal(int id, boolean merge, int totalRows, int committedOffset, int restoredRows) {
+        this.id = id;
+        this.merge = merge;
+        this.totalRows = totalRows;
+        this.committedOffset = committedOffset;
+        this.restoredRows = restoredRows;
+    }
+
+    /**
+     * Finds the latest unfinished restore of the given file, or null if there is none.
+     * A restore still marked as running was interrupted by the application exiting.
+     */
+    static RestoreJournal findResumable(File file) throws SQLException {
+        String sql = "SELECT id, merge_mode, total_rows, committed_offset, restored_rows FROM restore_journal " +
+                "WHERE backup_name = ? AND backup_size = ? AND backup_modified = ? " +
+                "AND status IN (?, ?, ?) AND committed_offset < total_rows " +
+                "ORDER BY id DESC LIMIT 1";
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, file.getAbsolutePath());
+            pstmt.setLong(2, file.length());
+            pstmt.setLong(3, file.lastModified());
+            pstmt.setString(4, RUNNING);
+            pstmt.setString(5, FAILED);
+            pstmt.setString(6, CANCELLED);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new RestoreJournal(rs.getInt("id"), rs.getBoolean("merge_mode"),
+                            rs.getInt("total_rows"), rs.getInt("committed_offset"), rs.getInt("restored_rows"));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Starts a new journal entry for a restore of the given file.
+     */
+    static RestoreJournal start(File file, boolean merge, int totalRows) throws SQLException {
+        String sql = "INSERT INTO restore_journal (backup_name, backup_size, backup_modified, merge_mode, " +
+                "total_rows, committed_offset, status) VALUES (?, ?, ?, ?, ?, 0, ?)";
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, file.getAbsolutePath());
+            pstmt.setLong(2, file.length());
+            pstmt.setLong(3, file.lastModified());
+            pstmt.setBoolean(4, merge);
+            pstmt.setInt(5, totalRows);
+            pstmt.setString(6, RUNNING);
+            pstmt.executeUpdate();
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    return new RestoreJournal(rs.getInt(1), merge, totalRows, 0, 0);
+                }
+            }
+        }
+        throw new SQLException("Failed to create restore journal entry");
+    }
+
+    /**
+     * Marks a resumed entry as running again.
+     */
+    void resume() throws SQLException {
+        setStatus(RUNNING);
+    }
+
+    /**
+     * Advances the committed offset and the number of articles inserted, using the caller's
+     * connection. Writers commit out of order, so this never moves either backwards.
+     */
+    void checkpoint(Connection conn, int offset, int restored) throws SQLException {
+        String sql = "UPDATE restore_journal SET committed_offset = GREATEST(committed_offset, ?), " +
+                "restored_rows = GREATEST(restored_rows, ?) WHERE id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, offset);
+            pstmt.setInt(2, restored);
+            pstmt.setInt(3, id);
+            pstmt.executeUpdate();
+        }
+    }
+
+    void setStatus(String status) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("UPDATE restore_journal SET status = ? WHERE id = ?")) {
+            pstmt.setString(1, status);
+            pstmt.setInt(2, id);
+            pstmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package local.jfx360.controllers;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import local.jfx360.utils.AppMetrics;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p> SceneLoader Class. </p>
+ *
+ * <p> Description: Loads the views the user moves between, ahead of time. A view can be
+ * prefetched: its FXML is loaded and its controller initialized on a background thread, and
+ * the next {@link #load(String)} of that file hands over the result instead of loading it on
+ * the FX thread. The role pages read their tables from the database while they initialize, so
+ * prefetching them while the user picks a role takes that work off the click. A controller that
+ * implements {@link HandOver} is told when its prefetched view reaches the thread that loads it,
+ * to bring state built on the preloader thread up to date there. </p>
+ *
+ * <p> Each prefetched view is used once, since controllers keep the state of the user they were
+ * shown to. Views kept warm, the login and role selection pages, are prefetched again as soon as
+ * one is taken; others are dropped after -Djfx360.scenes.maxSpareAgeSeconds (default 60) so their
+ * tables are not out of date. A view that fails to load in the background is loaded again on the
+ * FX thread, where its error can be shown. Turn prefetching off with -Djfx360.scenes.preload=false. </p>
+ */
+public final class SceneLoader {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("jfx360.scenes.preload", "true"));
+    private static final long MAX_SPARE_AGE_MILLIS =
+            TimeUnit.SECONDS.toMillis(Integer.getInteger("jfx360.scenes.maxSpareAgeSeconds", 60));
+
+    private static final SceneLoader INSTANCE = new SceneLoader(SceneLoader::loadNow, preloader(), MAX_SPARE_AGE_MILLIS);
+
+    static {
+        AppMetrics.counter("scenes.preloaded", INSTANCE::getHitCount);
+        AppMetrics.counter("scenes.loadedOnFxThread", INSTANCE::getMissCount);
+    }
+
+    /**
+     * A loaded view: the root to put in a Scene and its controller.
+     */
+    public record View<C>(Parent root, C controller) {
+    }
+
+    interface ViewLoader {
+        View<?> load(String fxmlFile) throws IOException;
+    }
+
+    /**
+     * Implemented by controllers that must finish initializing on the FX thread when their view
+     * was prefetched on the preloader thread.
+     */
+    interface HandOver {
+        void handedToFxThread();
+    }
+
+    // A view loading or loaded in the background, claimed by whoever starts it first
+    private static final class Spare {
+        final CompletableFuture<View<?>> view = new CompletableFuture<>();
+        final AtomicBoolean claimed = new AtomicBoolean();
+        final long createdNanos = System.nanoTime();
+    }
+
+    private final ViewLoader loader;
+    private final Executor background;
+    private final long maxSpareAgeNanos;
+
+    private final Map<String, Spare> spares = new ConcurrentHashMap<>();
+    private final Set<String> warm = ConcurrentHashMap.newKeySet();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    SceneLoader(ViewLoader loader, Executor background, long maxSpareAgeMillis) {
+        this.loader = loader;
+        this.background = background;
+        this.maxSpareAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxSpareAgeMillis);
+    }
+
+    /**
+     * Returns the view of an FXML file in /local/jfx360/fxml, prefetched if there is one.
+     */
+    @SuppressWarnings("unchecked")
+    public static <C> View<C> load(String fxmlFile) throws IOException {
+        return (View<C>) INSTANCE.take(fxmlFile);
+    }
+
+    /**
+     * Starts loading the views in the background, unless they are already.
+     */
+    public static void prefetch(String... fxmlFiles) {
+        if (ENABLED) {
+            for (String fxmlFile : fxmlFiles) {
+                INSTANCE.prepare(fxmlFile);
+            }
+        }
+    }
+
+    /**
+     * Keeps a view of each file loaded in the background from now on.
+     */
+    public static void keepWarm(String... fxmlFiles) {
+        if (ENABLED) {
+            for (String fxmlFile : fxmlFiles) {
+                INSTANCE.keep(fxmlFile);
+            }
+        }
+    }
+
+    View<?> take(String fxmlFile) throws IOException {
+        Spare spare = spares.remove(fxmlFile);
+        if (warm.contains(fxmlFile)) {
+            prepare(fxmlFile);
+        }
+        // A spare still waiting for the preloader is quicker to load here than to wait for,
+        // claiming it keeps the preloader from loading it for nothing
+        boolean started = spare != null && !spare.claimed.compareAndSet(false, true);
+        if (started && isFresh(fxmlFile, spare)) {
+            try {
+                View<?> view = spare.view.get();
+                hits.increment();
+                if (view.controller() instanceof HandOver handOver) {
+                    handOver.handedToFxThread();
+                }
+                return view;
+            } catch (ExecutionException e) {
+                // Loaded again below, on the FX thread, where its error can be shown
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        misses.increment();
+        return loader.load(fxmlFile);
+    }
+
+    void prepare(String fxmlFile) {
+        spares.compute(fxmlFile, (file, spare) -> spare != null && isFresh(file, spare) ? spare : submit(file));
+    }
+
+    void keep(String fxmlFile) {
+        warm.add(fxmlFile);
+        prepare(fxmlFile);
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    private Spare submit(String fxmlFile) {
+        Spare spare = new Spare();
+        background.execute(() -> {
+            if (!spare.claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                spare.view.complete(loader.load(fxmlFile));
+            } catch (Throwable e) {
+                spare.view.completeExceptionally(e);
+            }
+        });
+        return spare;
+    }
+
+    // Views kept warm have nothing from the database in them, the others go out of date
+    private boolean isFresh(String fxmlFile, Spare spare) {
+        return warm.contains(fxmlFile) || System.nanoTime() - spare.createdNanos < maxSpareAgeNanos;
+    }
+
+    private static View<?> loadNow(String fxmlFile) throws IOException {
+        FXMLLoader loader = new FXMLLoader(SceneLoader.class.getResource("/local/jfx360/fxml/" + fxmlFile));
+        Parent root = FxTracing.load(loader);
+        return new View<>(root, loader.getController());
+    }
+
+    private static Executor preloader() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scene-preloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
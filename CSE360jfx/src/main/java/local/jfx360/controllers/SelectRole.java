@@ -7,8 +7,6 @@ import javafx.scene.control.Label;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -16,6 +14,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import local.jfx360.utils.ArticleCatalog;
 import local.jfx360.utils.DatabaseUtil;
 
 /**
@@ -43,6 +42,8 @@ public class SelectRole {
 
     public void setUserId(int userId) {
         this.userId = userId;
+        // Every role page lists articles, so start reading them while the user picks a role
+        ArticleCatalog.getInstance().loadInBackground();
         loadUserRoles();
     }
 
@@ -79,16 +80,19 @@ public class SelectRole {
                     roleButton.setPrefHeight(43);
                     roleButton.setPrefWidth(262);
 
-                    // Set action based on the role
+                    // Set action based on the role, and start loading its page while the user picks one
                     switch (role) {
                         case "Admin":
                             roleButton.setOnAction(e -> redirectToAdminMainPage());
+                            SceneLoader.prefetch("AdminMainPage.fxml");
                             break;
                         case "Instructor":
                             roleButton.setOnAction(e -> redirectToInstructorMainPage());
+                            SceneLoader.prefetch("InstructorMainPage.fxml");
                             break;
                         case "Student":
                             roleButton.setOnAction(e -> redirectToStudentMainPage());
+                            SceneLoader.prefetch("StudentMainPage.fxml");
                             break;
                     }
 
@@ -104,12 +108,10 @@ public class SelectRole {
 
     private void redirectToAdminMainPage() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/local/jfx360/fxml/AdminMainPage.fxml"));
-            Parent adminRoot = loader.load();
-            AdminMainPage adminController = loader.getController();
-            adminController.setUserId(this.userId);
+            SceneLoader.View<AdminMainPage> adminPage = SceneLoader.load("AdminMainPage.fxml");
+            adminPage.controller().setUserId(this.userId);
 
-            Scene adminScene = new Scene(adminRoot);
+            Scene adminScene = new Scene(adminPage.root());
             Stage currentStage = (Stage) rolesVBox.getScene().getWindow();
             currentStage.setScene(adminScene);
 //            currentStage.setMaximized(true);
@@ -122,13 +124,10 @@ public class SelectRole {
 
     private void redirectToInstructorMainPage() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/local/jfx360/fxml/InstructorMainPage.fxml"));
-            Parent instructorRoot = loader.load();
+            SceneLoader.View<InstructorMainPage> instructorPage = SceneLoader.load("InstructorMainPage.fxml");
+            instructorPage.controller().setUserId(this.userId);
 
-            InstructorMainPage controller = loader.getController();
-            controller.setUserId(this.userId);
-
-            Scene instructorScene = new Scene(instructorRoot);
+            Scene instructorScene = new Scene(instructorPage.root());
             Stage currentStage = (Stage) rolesVBox.getScene().getWindow();
             currentStage.setScene(instructorScene);
 //            currentStage.setMaximized(true);
@@ -141,13 +140,10 @@ public class SelectRole {
 
     private void redirectToStudentMainPage() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/local/jfx360/fxml/StudentMainPage.fxml"));
-            Parent studentRoot = loader.load();
-
-            StudentMainPage controller = loader.getController();
-            controller.setUserId(this.userId);
+            SceneLoader.View<StudentMainPage> studentPage = SceneLoader.load("StudentMainPage.fxml");
+            studentPage.controller().setUserId(this.userId);
 
-            Scene studentScene = new Scene(studentRoot);
+            Scene studentScene = new Scene(studentPage.root());
             Stage currentStage = (Stage) rolesVBox.getScene().getWindow();
             currentStage.setScene(studentScene);
 //            currentStage.setMaximized(true);
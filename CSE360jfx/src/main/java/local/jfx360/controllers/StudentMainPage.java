@@ -5,7 +5,6 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
@@ -17,9 +16,10 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import local.jfx360.service.ArticleService;
+import local.jfx360.service.HelpRequestService;
 import local.jfx360.utils.DatabaseUtil;
 
-import static local.jfx360.utils.SimpleEncryption.decrypt;
 
 public class StudentMainPage extends HelpSystemHelper {
 
@@ -154,7 +154,7 @@ public class StudentMainPage extends HelpSystemHelper {
                     if (newVal == null || newVal.equals("All Articles")) {
                         loadArticles(helpArticlesTableView);
                     } else {
-                        loadArticlesByGroup(newVal);
+                        loadArticlesByGroup(helpArticlesTableView, newVal);
                     }
                 });
 
@@ -173,18 +173,8 @@ public class StudentMainPage extends HelpSystemHelper {
 
         String message = messageArea.getText().trim();
 
-        String query = "INSERT INTO help_system_messages (user_id, message_type, content) VALUES (?, ?, ?)";
-
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            pstmt.setInt(1, userId);
-            pstmt.setString(2, requestType.toLowerCase());
-            pstmt.setString(3, message);
-
-            int affected = pstmt.executeUpdate();
-
-            if (affected > 0) {
+        try {
+            if (HelpRequestService.getInstance().submit(userId, requestType, message)) {
                 showAlert("Success", "Your help request has been submitted.", AlertType.INFORMATION);
                 messageArea.clear();
                 loadHelpHistory();
@@ -251,100 +241,16 @@ public class StudentMainPage extends HelpSystemHelper {
             handleDatabaseError("Failed to load help history", e);
         }
     }
-    /**
-     * Loads and displays articles belonging to a specific group.
-     * Queries the database for articles associated with the given group name
-     * and updates the table view with the filtered results.
-     *
-     * @param group The name of the group to filter articles by
-     */
-    private void loadArticlesByGroup(String group) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String query = "SELECT ha.*, GROUP_CONCAT(hag.name) as group_names " +
-                    "FROM help_articles ha " +
-                    "LEFT JOIN help_article_group_mapping hagm ON ha.id = hagm.article_id " +
-                    "LEFT JOIN help_article_groups hag ON hagm.group_id = hag.id " +
-                    "WHERE hag.name = ? " +
-                    "GROUP BY ha.id";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, group);
-                ResultSet rs = pstmt.executeQuery();
-                ObservableList<HelpSystemHelper.HelpArticle> articles = FXCollections.observableArrayList();
-
-                while (rs.next()) {
-                    HelpSystemHelper.HelpArticle article = new HelpSystemHelper.HelpArticle();
-                    article.id = rs.getLong("id");
-                    article.title = rs.getString("title");
-                    article.description = rs.getString("description");
-                    article.level = rs.getString("level");
-                    article.groups = rs.getString("group_names");
-                    articles.add(article);
-                }
-
-                helpArticlesTableView.setItems(articles);
-            }
-        } catch (SQLException e) {
-            showError("Load Error", e.getMessage());
-        }
-    }
-
     private void setupSearchFunctionality() {
         searchTextField.textProperty().addListener((observable, oldValue, newValue) -> {
             if (newValue == null || newValue.isEmpty()) {
                 loadArticles(helpArticlesTableView);
             } else {
-                searchArticles(newValue);
+                searchArticles(helpArticlesTableView, newValue);
             }
         });
     }
 
-    /**
-     * Searches for articles based on the provided search text.
-     * Performs a case-insensitive search across multiple fields:
-     * - Article title
-     * - Author
-     * - Abstract
-     * - Keywords
-     * Results are grouped by article ID and include associated group names.
-     *
-     * @param searchText The text to search for in articles
-     */
-    private void searchArticles(String searchText) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String query = "SELECT ha.*, GROUP_CONCAT(hag.name) as group_names " +
-                    "FROM help_articles ha " +
-                    "LEFT JOIN help_article_group_mapping hagm ON ha.id = hagm.article_id " +
-                    "LEFT JOIN help_article_groups hag ON hagm.group_id = hag.id " +
-                    "WHERE ha.title LIKE ? OR ha.description LIKE ? OR ha.keywords LIKE ?" +
-                    "GROUP BY ha.id";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                String searchPattern = "%" + searchText + "%";
-                pstmt.setString(1, searchPattern);
-                pstmt.setString(2, searchPattern);
-                pstmt.setString(3, searchPattern);
-
-                ResultSet rs = pstmt.executeQuery();
-                ObservableList<HelpArticle> articles = FXCollections.observableArrayList();
-
-                while (rs.next()) {
-                    HelpArticle article = new HelpArticle();
-                    article.id = rs.getLong("id");
-                    article.title = rs.getString("title");
-                    article.description = rs.getString("description");
-                    article.level = rs.getString("level");
-                    article.groups = rs.getString("group_names");
-                    articles.add(article);
-                }
-
-                helpArticlesTableView.setItems(articles);
-            }
-        } catch (SQLException e) {
-            showError("Search Error", e.getMessage());
-        }
-    }
-
     private void loadUserDetails() {
         String query = """
             SELECT u.username, r.name AS role_name 
@@ -393,8 +299,7 @@ public class StudentMainPage extends HelpSystemHelper {
     @FXML
     private void handleLogoutButton() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/local/jfx360/fxml/Login.fxml"));
-            Parent loginRoot = loader.load();
+            Parent loginRoot = SceneLoader.load("Login.fxml").root();
 
             Scene loginScene = new Scene(loginRoot);
             Stage currentStage = (Stage) logoutButton.getScene().getWindow();
@@ -405,85 +310,37 @@ public class StudentMainPage extends HelpSystemHelper {
         }
     }
 
-    @Override
-    protected void loadArticles(TableView<HelpArticle> tableView) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String query = "SELECT ha.*, GROUP_CONCAT(hag.name) as group_names " +
-                    "FROM help_articles ha " +
-                    "LEFT JOIN help_article_group_mapping hagm ON ha.id = hagm.article_id " +
-                    "LEFT JOIN help_article_groups hag ON hagm.group_id = hag.id " +
-                    "GROUP BY ha.id";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query);
-                 ResultSet rs = pstmt.executeQuery()) {
-
-                ObservableList<HelpArticle> articles = FXCollections.observableArrayList();
-
-                while (rs.next()) {
-                    HelpArticle article = new HelpArticle();
-                    article.id = rs.getLong("id");
-                    article.title = rs.getString("title");
-                    article.description = rs.getString("description");
-                    article.level = rs.getString("level");
-                    article.groups = rs.getString("group_names");
-                    articles.add(article);
-                }
-
-                tableView.setItems(articles);
-            }
-        } catch (SQLException e) {
-            showError("Load Error", e.getMessage());
-        }
-    }
-
     private void loadArticlePreview(Long articleId) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String query = "SELECT ha.*, " +
-                    "(SELECT GROUP_CONCAT(DISTINCT hag.name) " +
-                    "FROM help_article_group_mapping hagm " +
-                    "JOIN help_article_groups hag ON hagm.group_id = hag.id " +
-                    "WHERE hagm.article_id = ha.id) as group_names, " +
-                    "(SELECT group_id FROM help_article_group_mapping WHERE article_id = ha.id) as group_id " +
-                    "FROM help_articles ha " +
-                    "WHERE ha.id = ?";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setLong(1, articleId);
-                ResultSet rs = pstmt.executeQuery();
-
-                if (rs.next()) {
-                    // Retrieve group ID
-                    Long groupId = rs.getLong("group_id");
-
-                    // Check authorization
-                    boolean isAuthorized = checkAuthorization(userId, groupId);
+        try {
+            // Students only read the content of articles in groups they belong to
+            ArticleService.ArticleDetail article = ArticleService.getInstance().getArticle(articleId, userId, false);
+            if (article == null) {
+                articlePreviewArea.setText("Article not found.");
+                return;
+            }
 
-                    StringBuilder preview = new StringBuilder();
-                    preview.append("Title: ").append(rs.getString("title")).append("\n\n");
-                    preview.append("Level: ").append(rs.getString("level")).append("\n\n");
+            StringBuilder preview = new StringBuilder();
+            preview.append("Title: ").append(article.title()).append("\n\n");
+            preview.append("Level: ").append(article.level()).append("\n\n");
 
-                    String groups = rs.getString("group_names");
-                    preview.append("Groups: ").append(groups != null ? groups : "None").append("\n\n");
+            String groups = String.join(",", article.groups());
+            preview.append("Groups: ").append(!groups.isEmpty() ? groups : "None").append("\n\n");
 
-                    preview.append("Description:\n").append(rs.getString("description")).append("\n\n");
+            preview.append("Description:\n").append(article.description()).append("\n\n");
 
-                    // Conditionally show content based on authorization
-                    if (isAuthorized) {
-                        preview.append("Content:\n").append(decrypt(rs.getString("body"))).append("\n\n");
-                    } else {
-                        preview.append("Content: [Access Restricted]\n\n");
-                    }
-
-                    String references = rs.getString("reference_links");
-                    if (references != null && !references.isEmpty()) {
-                        preview.append("References:\n").append(references);
-                    }
+            // Conditionally show content based on authorization
+            if (article.body() != null) {
+                preview.append("Content:\n").append(article.body()).append("\n\n");
+            } else {
+                preview.append("Content: [Access Restricted]\n\n");
+            }
 
-                    articlePreviewArea.setText(preview.toString());
-                } else {
-                    articlePreviewArea.setText("Article not found.");
-                }
+            String references = article.referenceLinks();
+            if (references != null && !references.isEmpty()) {
+                preview.append("References:\n").append(references);
             }
+
+            articlePreviewArea.setText(preview.toString());
         } catch (SQLException e) {
             showError("Preview Error", e.getMessage());
         }
@@ -502,46 +359,26 @@ public class StudentMainPage extends HelpSystemHelper {
             contentArea.setPrefRowCount(20);
             contentArea.setPrefColumnCount(50);
 
-            try (Connection conn = DatabaseUtil.getConnection()) {
-                // First, find the group ID for this article
-                String groupQuery = "SELECT group_id FROM help_article_group_mapping WHERE article_id = ?";
-                Long groupId = null;
-
-                try (PreparedStatement groupStmt = conn.prepareStatement(groupQuery)) {
-                    groupStmt.setLong(1, selected.getId());
-                    ResultSet groupRs = groupStmt.executeQuery();
-
-                    if (groupRs.next()) {
-                        groupId = groupRs.getLong("group_id");
+            try {
+                // Same access rule and decryption as the preview
+                ArticleService.ArticleDetail article =
+                        ArticleService.getInstance().getArticle(selected.getId(), userId, false);
+                if (article != null) {
+                    StringBuilder content = new StringBuilder();
+                    content.append("Title: ").append(article.title()).append("\n\n");
+                    content.append("Description:\n").append(article.description()).append("\n\n");
+
+                    if (article.body() != null) {
+                        content.append("Content:\n").append(article.body()).append("\n\n");
+                    } else {
+                        content.append("Content: [Access Restricted]\n\n");
                     }
-                }
-
-                // Then fetch the article details
-                String query = "SELECT * FROM help_articles WHERE id = ?";
-                try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                    pstmt.setLong(1, selected.getId());
-                    ResultSet rs = pstmt.executeQuery();
-
-                    if (rs.next()) {
-                        StringBuilder content = new StringBuilder();
-                        content.append("Title: ").append(rs.getString("title")).append("\n\n");
-                        content.append("Description:\n").append(rs.getString("description")).append("\n\n");
 
-                        // Proper authorization check using the retrieved group ID
-                        boolean isAuthorized = (groupId != null) && checkAuthorization(userId, groupId);
+                    String referenceLinks = article.referenceLinks();
+                    content.append("Reference Links:\n")
+                            .append(referenceLinks != null ? referenceLinks : "No references");
 
-                        if (isAuthorized) {
-                            content.append("Content:\n").append(decrypt(rs.getString("body"))).append("\n\n");
-                        } else {
-                            content.append("Content: [Access Restricted]\n\n");
-                        }
-
-                        String referenceLinks = rs.getString("reference_links");
-                        content.append("Reference Links:\n")
-                                .append(referenceLinks != null ? referenceLinks : "No references");
-
-                        contentArea.setText(content.toString());
-                    }
+                    contentArea.setText(content.toString());
                 }
             } catch (SQLException e) {
                 showError("View Error", e.getMessage());
@@ -554,22 +391,5 @@ public class StudentMainPage extends HelpSystemHelper {
             showError("View Error", "Please select an article to view.");
         }
     }
-
-    private boolean checkAuthorization(long userId, long groupId) throws SQLException {
-        String authQuery = "SELECT COUNT(*) FROM student_group_mapping WHERE group_id = ? AND user_id = ?";
-
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(authQuery)) {
-            pstmt.setLong(1, groupId);
-            pstmt.setLong(2, userId);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next() && rs.getInt(1) == 0) {
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
 }
 
@@ -0,0 +1,402 @@
+package local.jfx360.controllers;
+
+import javafx.concurrent.Task;
+import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.GroupCache;
+import local.jfx360.utils.IdBlockAllocator;
+import local.jfx360.utils.PasswordUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * <p> UserImportTask Class. </p>
+ *
+ * <p> Description: Creates user accounts from a CSV roster. The header row names the columns:
+ * username, password, first_name and last_name are required, while email, middle_name,
+ * preferred_first_name, roles and groups are optional. Roles and groups hold several names
+ * separated by ';'. The file is streamed in chunks: while the passwords of one chunk are being
+ * hashed on every core, the previous chunk is inserted into users, user_roles and
+ * student_group_mapping with batched statements in one transaction. Invalid rows are
+ * reported with their line number and skipped without stopping the import. A group name that
+ * does not exist is looked up in the database once per import, not once per row. </p>
+ */
+class UserImportTask extends Task<UserImportTask.Result> {
+
+    // Rows per insert transaction, override with -Djfx360.import.chunkSize=N
+    static final int DEFAULT_CHUNK_SIZE = Integer.getInteger("jfx360.import.chunkSize", 500);
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private static final String INSERT_USER = "INSERT INTO users (id, email_address, username, password, " +
+            "first_name, middle_name, last_name, preferred_first_name) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+    private static final String INSERT_GROUP = "INSERT IGNORE INTO student_group_mapping (user_id, group_id) VALUES (?, ?)";
+
+    /**
+     * A row that was not imported.
+     */
+    record RowError(int line, String username, String message) {
+        @Override
+        public String toString() {
+            return "Line " + line + (username.isEmpty() ? "" : " (" + username + ")") + ": " + message;
+        }
+    }
+
+    /**
+     * Outcome of an import.
+     */
+    record Result(int imported, List<RowError> errors, long nanos) {
+    }
+
+    // A validated row waiting for its password hash and insert
+    private static class Row {
+        int line;
+        String username;
+        String email;
+        String password;
+        String firstName;
+        String middleName;
+        String lastName;
+        String preferredFirstName;
+        List<Integer> roleIds = new ArrayList<>();
+        List<Integer> groupIds = new ArrayList<>();
+        Future<String> hash;
+    }
+
+    private final File file;
+    private final int chunkSize;
+    private final List<RowError> errors = new ArrayList<>();
+    // Group names found missing during this import, so each one reloads the groups only once
+    private final Set<String> unknownGroups = new HashSet<>();
+    private int imported;
+
+    UserImportTask(File file) {
+        this(file, DEFAULT_CHUNK_SIZE);
+    }
+
+    UserImportTask(File file, int chunkSize) {
+        this.file = file;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Override
+    protected Result call() throws Exception {
+        long start = System.nanoTime();
+        long fileSize = Math.max(1, file.length());
+        long bytesRead = 0;
+
+        updateMessage("Loading roles and existing users...");
+        Map<String, Integer> roleIds = new HashMap<>();
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT id, name FROM roles")) {
+                while (rs.next()) {
+                    roleIds.put(rs.getString("name").toLowerCase(Locale.ROOT), rs.getInt("id"));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT username, email_address FROM users")) {
+                while (rs.next()) {
+                    takenUsernames.add(rs.getString("username").toLowerCase(Locale.ROOT));
+                    takenEmails.add(rs.getString("email_address").toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+
+        // PBKDF2 dominates the cost of an import, so hash on every core
+        ExecutorService hashers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hash");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new IllegalArgumentException("The CSV file is empty");
+            }
+            bytesRead += headerLine.length() + 1;
+            Map<String, Integer> columns = parseHeader(headerLine);
+
+            List<Row> hashing = null;
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            int lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null && !isCancelled()) {
+                lineNumber++;
+                bytesRead += line.length() + 1;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Row row = validate(lineNumber, parseLine(line), columns, roleIds, takenUsernames, takenEmails);
+                if (row != null) {
+                    String password = row.password;
+                    row.hash = hashers.submit(() -> PasswordUtils.hashPassword(password));
+                    chunk.add(row);
+                }
+                if (chunk.size() >= chunkSize) {
+                    // Insert the previous chunk while this one is being hashed
+                    if (hashing != null) {
+                        insertChunk(hashing);
+                    }
+                    hashing = chunk;
+                    chunk = new ArrayList<>(chunkSize);
+                    reportProgress(bytesRead, fileSize);
+                }
+            }
+            if (hashing != null && !isCancelled()) {
+                insertChunk(hashing);
+            }
+            if (!chunk.isEmpty() && !isCancelled()) {
+                insertChunk(chunk);
+            }
+        } finally {
+            hashers.shutdownNow();
+        }
+
+        updateProgress(1, 1);
+        Result result = new Result(imported, List.copyOf(errors), System.nanoTime() - start);
+        updateMessage(String.format("Imported %d users in %.1f s, %d rows rejected",
+                imported, result.nanos() / 1_000_000_000.0, errors.size()));
+        return result;
+    }
+
+    private static Map<String, Integer> parseHeader(String headerLine) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = parseLine(headerLine);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("username", "password", "first_name", "last_name")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("The CSV header is missing the " + required + " column");
+            }
+        }
+        return columns;
+    }
+
+    private Row validate(int line, List<String> fields, Map<String, Integer> columns, Map<String, Integer> roleIds,
+                         Set<String> takenUsernames, Set<String> takenEmails) throws SQLException {
+        Row row = new Row();
+        row.line = line;
+        row.username = field(fields, columns, "username");
+        row.password = field(fields, columns, "password");
+        row.firstName = field(fields, columns, "first_name");
+        row.lastName = field(fields, columns, "last_name");
+        row.middleName = field(fields, columns, "middle_name");
+        row.preferredFirstName = field(fields, columns, "preferred_first_name");
+        row.email = field(fields, columns, "email");
+
+        if (row.username.isEmpty() || row.password.isEmpty() || row.firstName.isEmpty() || row.lastName.isEmpty()) {
+            return reject(row, "username, password, first_name and last_name are required");
+        }
+        if (row.username.length() > 50 || row.firstName.length() > 50 || row.lastName.length() > 50
+                || row.middleName.length() > 50 || row.preferredFirstName.length() > 50) {
+            return reject(row, "names must be at most 50 characters");
+        }
+        if (row.email.isEmpty()) {
+            // Same placeholder CreateAccount uses
+            row.email = row.username + "@example.com";
+        } else if (!EMAIL.matcher(row.email).matches()) {
+            return reject(row, "invalid email address " + row.email);
+        }
+
+        for (String role : split(field(fields, columns, "roles"))) {
+            Integer roleId = roleIds.get(role.toLowerCase(Locale.ROOT));
+            if (roleId == null) {
+                return reject(row, "unknown role " + role);
+            }
+            if (!row.roleIds.contains(roleId)) {
+                row.roleIds.add(roleId);
+            }
+        }
+        for (String group : split(field(fields, columns, "groups"))) {
+            Integer groupId = unknownGroups.contains(group) ? null : GroupCache.lookup(group);
+            if (groupId == null) {
+                unknownGroups.add(group);
+                return reject(row, "unknown group " + group);
+            }
+            if (!row.groupIds.contains(groupId)) {
+                row.groupIds.add(groupId);
+            }
+        }
+
+        // Reserve the username and email only once the row is known to be valid
+        String usernameKey = row.username.toLowerCase(Locale.ROOT);
+        String emailKey = row.email.toLowerCase(Locale.ROOT);
+        if (takenUsernames.contains(usernameKey)) {
+            return reject(row, "username already exists");
+        }
+        if (takenEmails.contains(emailKey)) {
+            return reject(row, "email address already exists");
+        }
+        takenUsernames.add(usernameKey);
+        takenEmails.add(emailKey);
+        return row;
+    }
+
+    private Row reject(Row row, String message) {
+        errors.add(new RowError(row.line, row.username, message));
+        return null;
+    }
+
+    /**
+     * Inserts a chunk in one transaction. If the batch fails, for example because another admin
+     * created one of the usernames meanwhile, the chunk is retried row by row so only the
+     * offending rows are rejected.
+     */
+    private void insertChunk(List<Row> rows) throws Exception {
+        for (Row row : rows) {
+            try {
+                row.password = row.hash.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+
+        long firstId = IdBlockAllocator.forUsers().reserveRange(rows.size());
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try {
+                    insertRows(conn, rows, firstId);
+                    conn.commit();
+                    imported += rows.size();
+                } catch (BatchUpdateException e) {
+                    conn.rollback();
+                    for (int i = 0; i < rows.size(); i++) {
+                        Row row = rows.get(i);
+                        try {
+                            insertRows(conn, List.of(row), firstId + i);
+                            conn.commit();
+                            imported++;
+                        } catch (SQLException rowError) {
+                            conn.rollback();
+                            errors.add(new RowError(row.line, row.username, rowError.getMessage()));
+                        }
+                    }
+                }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void insertRows(Connection conn, List<Row> rows, long firstId) throws SQLException {
+        try (PreparedStatement userStmt = conn.prepareStatement(INSERT_USER);
+             PreparedStatement roleStmt = conn.prepareStatement(INSERT_ROLE);
+             PreparedStatement groupStmt = conn.prepareStatement(INSERT_GROUP)) {
+            int roles = 0;
+            int groups = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                Row row = rows.get(i);
+                int userId = Math.toIntExact(firstId + i);
+                userStmt.setInt(1, userId);
+                userStmt.setString(2, row.email);
+                userStmt.setString(3, row.username);
+                userStmt.setString(4, row.password);
+                userStmt.setString(5, row.firstName);
+                userStmt.setString(6, row.middleName.isEmpty() ? null : row.middleName);
+                userStmt.setString(7, row.lastName);
+                userStmt.setString(8, row.preferredFirstName.isEmpty() ? null : row.preferredFirstName);
+                userStmt.addBatch();
+
+                for (int roleId : row.roleIds) {
+                    roleStmt.setInt(1, userId);
+                    roleStmt.setInt(2, roleId);
+                    roleStmt.addBatch();
+                    roles++;
+                }
+                for (int groupId : row.groupIds) {
+                    groupStmt.setInt(1, userId);
+                    groupStmt.setInt(2, groupId);
+                    groupStmt.addBatch();
+                    groups++;
+                }
+            }
+            userStmt.executeBatch();
+            if (roles > 0) {
+                roleStmt.executeBatch();
+            }
+            if (groups > 0) {
+                groupStmt.executeBatch();
+            }
+        }
+    }
+
+    private void reportProgress(long bytesRead, long fileSize) {
+        updateProgress(Math.min(bytesRead, fileSize), fileSize);
+        updateMessage(String.format("Imported %d users, %d rows rejected", imported, errors.size()));
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return "";
+        }
+        return fields.get(index).trim();
+    }
+
+    private static List<String> split(String value) {
+        List<String> parts = new ArrayList<>();
+        for (String part : value.split(";")) {
+            part = part.trim();
+            if (!part.isEmpty()) {
+                parts.add(part);
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Splits one CSV line, honouring double-quoted fields and doubled quotes inside them.
+     */
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
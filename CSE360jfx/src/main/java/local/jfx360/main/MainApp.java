@@ -2,10 +2,14 @@
 package local.jfx360.main;
 
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import local.jfx360.controllers.FxWatchdog;
+import local.jfx360.controllers.SceneLoader;
+import local.jfx360.utils.ArticleCatalog;
 import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.GroupRoleMaintenance;
+import local.jfx360.utils.InvitationCodes;
 
 import java.io.IOException;
 import java.sql.Connection;
@@ -47,6 +51,15 @@ public class MainApp extends Application {
 //            createDatabaseAndTables(sqlScript);
 //        }
 
+        // Keep invitation_codes small so invitation code lookups stay fast
+        InvitationCodes.startSweeper();
+
+        // Remove admin access rows duplicated by older versions of saveArticle, once per database
+        GroupRoleMaintenance.runInBackground();
+
+        // Apply article edits made on other workstations to the article catalog
+        ArticleCatalog.getInstance().startChangeFeed();
+
         // Check if any users exist
         boolean hasUsers = checkIfUsersExist();
 
@@ -59,6 +72,14 @@ public class MainApp extends Application {
         }
 
         primaryStage.show();
+
+        // Keep the login pages loaded ahead of time. The role pages are prefetched by SelectRole
+        // once the user's roles are known, so they are neither loaded for roles the user does
+        // not have nor out of date by the time the user logs in
+        SceneLoader.keepWarm("Login.fxml", "SelectRole.fxml");
+
+        // Report handlers that block the FX thread, such as database calls made on it
+        FxWatchdog.start();
     }
 
     public boolean doesDatabaseExist(String dbName) {
@@ -97,8 +118,7 @@ public class MainApp extends Application {
 
     public static void loadScene(String fxmlFile) {
         try {
-            FXMLLoader loader = new FXMLLoader(MainApp.class.getResource("/local/jfx360/fxml/" + fxmlFile));
-            Scene scene = new Scene(loader.load());
+            Scene scene = new Scene(SceneLoader.load(fxmlFile).root());
             primaryStage.setScene(scene);
         } catch (IOException e) {
             e.printStackTrace();
@@ -125,6 +145,17 @@ public class MainApp extends Application {
         }
     }
 
+    /**
+     * Releases the pooled database connections when the application exits.
+     */
+    @Override
+    public void stop() {
+        FxWatchdog.stop();
+        InvitationCodes.stopSweeper();
+        ArticleCatalog.getInstance().stopChangeFeed();
+        DatabaseUtil.shutdown();
+    }
+
     public static Stage getPrimaryStage() {
         return primaryStage;
     }
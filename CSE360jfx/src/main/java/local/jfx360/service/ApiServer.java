@@ -0,0 +1,332 @@
+package local.jfx360.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import local.jfx360.utils.ArticleCatalog;
+import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.QueryStats;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p> ApiServer Class. </p>
+ *
+ * <p> Description: HTTP/JSON front end of {@link AuthService} and {@link ArticleService}, built
+ * on the JDK HttpServer. Every request runs on its own virtual thread, so a request waiting for
+ * a pooled connection or a password check parks without holding a platform thread, and one
+ * process can keep thousands of students connected while the database sees at most
+ * {@code jfx360.db.poolSize} connections. </p>
+ *
+ * <p> Endpoints: POST /api/login and /api/logout, GET /api/articles[?group=],
+ * /api/articles/{id}, /api/search?q=, /api/groups, /api/health and, for admins,
+ * /api/metrics/queries[?top=]. Everything except login and health needs an
+ * {@code Authorization: Bearer <token>} header. Article ids are sent as strings: they are
+ * larger than the 2^53 up to which JavaScript numbers are exact. </p>
+ */
+public class ApiServer {
+
+    // Largest request body accepted, login requests are tiny
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private static final System.Logger LOG = System.getLogger(ApiServer.class.getName());
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AuthService auth;
+    private final ArticleService articles;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Thrown by handlers to answer with an error status.
+     */
+    private static class ApiException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(HttpExchange exchange) throws Exception;
+    }
+
+    public ApiServer() {
+        this(AuthService.getInstance(), ArticleService.getInstance());
+    }
+
+    ApiServer(AuthService auth, ArticleService articles) {
+        this.auth = auth;
+        this.articles = articles;
+    }
+
+    /**
+     * Starts listening on the given port.
+     */
+    public synchronized void start(int port) throws IOException {
+        if (server != null) {
+            return;
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        server.createContext("/api/login", exchange -> respond(exchange, "POST", this::login));
+        server.createContext("/api/logout", exchange -> respond(exchange, "POST", this::logout));
+        server.createContext("/api/articles", exchange -> respond(exchange, "GET", this::articles));
+        server.createContext("/api/search", exchange -> respond(exchange, "GET", this::search));
+        server.createContext("/api/groups", exchange -> respond(exchange, "GET", this::groups));
+        server.createContext("/api/health", exchange -> respond(exchange, "GET", this::health));
+        server.createContext("/api/metrics/queries", exchange -> respond(exchange, "GET", this::queries));
+        server.start();
+        LOG.log(System.Logger.Level.INFO, "Help API listening on port " + server.getAddress().getPort());
+    }
+
+    /**
+     * Returns the port the server listens on, useful when it was started on port 0.
+     */
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, giving running ones up to the delay to finish.
+     */
+    public synchronized void stop(int delaySeconds) {
+        if (server != null) {
+            server.stop(delaySeconds);
+            executor.shutdown();
+            server = null;
+            executor = null;
+        }
+    }
+
+    private Object login(HttpExchange exchange) throws Exception {
+        JsonNode body = readBody(exchange);
+        String username = body.path("username").asText("");
+        String password = body.path("password").asText("");
+        if (username.isEmpty() || password.isEmpty()) {
+            throw new ApiException(400, "Username and password must not be empty.");
+        }
+        AuthService.Session session;
+        try {
+            session = auth.login(username, password);
+        } catch (AuthService.BusyException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            throw new ApiException(503, e.getMessage());
+        }
+        if (session == null) {
+            throw new ApiException(401, "Incorrect username or password.");
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("token", session.token());
+        result.put("userId", session.userId());
+        result.put("roles", session.roles());
+        result.put("expires", session.expires().toString());
+        return result;
+    }
+
+    private Object logout(HttpExchange exchange) throws Exception {
+        requireSession(exchange);
+        auth.logout(bearerToken(exchange));
+        return Map.of("status", "ok");
+    }
+
+    private Object articles(HttpExchange exchange) throws Exception {
+        AuthService.Session session = requireSession(exchange);
+        String path = exchange.getRequestURI().getPath();
+        String rest = path.substring("/api/articles".length());
+        if (rest.isEmpty() || rest.equals("/")) {
+            return toJson(articles.listArticles(queryParameters(exchange).get("group")));
+        }
+        long id;
+        try {
+            id = Long.parseLong(rest.substring(1));
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "No such article.");
+        }
+        boolean privileged = session.hasRole("Admin") || session.hasRole("Instructor");
+        ArticleService.ArticleDetail detail = articles.getArticle(id, session.userId(), privileged);
+        if (detail == null) {
+            throw new ApiException(404, "No such article.");
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("id", Long.toString(detail.id()));
+        result.put("title", detail.title());
+        result.put("description", detail.description());
+        result.put("level", detail.level());
+        result.put("keywords", detail.keywords());
+        result.put("body", detail.body());
+        result.put("referenceLinks", detail.referenceLinks());
+        result.put("restricted", detail.restricted());
+        result.put("groups", detail.groups());
+        return result;
+    }
+
+    private Object search(HttpExchange exchange) throws Exception {
+        requireSession(exchange);
+        String text = queryParameters(exchange).get("q");
+        if (text == null || text.isBlank()) {
+            throw new ApiException(400, "Missing search text.");
+        }
+        return toJson(articles.search(text));
+    }
+
+    private Object groups(HttpExchange exchange) throws Exception {
+        requireSession(exchange);
+        return articles.listGroups();
+    }
+
+    private Object health(HttpExchange exchange) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", "ok");
+        result.put("catalogLoaded", ArticleCatalog.getInstance().isLoaded());
+        result.put("requests", requests.sum());
+        result.put("errors", errors.sum());
+        result.put("authQueueDepth", auth.getQueueDepth());
+        result.put("authMaxQueueDepth", auth.getMaxQueueDepth());
+        result.put("authRejected", auth.getRejectedCount());
+        result.put("sessions", auth.getActiveSessionCount());
+        result.put("dbPoolSize", DatabaseUtil.getPoolSize());
+        return result;
+    }
+
+    private Object queries(HttpExchange exchange) throws Exception {
+        AuthService.Session session = requireSession(exchange);
+        if (!session.hasRole("Admin")) {
+            throw new ApiException(403, "Only admins can see query statistics.");
+        }
+        String top = queryParameters(exchange).get("top");
+        int limit;
+        try {
+            limit = top == null ? 20 : Integer.parseInt(top);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "top must be a number.");
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("slowQueries", QueryStats.getSlowQueryCount());
+        result.put("statements", QueryStats.top(Math.max(1, limit)));
+        return result;
+    }
+
+    private void respond(HttpExchange exchange, String method, Handler handler) throws IOException {
+        requests.increment();
+        int status = 200;
+        Object body;
+        try {
+            if (!method.equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", method);
+                throw new ApiException(405, "Use " + method + ".");
+            }
+            body = handler.handle(exchange);
+        } catch (ApiException e) {
+            status = e.status;
+            body = Map.of("error", e.getMessage());
+        } catch (SQLException e) {
+            errors.increment();
+            e.printStackTrace();
+            status = 503;
+            body = Map.of("error", "Database unavailable.");
+        } catch (Exception e) {
+            errors.increment();
+            e.printStackTrace();
+            status = 500;
+            body = Map.of("error", "Internal error.");
+        }
+
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private AuthService.Session requireSession(HttpExchange exchange) throws ApiException {
+        AuthService.Session session = auth.authenticate(bearerToken(exchange));
+        if (session == null) {
+            throw new ApiException(401, "Log in first.");
+        }
+        return session;
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return null;
+        }
+        return header.substring("Bearer ".length()).trim();
+    }
+
+    private JsonNode readBody(HttpExchange exchange) throws IOException, ApiException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Request body too large.");
+            }
+            try {
+                return mapper.readTree(bytes.length == 0 ? new byte[]{'{', '}'} : bytes);
+            } catch (IOException e) {
+                throw new ApiException(400, "Request body is not valid JSON.");
+            }
+        }
+    }
+
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.putIfAbsent(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Returns article list entries in the form the API sends them.
+     */
+    public static List<Map<String, Object>> toJson(Collection<ArticleCatalog.Entry> entries) {
+        List<Map<String, Object>> result = new ArrayList<>(entries.size());
+        for (ArticleCatalog.Entry entry : entries) {
+            Map<String, Object> article = new LinkedHashMap<>();
+            article.put("id", Long.toString(entry.id()));
+            article.put("title", entry.title());
+            article.put("description", entry.description());
+            article.put("level", entry.level());
+            article.put("groups", entry.groups());
+            article.put("updatedAt", entry.updatedAt() == null ? null : entry.updatedAt().getTime());
+            result.add(article);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,210 @@
+package local.jfx360.service;
+
+import local.jfx360.utils.ArticleCatalog;
+import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.GroupCache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static local.jfx360.utils.SimpleEncryption.decrypt;
+
+/**
+ * <p> ArticleService Class. </p>
+ *
+ * <p> Description: Article logic of the help system without any user interface: article lists,
+ * search, article details, edits and group names. Lists come from the shared
+ * {@link ArticleCatalog}; everything else goes to the database. Used by the role pages and by
+ * the HTTP API. </p>
+ */
+public class ArticleService {
+
+    private static final ArticleService INSTANCE = new ArticleService();
+
+    /**
+     * Everything shown when an article is opened. The body is null when the user may not read it.
+     */
+    public record ArticleDetail(long id, String title, String description, String level, String keywords,
+                                String body, String referenceLinks, boolean restricted, List<String> groups) {
+    }
+
+    /**
+     * New values of an edited article. Group names are resolved (and created) by name.
+     */
+    public record ArticleUpdate(long id, String title, String description, String level, String keywords,
+                                String body, String referenceLinks, boolean restricted, String publicTitle,
+                                String publicDesc, Collection<String> groups) {
+    }
+
+    private ArticleService() {
+    }
+
+    public static ArticleService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns every article, or the articles of one group when a group is given.
+     */
+    public Collection<ArticleCatalog.Entry> listArticles(String group) throws SQLException {
+        ArticleCatalog catalog = ArticleCatalog.getInstance();
+        return group == null || group.isEmpty() ? catalog.getArticles() : catalog.getArticlesInGroup(group);
+    }
+
+    /**
+     * Returns the articles whose title, description or keywords contain the text.
+     */
+    public List<ArticleCatalog.Entry> search(String searchText) throws SQLException {
+        String query = "SELECT id FROM help_articles " +
+                "WHERE title LIKE ? OR description LIKE ? OR keywords LIKE ? ORDER BY id";
+        ArticleCatalog catalog = ArticleCatalog.getInstance();
+        catalog.getArticles();
+        List<ArticleCatalog.Entry> results = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            String searchPattern = "%" + searchText + "%";
+            pstmt.setString(1, searchPattern);
+            pstmt.setString(2, searchPattern);
+            pstmt.setString(3, searchPattern);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    // The metadata comes from the catalog, so the query only returns ids
+                    ArticleCatalog.Entry entry = catalog.get(rs.getLong(1));
+                    if (entry != null) {
+                        results.add(entry);
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns an article with its body if the user may read it: admins and instructors read
+     * every article, students the articles of groups they belong to.
+     *
+     * @return the article, or null if it does not exist
+     */
+    public ArticleDetail getArticle(long articleId, int userId, boolean privileged) throws SQLException {
+        String query = "SELECT id, title, description, level, keywords, body, reference_links, is_restricted " +
+                "FROM help_articles WHERE id = ?";
+        String accessQuery = "SELECT COUNT(*) FROM help_article_group_mapping hagm " +
+                "JOIN student_group_mapping sgm ON sgm.group_id = hagm.group_id " +
+                "WHERE hagm.article_id = ? AND sgm.user_id = ?";
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            boolean mayRead = privileged;
+            if (!mayRead) {
+                try (PreparedStatement pstmt = conn.prepareStatement(accessQuery)) {
+                    pstmt.setLong(1, articleId);
+                    pstmt.setInt(2, userId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        mayRead = rs.next() && rs.getInt(1) > 0;
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                pstmt.setLong(1, articleId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    ArticleCatalog.Entry entry = ArticleCatalog.getInstance().get(articleId);
+                    boolean restricted = rs.getBoolean("is_restricted");
+                    String body = null;
+                    if (mayRead) {
+                        // Only bodies of restricted articles are saved encrypted
+                        body = restricted ? decrypt(rs.getString("body")) : rs.getString("body");
+                    }
+                    return new ArticleDetail(rs.getLong("id"), rs.getString("title"),
+                            rs.getString("description"), rs.getString("level"), rs.getString("keywords"),
+                            body, rs.getString("reference_links"), restricted,
+                            entry != null ? entry.groups() : List.of());
+                }
+            }
+        }
+    }
+
+    /**
+     * Saves an edited article and replaces its group mappings in one transaction.
+     *
+     * @throws SQLException if the article does not exist or could not be saved
+     */
+    public void updateArticle(ArticleUpdate article, int userId) throws SQLException {
+        String sql = "UPDATE help_articles SET title = ?, description = ?, level = ?, keywords = ?, body = ?, " +
+                "reference_links = ?, is_restricted = ?, public_title = ?, public_desc = ?, " +
+                "last_modified_by = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+        // Resolve groups before the transaction so it only holds locks on the article rows
+        Set<Integer> groupIds = new LinkedHashSet<>();
+        for (String groupName : article.groups()) {
+            String trimmed = groupName.trim();
+            if (!trimmed.isEmpty()) {
+                groupIds.add(GroupCache.resolve(trimmed));
+            }
+        }
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, article.title());
+                    pstmt.setString(2, article.description());
+                    pstmt.setString(3, article.level());
+                    pstmt.setString(4, article.keywords());
+                    pstmt.setString(5, article.body());
+                    pstmt.setString(6, article.referenceLinks());
+                    pstmt.setBoolean(7, article.restricted());
+                    pstmt.setString(8, article.publicTitle());
+                    pstmt.setString(9, article.publicDesc());
+                    pstmt.setInt(10, userId);
+                    pstmt.setLong(11, article.id());
+                    if (pstmt.executeUpdate() == 0) {
+                        throw new SQLException("No rows were updated - article may not exist");
+                    }
+                }
+
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "DELETE FROM help_article_group_mapping WHERE article_id = ?")) {
+                    pstmt.setLong(1, article.id());
+                    pstmt.executeUpdate();
+                }
+
+                if (!groupIds.isEmpty()) {
+                    StringBuilder mappingSql = new StringBuilder(
+                            "INSERT IGNORE INTO help_article_group_mapping (article_id, group_id) VALUES ");
+                    for (int i = 0; i < groupIds.size(); i++) {
+                        mappingSql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+                    }
+                    try (PreparedStatement pstmt = conn.prepareStatement(mappingSql.toString())) {
+                        int index = 1;
+                        for (int groupId : groupIds) {
+                            pstmt.setLong(index++, article.id());
+                            pstmt.setInt(index++, groupId);
+                        }
+                        pstmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Returns the names of all groups.
+     */
+    public List<String> listGroups() throws SQLException {
+        return GroupCache.reload();
+    }
+}
@@ -0,0 +1,246 @@
+package local.jfx360.service;
+
+import local.jfx360.utils.AppMetrics;
+import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.PasswordUtils;
+
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p> AuthService Class. </p>
+ *
+ * <p> Description: Checks user names and passwords and keeps the sessions of API clients.
+ * Used by the login page and by the HTTP API. Password checks run PBKDF2, which keeps a core
+ * busy for several milliseconds, so at most one check per core runs at a time. Further
+ * requests wait in a bounded queue; when the queue is full the check is refused at once
+ * instead of letting thousands of virtual threads pile up behind the CPU. The current and
+ * highest queue depth are kept for monitoring. </p>
+ */
+public class AuthService {
+
+    // Password checks allowed to run at once, override with -Djfx360.auth.maxConcurrent=N
+    private static final int MAX_CONCURRENT = Integer.getInteger("jfx360.auth.maxConcurrent",
+            Runtime.getRuntime().availableProcessors());
+
+    // Password checks allowed to wait for a free slot, override with -Djfx360.auth.maxQueue=N
+    private static final int MAX_QUEUE = Integer.getInteger("jfx360.auth.maxQueue", 256);
+
+    // Lifetime of an API session, override with -Djfx360.auth.sessionMinutes=N
+    private static final Duration SESSION_LIFETIME =
+            Duration.ofMinutes(Integer.getInteger("jfx360.auth.sessionMinutes", 120));
+
+    // Checked when the user name is unknown, so that the answer takes as long as for a real user
+    // and its timing does not tell which user names exist
+    private static final String DUMMY_HASH = PasswordUtils.hashPassword("unknown user");
+
+    private static final AuthService INSTANCE = new AuthService(MAX_CONCURRENT, MAX_QUEUE);
+
+    static {
+        AppMetrics.gauge("auth.queueDepth", INSTANCE::getQueueDepth);
+        AppMetrics.gauge("auth.sessions", INSTANCE::getActiveSessionCount);
+        AppMetrics.counter("auth.rejected", INSTANCE::getRejectedCount);
+    }
+
+    /**
+     * Outcome of a password check.
+     */
+    public enum Status {
+        OK,
+        INVALID,
+        ONE_TIME_PASSWORD,
+        ONE_TIME_PASSWORD_EXPIRED
+    }
+
+    public record LoginResult(Status status, int userId) {
+    }
+
+    public record Session(String token, int userId, String username, List<String> roles, Instant expires) {
+
+        public boolean hasRole(String role) {
+            return roles.contains(role);
+        }
+    }
+
+    /**
+     * Thrown when the password check queue is full.
+     */
+    public static class BusyException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public BusyException(String message) {
+            super(message);
+        }
+    }
+
+    private final int maxQueue;
+    private final Semaphore slots;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+
+    AuthService(int maxConcurrent, int maxQueue) {
+        this.maxQueue = maxQueue;
+        this.slots = new Semaphore(Math.max(1, maxConcurrent), true);
+    }
+
+    public static AuthService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Checks a user name and password.
+     *
+     * @throws BusyException if too many checks are already waiting
+     */
+    public LoginResult verify(String username, String password)
+            throws SQLException, BusyException, InterruptedException {
+        String loginQuery = "SELECT id, password, is_one_time_password, one_time_password_expiration " +
+                "FROM users WHERE username = ?";
+        int userId = 0;
+        String storedPasswordHash = null;
+        boolean isOneTimePassword = false;
+        Timestamp expiration = null;
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(loginQuery)) {
+            stmt.setString(1, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    userId = rs.getInt("id");
+                    storedPasswordHash = rs.getString("password");
+                    isOneTimePassword = rs.getBoolean("is_one_time_password");
+                    expiration = rs.getTimestamp("one_time_password_expiration");
+                }
+            }
+        }
+
+        // The connection is back in the pool before the slow hash starts
+        if (storedPasswordHash == null) {
+            checkPassword(password, DUMMY_HASH);
+            return new LoginResult(Status.INVALID, 0);
+        }
+        if (!checkPassword(password, storedPasswordHash)) {
+            return new LoginResult(Status.INVALID, userId);
+        }
+        if (!isOneTimePassword) {
+            return new LoginResult(Status.OK, userId);
+        }
+        boolean valid = expiration != null && expiration.toInstant().isAfter(Instant.now());
+        return new LoginResult(valid ? Status.ONE_TIME_PASSWORD : Status.ONE_TIME_PASSWORD_EXPIRED, userId);
+    }
+
+    private boolean checkPassword(String password, String stored) throws BusyException, InterruptedException {
+        int depth = queueDepth.incrementAndGet();
+        try {
+            if (depth > maxQueue) {
+                rejected.increment();
+                throw new BusyException("Too many logins in progress, try again shortly");
+            }
+            maxQueueDepth.accumulateAndGet(depth, Math::max);
+            slots.acquire();
+        } finally {
+            queueDepth.decrementAndGet();
+        }
+        try {
+            return PasswordUtils.verifyPassword(password, stored);
+        } finally {
+            slots.release();
+        }
+    }
+
+    /**
+     * Checks a user name and password and opens an API session for a regular login.
+     *
+     * @return the session, or null if the login was not a regular successful one
+     */
+    public Session login(String username, String password)
+            throws SQLException, BusyException, InterruptedException {
+        LoginResult result = verify(username, password);
+        if (result.status() != Status.OK) {
+            return null;
+        }
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Session session = new Session(token, result.userId(), username, loadRoles(result.userId()),
+                Instant.now().plus(SESSION_LIFETIME));
+        sessions.put(token, session);
+        return session;
+    }
+
+    /**
+     * Returns the session of a token, or null if it is unknown or expired.
+     */
+    public Session authenticate(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session != null && session.expires().isBefore(Instant.now())) {
+            sessions.remove(token);
+            return null;
+        }
+        return session;
+    }
+
+    public void logout(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    /**
+     * Drops expired sessions.
+     */
+    public void removeExpiredSessions() {
+        Instant now = Instant.now();
+        sessions.values().removeIf(session -> session.expires().isBefore(now));
+    }
+
+    public List<String> loadRoles(int userId) throws SQLException {
+        String query = "SELECT r.name FROM roles r JOIN user_roles ur ON r.id = ur.role_id WHERE ur.user_id = ?";
+        List<String> roles = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    roles.add(rs.getString(1));
+                }
+            }
+        }
+        return List.copyOf(roles);
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,42 @@
+package local.jfx360.service;
+
+import local.jfx360.utils.DatabaseUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * <p> HelpRequestService Class. </p>
+ *
+ * <p> Description: Stores the general and specific help requests students send from their
+ * page. </p>
+ */
+public class HelpRequestService {
+
+    private static final HelpRequestService INSTANCE = new HelpRequestService();
+
+    private HelpRequestService() {
+    }
+
+    public static HelpRequestService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Stores a help request.
+     *
+     * @param requestType "general" or "specific"
+     * @return true if the request was stored
+     */
+    public boolean submit(int userId, String requestType, String message) throws SQLException {
+        String query = "INSERT INTO help_system_messages (user_id, message_type, content) VALUES (?, ?, ?)";
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setInt(1, userId);
+            pstmt.setString(2, requestType.toLowerCase());
+            pstmt.setString(3, message);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package local.jfx360.service;
+
+import local.jfx360.utils.ArticleCatalog;
+import local.jfx360.utils.DatabaseUtil;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p> ServiceMain Class. </p>
+ *
+ * <p> Description: Starts the help system as a headless HTTP service, without JavaFX. The port
+ * comes from -Djfx360.api.port (default 8360); the database pool size from -Djfx360.db.poolSize.
+ * The article catalog is loaded at start and kept current through the change feed, so article
+ * lists are answered from memory. </p>
+ */
+public class ServiceMain {
+
+    private static final int PORT = Integer.getInteger("jfx360.api.port", 8360);
+
+    public static void main(String[] args) throws IOException {
+        ArticleCatalog catalog = ArticleCatalog.getInstance();
+        catalog.loadInBackground();
+        catalog.startChangeFeed();
+
+        ScheduledExecutorService housekeeping = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeping.scheduleWithFixedDelay(AuthService.getInstance()::removeExpiredSessions,
+                5, 5, TimeUnit.MINUTES);
+
+        ApiServer server = new ApiServer();
+        server.start(PORT);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(2);
+            housekeeping.shutdownNow();
+            catalog.stopChangeFeed();
+            DatabaseUtil.shutdown();
+        }, "api-shutdown"));
+    }
+}
@@ -0,0 +1,188 @@
+package local.jfx360.utils;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * <p> AppMetrics Class. </p>
+ *
+ * <p> Description: Registry of the application's live numbers: connection pool, query rate
+ * and latency, cache hit ratios, heap and whatever other parts register. A gauge is read as
+ * is; a counter is reported both as its total and as a per-second rate since the previous
+ * sample. Nothing is computed until a sample is taken, so the registry costs nothing while
+ * nobody looks. Listeners receive a sample every -Djfx360.metrics.intervalMillis (default
+ * 1000) on a background thread, which only runs while there are listeners. </p>
+ */
+public final class AppMetrics {
+
+    private static final long INTERVAL_MILLIS = Integer.getInteger("jfx360.metrics.intervalMillis", 1000);
+
+    /**
+     * Values of every metric at one point in time, by name.
+     */
+    public record Sample(long timeMillis, Map<String, Double> values) {
+
+        /**
+         * Returns the value, or NaN if there is no such metric.
+         */
+        public double get(String name) {
+            Double value = values.get(name);
+            return value == null ? Double.NaN : value;
+        }
+    }
+
+    private static final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> counters = new ConcurrentHashMap<>();
+    private static final List<Consumer<Sample>> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by the class lock
+    private static final Map<String, Long> lastCounts = new TreeMap<>();
+    private static long lastNanos;
+    private static Sample latest;
+    // Query latency since the previous sample, taken once per sample before the gauges are read
+    private static volatile LatencyHistogram queryWindow = new LatencyHistogram();
+    private static ScheduledExecutorService sampler;
+
+    static {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        gauge("jvm.heap.usedMB", () -> memory.getHeapMemoryUsage().getUsed() / 1048576.0);
+        gauge("jvm.heap.maxMB", () -> {
+            MemoryUsage heap = memory.getHeapMemoryUsage();
+            return (heap.getMax() > 0 ? heap.getMax() : heap.getCommitted()) / 1048576.0;
+        });
+
+        gauge("db.pool.active", () -> pool(HikariPoolMXBean::getActiveConnections));
+        gauge("db.pool.waiting", () -> pool(HikariPoolMXBean::getThreadsAwaitingConnection));
+        gauge("db.pool.max", DatabaseUtil::getPoolSize);
+        gauge("db.pool.utilization", () -> 100.0 * pool(HikariPoolMXBean::getActiveConnections) / DatabaseUtil.getPoolSize());
+
+        counter("db.queries", QueryStats::getExecutionCount);
+        counter("db.slowQueries", QueryStats::getSlowQueryCount);
+        // The p99 since the previous sample
+        gauge("db.query.p99Millis", () -> queryWindow.percentileMillis(0.99));
+
+        gauge("cache.groups.hitRatio", () -> ratio(GroupCache.getHitCount(), GroupCache.getMissCount()));
+        gauge("cache.articles.hitRatio", () -> {
+            ArticleCatalog catalog = ArticleCatalog.getInstance();
+            return ratio(catalog.getHitCount(), catalog.getMissCount());
+        });
+        counter("articles.changeFeedFailures", () -> ArticleCatalog.getInstance().getChangeFeedFailureCount());
+    }
+
+    private AppMetrics() {
+    }
+
+    /**
+     * Registers a value that is read every time a sample is taken, replacing one of the same name.
+     */
+    public static void gauge(String name, DoubleSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Registers a count that only goes up. Samples report the total under the name and the
+     * increase per second under name.rate.
+     */
+    public static void counter(String name, LongSupplier count) {
+        counters.put(name, count);
+    }
+
+    /**
+     * Reads every metric now.
+     */
+    public static synchronized Sample sample() {
+        long now = System.nanoTime();
+        double seconds = lastNanos == 0 ? 0 : (now - lastNanos) / 1e9;
+        lastNanos = now;
+        queryWindow = QueryStats.takeWindow();
+
+        Map<String, Double> values = new TreeMap<>();
+        gauges.forEach((name, gauge) -> {
+            try {
+                values.put(name, gauge.getAsDouble());
+            } catch (RuntimeException e) {
+                // A broken gauge must not take the others down
+                values.put(name, Double.NaN);
+            }
+        });
+        counters.forEach((name, counter) -> {
+            long count = counter.getAsLong();
+            Long last = lastCounts.put(name, count);
+            values.put(name, (double) count);
+            values.put(name + ".rate", last == null || seconds == 0 ? 0 : (count - last) / seconds);
+        });
+        latest = new Sample(System.currentTimeMillis(), Collections.unmodifiableMap(values));
+        return latest;
+    }
+
+    /**
+     * Returns the sample taken by the background sampler if it is recent, or takes one.
+     */
+    public static synchronized Sample latest() {
+        if (latest == null || System.currentTimeMillis() - latest.timeMillis() >= INTERVAL_MILLIS) {
+            return sample();
+        }
+        return latest;
+    }
+
+    /**
+     * Sends a sample to the listener every interval, on the sampler thread, until it is removed.
+     */
+    public static synchronized void addListener(Consumer<Sample> listener) {
+        listeners.add(listener);
+        if (sampler == null) {
+            sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-sampler");
+                t.setDaemon(true);
+                return t;
+            });
+            sampler.scheduleWithFixedDelay(AppMetrics::publish, 0, INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static synchronized void removeListener(Consumer<Sample> listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty() && sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+    }
+
+    private static void publish() {
+        Sample sample = sample();
+        for (Consumer<Sample> listener : listeners) {
+            try {
+                listener.accept(sample);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Zero until the pool has been created
+    private static double pool(ToIntFunction<HikariPoolMXBean> value) {
+        HikariPoolMXBean bean = DatabaseUtil.getPoolBean();
+        return bean == null ? 0 : value.applyAsInt(bean);
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? Double.NaN : 100.0 * hits / total;
+    }
+}
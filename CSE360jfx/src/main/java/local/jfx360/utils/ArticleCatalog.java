@@ -0,0 +1,470 @@
+package local.jfx360.utils;
+
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p> ArticleCatalog Class. </p>
+ *
+ * <p> Description: Process-wide in-memory copy of the article list (id, title, description,
+ * level and group membership) shared by every page. It is loaded with one query the first
+ * time it is read, so opening another role page shows the articles without going back to the
+ * database. Readers get an immutable snapshot without locking; a change builds a new snapshot
+ * and swaps it in. </p>
+ *
+ * <p> Triggers record every insert, update and delete of an article and every change of its
+ * group mappings in the help_articles_changes log. A refresh reads the log entries after the
+ * last one it handled, re-reads only the articles they name and publishes the difference to
+ * every registered listener. Code that writes articles calls {@link #refresh()} after
+ * committing so its own page updates at once; the change feed started with
+ * {@link #startChangeFeed()} polls the log in the background so edits made on other
+ * workstations show up within a few seconds. Each poll is one primary key range read, so an
+ * idle workstation costs the database almost nothing. When more changes are waiting than
+ * {@code jfx360.articles.changeBatch}, after a restore for example, the catalog is reloaded
+ * instead. </p>
+ */
+public class ArticleCatalog {
+
+    // Most log entries applied one by one before reloading everything, override with -Djfx360.articles.changeBatch=N
+    private static final int CHANGE_BATCH = Integer.getInteger("jfx360.articles.changeBatch", 1000);
+
+    // How long a missing sequence number is waited for before it is taken as rolled back
+    private static final int GAP_TIMEOUT_SECONDS = Integer.getInteger("jfx360.articles.gapTimeoutSeconds", 10);
+
+    // Milliseconds between polls of the change log, override with -Djfx360.articles.pollMillis=N
+    private static final int POLL_MILLIS = Integer.getInteger("jfx360.articles.pollMillis", 2000);
+
+    // Hours the change log is kept; workstations that fall further behind reload everything
+    private static final int RETENTION_HOURS = Integer.getInteger("jfx360.articles.changeRetentionHours", 24);
+
+    // Rows deleted per statement when pruning the change log
+    private static final int PRUNE_CHUNK = 1000;
+
+    private static final long PRUNE_INTERVAL_MILLIS = 10 * 60 * 1000L;
+
+    private static final String SELECT_ARTICLES = "SELECT ha.id, ha.title, ha.description, ha.level, " +
+            "ha.created_at, ha.updated_at, GROUP_CONCAT(hag.name ORDER BY hag.name) as group_names " +
+            "FROM help_articles ha " +
+            "LEFT JOIN help_article_group_mapping hagm ON ha.id = hagm.article_id " +
+            "LEFT JOIN help_article_groups hag ON hagm.group_id = hag.id ";
+
+    private static final System.Logger LOG = System.getLogger(ArticleCatalog.class.getName());
+
+    private static final ArticleCatalog INSTANCE = new ArticleCatalog();
+
+    /**
+     * Article metadata as shown in the article tables.
+     */
+    public record Entry(long id, String title, String description, String level, List<String> groups,
+                        Timestamp createdAt, Timestamp updatedAt) {
+
+        /**
+         * Returns the group names joined with commas, or null when the article has no group.
+         */
+        public String groupNames() {
+            return groups.isEmpty() ? null : String.join(",", groups);
+        }
+
+        public boolean inGroup(String group) {
+            return groups.contains(group);
+        }
+    }
+
+    /**
+     * The articles changed by one refresh. When {@code reloaded} is true the whole catalog was
+     * replaced and listeners should re-read it instead of applying the lists.
+     */
+    public record Change(List<Entry> updated, Set<Long> removed, boolean reloaded) {
+
+        public boolean isEmpty() {
+            return !reloaded && updated.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    /**
+     * Receives catalog changes on the thread that made them.
+     */
+    public interface Listener {
+        void catalogChanged(Change change);
+    }
+
+    // Immutable snapshot in id order, replaced as a whole on every change
+    private volatile Map<Long, Entry> entries = Collections.emptyMap();
+    private volatile boolean loaded;
+
+    private final ChangeLogCursor cursor = new ChangeLogCursor(GAP_TIMEOUT_SECONDS * 1000L);
+
+    private ScheduledExecutorService changeFeed;
+    private long lastPrune;
+
+    // Listeners are held weakly so a page that is closed without unregistering can be collected
+    private final List<WeakReference<Listener>> listeners = new CopyOnWriteArrayList<>();
+
+    // Lookups by id answered from memory, and those that found nothing
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Background polls that failed
+    private final LongAdder feedFailures = new LongAdder();
+
+    private ArticleCatalog() {
+    }
+
+    public static ArticleCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns every article, loading the catalog if this is the first read.
+     */
+    public Collection<Entry> getArticles() throws SQLException {
+        ensureLoaded();
+        return entries.values();
+    }
+
+    /**
+     * Returns the articles of one group, loading the catalog if this is the first read.
+     */
+    public List<Entry> getArticlesInGroup(String group) throws SQLException {
+        ensureLoaded();
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.inGroup(group)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cached article, or null if it is not in the catalog.
+     */
+    public Entry get(long id) {
+        Entry entry = entries.get(id);
+        (entry != null ? hits : misses).increment();
+        return entry;
+    }
+
+    /**
+     * Returns the cached article like {@link #get(long)}, without counting the lookup in the hit
+     * ratio. For filters that look up every row again whenever the list changes.
+     */
+    public Entry peek(long id) {
+        return entries.get(id);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getChangeFeedFailureCount() {
+        return feedFailures.sum();
+    }
+
+    /**
+     * Loads the catalog on a background thread so the first page that shows articles does not wait.
+     */
+    public void loadInBackground() {
+        if (loaded) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                ensureLoaded();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }, "article-catalog-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(new WeakReference<>(listener));
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.removeIf(ref -> {
+            Listener l = ref.get();
+            return l == null || l == listener;
+        });
+    }
+
+    private void ensureLoaded() throws SQLException {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    loadAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reloads every article and tells the listeners to re-read the catalog.
+     */
+    public synchronized Change reload() throws SQLException {
+        loadAll();
+        Change change = new Change(List.of(), Set.of(), true);
+        publish(change);
+        return change;
+    }
+
+    /**
+     * Applies the articles changed since the last refresh and publishes them to the listeners.
+     * Loads the whole catalog if it has not been read yet or too many changes are waiting.
+     *
+     * @return the applied change
+     */
+    public synchronized Change refresh() throws SQLException {
+        if (!loaded) {
+            return reload();
+        }
+        Change change;
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            change = readChanges(conn);
+        }
+        if (change == null) {
+            return reload();
+        }
+        if (!change.isEmpty()) {
+            publish(change);
+        }
+        return change;
+    }
+
+    /**
+     * Starts polling the change log in the background. Does nothing until the catalog is loaded.
+     */
+    public synchronized void startChangeFeed() {
+        if (changeFeed != null) {
+            return;
+        }
+        changeFeed = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "article-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        changeFeed.scheduleWithFixedDelay(this::poll, POLL_MILLIS, POLL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopChangeFeed() {
+        if (changeFeed != null) {
+            changeFeed.shutdownNow();
+            changeFeed = null;
+        }
+    }
+
+    private void poll() {
+        if (!loaded) {
+            return;
+        }
+        try {
+            refresh();
+            long now = System.currentTimeMillis();
+            if (now - lastPrune >= PRUNE_INTERVAL_MILLIS) {
+                lastPrune = now;
+                pruneChangeLog();
+            }
+        } catch (SQLException e) {
+            // The database may be briefly unreachable; the next poll picks up where this one stopped
+            feedFailures.increment();
+            LOG.log(System.Logger.Level.WARNING, "Article change feed poll failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes change log entries older than the retention period, in bounded chunks.
+     *
+     * @return the number of entries deleted
+     */
+    public static int pruneChangeLog() throws SQLException {
+        String sql = "DELETE FROM help_articles_changes WHERE changed_at < TIMESTAMPADD(HOUR, ?, NOW()) LIMIT ?";
+        int total = 0;
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, -RETENTION_HOURS);
+            pstmt.setInt(2, PRUNE_CHUNK);
+            int deleted;
+            do {
+                deleted = pstmt.executeUpdate();
+                total += deleted;
+            } while (deleted == PRUNE_CHUNK);
+        }
+        return total;
+    }
+
+    /**
+     * Forgets the cached articles so the next read loads them again.
+     */
+    public synchronized void invalidateAll() {
+        entries = Collections.emptyMap();
+        loaded = false;
+    }
+
+    private void loadAll() throws SQLException {
+        Map<Long, Entry> fresh = new LinkedHashMap<>();
+        long seq;
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            // Read the log position first, stepping back over entries whose transactions may
+            // still be open, so changes that race with the full load are applied next time
+            seq = settledChangeSeq(conn);
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(SELECT_ARTICLES + "GROUP BY ha.id ORDER BY ha.id")) {
+                while (rs.next()) {
+                    Entry entry = readEntry(rs);
+                    fresh.put(entry.id(), entry);
+                }
+            }
+        }
+        entries = Collections.unmodifiableMap(fresh);
+        cursor.reset(seq);
+        loaded = true;
+    }
+
+    // Returns null when the catalog should be reloaded instead
+    private Change readChanges(Connection conn) throws SQLException {
+        if (fellBehindRetention(conn)) {
+            return null;
+        }
+        // The rows are only marked handled once their articles are applied, so a failed
+        // re-read leaves them for the next refresh
+        List<Long> newSeqs = new ArrayList<>();
+        Set<Long> touched = new HashSet<>();
+        int rows = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT seq, article_id FROM help_articles_changes WHERE seq > ? ORDER BY seq LIMIT ?")) {
+            pstmt.setLong(1, cursor.position());
+            pstmt.setInt(2, CHANGE_BATCH + 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                    long seq = rs.getLong("seq");
+                    if (cursor.isNew(seq)) {
+                        newSeqs.add(seq);
+                        touched.add(rs.getLong("article_id"));
+                    }
+                }
+            }
+        }
+        if (rows > CHANGE_BATCH) {
+            return null;
+        }
+        if (touched.isEmpty()) {
+            cursor.advance(System.currentTimeMillis());
+            return new Change(List.of(), Set.of(), false);
+        }
+
+        // Re-read the current state of every article the log names; the missing ones were deleted
+        Map<Long, Entry> current = new HashMap<>();
+        StringBuilder sql = new StringBuilder(SELECT_ARTICLES).append("WHERE ha.id IN (");
+        for (int i = 0; i < touched.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") GROUP BY ha.id ORDER BY ha.id");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (long id : touched) {
+                pstmt.setLong(index++, id);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Entry entry = readEntry(rs);
+                    current.put(entry.id(), entry);
+                }
+            }
+        }
+
+        Map<Long, Entry> next = new LinkedHashMap<>(entries);
+        List<Entry> updated = new ArrayList<>();
+        Set<Long> removed = new HashSet<>();
+        for (long id : touched) {
+            Entry entry = current.get(id);
+            if (entry == null) {
+                if (next.remove(id) != null) {
+                    removed.add(id);
+                }
+            } else if (!entry.equals(next.put(id, entry))) {
+                updated.add(entry);
+            }
+        }
+        if (!removed.isEmpty() || !updated.isEmpty()) {
+            entries = Collections.unmodifiableMap(next);
+        }
+        for (long seq : newSeqs) {
+            cursor.accept(seq);
+        }
+        cursor.advance(System.currentTimeMillis());
+        return new Change(updated, removed, false);
+    }
+
+    // True when entries this catalog has not read yet were already pruned from the log
+    private boolean fellBehindRetention(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MIN(seq) FROM help_articles_changes")) {
+            if (rs.next()) {
+                long oldest = rs.getLong(1);
+                return !rs.wasNull() && oldest > cursor.position() + 1 + cursor.pendingGaps();
+            }
+        }
+        return false;
+    }
+
+    private void publish(Change change) {
+        for (WeakReference<Listener> ref : listeners) {
+            Listener listener = ref.get();
+            if (listener == null) {
+                listeners.remove(ref);
+            } else {
+                listener.catalogChanged(change);
+            }
+        }
+    }
+
+    private static Entry readEntry(ResultSet rs) throws SQLException {
+        String groupNames = rs.getString("group_names");
+        List<String> groups = groupNames == null || groupNames.isEmpty()
+                ? List.of()
+                : List.of(groupNames.split(","));
+        return new Entry(rs.getLong("id"), rs.getString("title"), rs.getString("description"),
+                rs.getString("level"), groups, rs.getTimestamp("created_at"), rs.getTimestamp("updated_at"));
+    }
+
+    private static long settledChangeSeq(Connection conn) throws SQLException {
+        String sql = "SELECT COALESCE(MAX(seq), 0) FROM help_articles_changes " +
+                "WHERE changed_at < TIMESTAMPADD(SECOND, ?, NOW())";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, -GAP_TIMEOUT_SECONDS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package local.jfx360.utils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p> ChangeLogCursor Class. </p>
+ *
+ * <p> Description: Read position in an AUTO_INCREMENT change log. Sequence numbers are handed
+ * out when a row is inserted, not when its transaction commits, so a reader can see seq 11
+ * before seq 10 is visible. The cursor therefore only moves past a missing number once it has
+ * been seen or has stayed missing for a timeout (a rolled back transaction never fills its
+ * number). Rows above the position are remembered so that re-reading them does not apply them
+ * twice. Not thread-safe. </p>
+ */
+class ChangeLogCursor {
+
+    private final long gapTimeoutMillis;
+
+    // Every sequence number up to and including this one has been handled
+    private long position;
+
+    // Rows seen above the position
+    private final Set<Long> seen = new HashSet<>();
+
+    // Missing numbers above the position and when they were first noticed
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    ChangeLogCursor(long gapTimeoutMillis) {
+        this.gapTimeoutMillis = gapTimeoutMillis;
+    }
+
+    /**
+     * Returns the sequence number every row at or below which has been handled.
+     */
+    long position() {
+        return position;
+    }
+
+    /**
+     * Restarts reading after the given sequence number.
+     */
+    void reset(long position) {
+        this.position = position;
+        seen.clear();
+        gaps.clear();
+    }
+
+    /**
+     * Returns true if the row has not been handled yet, without recording it.
+     */
+    boolean isNew(long seq) {
+        return seq > position && !seen.contains(seq);
+    }
+
+    /**
+     * Records a row read from the log. Call once the row has been applied.
+     *
+     * @return true if the row is new and should be applied
+     */
+    boolean accept(long seq) {
+        if (seq <= position || !seen.add(seq)) {
+            return false;
+        }
+        gaps.remove(seq);
+        return true;
+    }
+
+    /**
+     * Moves the position forward over every row seen and every gap older than the timeout.
+     * Call after accepting the rows of one read.
+     */
+    void advance(long nowMillis) {
+        long highest = position;
+        for (long seq : seen) {
+            highest = Math.max(highest, seq);
+        }
+        for (long seq = position + 1; seq < highest; seq++) {
+            if (!seen.contains(seq)) {
+                gaps.putIfAbsent(seq, nowMillis);
+            }
+        }
+        while (true) {
+            long next = position + 1;
+            if (seen.remove(next)) {
+                position = next;
+                continue;
+            }
+            Long since = gaps.get(next);
+            if (since != null && nowMillis - since >= gapTimeoutMillis) {
+                gaps.remove(next);
+                position = next;
+                continue;
+            }
+            break;
+        }
+    }
+
+    /**
+     * Returns the number of missing sequence numbers the cursor is waiting for.
+     */
+    int pendingGaps() {
+        return gaps.size();
+    }
+}
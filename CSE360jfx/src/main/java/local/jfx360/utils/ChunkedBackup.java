@@ -0,0 +1,448 @@
+package local.jfx360.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+
+/**
+ * <p> ChunkedBackup Class. </p>
+ *
+ * <p> Description: Backup file format made of independently checksummed chunks. The file starts
+ * with a magic number and version, followed by chunks of (payload length, record count, CRC32C)
+ * and a Java-serialized list of records, and ends with a footer holding the chunk and record
+ * totals so that a truncated file is detected. Because every chunk carries its own checksum, a
+ * file can be verified in parallel with positional reads, without deserializing anything. </p>
+ */
+public class ChunkedBackup {
+
+    private static final byte[] MAGIC = {'J', 'F', 'X', '3', '6', '0', 'B', 'K'};
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = MAGIC.length + 4;
+    private static final int CHUNK_HEADER_SIZE = 12;
+
+    // Chunk length value that marks the footer
+    private static final int FOOTER = -1;
+
+    // Java serialization stream magic, used by backups written before this format
+    private static final int LEGACY_MAGIC = 0xACED;
+
+    // Records per chunk, override with -Djfx360.backup.chunkRecords=N
+    public static final int DEFAULT_CHUNK_RECORDS = Integer.getInteger("jfx360.backup.chunkRecords", 1000);
+
+    // Threads used to verify a file, override with -Djfx360.backup.verifyThreads=N
+    public static final int DEFAULT_VERIFY_THREADS = Integer.getInteger("jfx360.backup.verifyThreads",
+            Runtime.getRuntime().availableProcessors());
+
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+
+    private ChunkedBackup() {
+    }
+
+    /**
+     * Thrown when a backup file fails its checksums or is truncated.
+     */
+    public static class CorruptBackupException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public CorruptBackupException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Totals of a successful verification.
+     */
+    public record VerifyResult(int chunks, long records, long bytes, long nanos) {
+        public double megabytesPerSecond() {
+            return nanos > 0 ? (bytes / 1_048_576.0) / (nanos / 1_000_000_000.0) : 0;
+        }
+    }
+
+    private record ChunkInfo(int index, long offset, int length, int crc) {
+    }
+
+    /**
+     * Returns true if the file is in the chunked format.
+     */
+    public static boolean isChunked(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            return Arrays.equals(magic, MAGIC);
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns true if the file is a plain Java-serialized backup without checksums.
+     */
+    public static boolean isLegacy(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readUnsignedShort() == LEGACY_MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens a writer that streams records into a new backup file.
+     */
+    public static <T extends Serializable> Writer<T> openWriter(File file) throws IOException {
+        return new Writer<>(file, DEFAULT_CHUNK_RECORDS);
+    }
+
+    /**
+     * Writes records into chunks of a fixed number of records. {@link #finish()} flushes the
+     * last chunk and writes the footer once every record has been added; closing a writer that
+     * was not finished deletes the file, so a backup that failed part way is never mistaken for
+     * a complete one.
+     */
+    public static class Writer<T extends Serializable> implements Closeable {
+        private final File file;
+        private final DataOutputStream out;
+        private final int chunkRecords;
+        private final ArrayList<T> pending;
+        private final CRC32C crc = new CRC32C();
+        private int chunkCount;
+        private int recordCount;
+        private boolean finished;
+
+        private Writer(File file, int chunkRecords) throws IOException {
+            this.file = file;
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), READ_BUFFER_SIZE));
+            this.chunkRecords = Math.max(1, chunkRecords);
+            this.pending = new ArrayList<>(this.chunkRecords);
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        public void add(T record) throws IOException {
+            pending.add(record);
+            if (pending.size() >= chunkRecords) {
+                flushChunk();
+            }
+        }
+
+        public int getRecordCount() {
+            return recordCount + pending.size();
+        }
+
+        private void flushChunk() throws IOException {
+            if (pending.isEmpty()) {
+                return;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+                objects.writeObject(pending);
+            }
+            byte[] payload = bytes.toByteArray();
+            crc.reset();
+            crc.update(payload);
+
+            out.writeInt(payload.length);
+            out.writeInt(pending.size());
+            out.writeInt((int) crc.getValue());
+            out.write(payload);
+
+            chunkCount++;
+            recordCount += pending.size();
+            pending.clear();
+        }
+
+        /**
+         * Writes the last chunk and the footer. Call after the last record was added.
+         */
+        public void finish() throws IOException {
+            flushChunk();
+            out.writeInt(FOOTER);
+            out.writeInt(chunkCount);
+            out.writeInt(recordCount);
+            out.flush();
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.close();
+            } finally {
+                if (!finished) {
+                    Files.deleteIfExists(file.toPath());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads every record of a chunked backup, checking each chunk before deserializing it.
+     */
+    public static <T> List<T> readAll(File file) throws IOException, ClassNotFoundException {
+        List<T> records = new ArrayList<>();
+        try (Reader<T> reader = openReader(file)) {
+            List<T> chunk;
+            while ((chunk = reader.nextChunk()) != null) {
+                records.addAll(chunk);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Opens a reader that returns a chunked backup one chunk at a time.
+     */
+    public static <T> Reader<T> openReader(File file) throws IOException {
+        return new Reader<>(file);
+    }
+
+    /**
+     * Reads the chunks of a backup in order, checking each one before deserializing it, so a
+     * caller only holds one chunk of records at a time. The footer is checked once the last
+     * chunk has been returned.
+     */
+    public static class Reader<T> implements Closeable {
+        private final File file;
+        private final DataInputStream in;
+        private final CRC32C crc = new CRC32C();
+        private int chunkCount;
+        private long recordCount;
+        private boolean done;
+
+        private Reader(File file) throws IOException {
+            this.file = file;
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), READ_BUFFER_SIZE));
+            try {
+                readFileHeader(in, file);
+            } catch (EOFException e) {
+                in.close();
+                throw new CorruptBackupException("Backup file is truncated: " + file.getName());
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Returns the records of the next chunk, or null once the footer has been read.
+         *
+         * @throws CorruptBackupException if the chunk fails its checksum or the file is truncated
+         */
+        @SuppressWarnings("unchecked")
+        public List<T> nextChunk() throws IOException, ClassNotFoundException {
+            if (done) {
+                return null;
+            }
+            try {
+                int length = in.readInt();
+                if (length == FOOTER) {
+                    checkFooter(in.readInt(), in.readInt(), chunkCount, recordCount);
+                    done = true;
+                    return null;
+                }
+                int count = in.readInt();
+                int expectedCrc = in.readInt();
+                if (length < 0) {
+                    throw new CorruptBackupException("Chunk " + chunkCount + " has an invalid length");
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != expectedCrc) {
+                    throw new CorruptBackupException("Chunk " + chunkCount + " failed its checksum");
+                }
+                try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+                    List<T> chunk = (List<T>) objects.readObject();
+                    if (chunk.size() != count) {
+                        throw new CorruptBackupException("Chunk " + chunkCount + " has the wrong number of records");
+                    }
+                    chunkCount++;
+                    recordCount += chunk.size();
+                    return chunk;
+                }
+            } catch (EOFException e) {
+                throw new CorruptBackupException("Backup file is truncated: " + file.getName());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Verifies every chunk checksum of a backup using the default number of threads.
+     */
+    public static VerifyResult verify(File file) throws IOException {
+        return verify(file, DEFAULT_VERIFY_THREADS);
+    }
+
+    /**
+     * Verifies every chunk checksum of a backup. The chunk headers are scanned first, then the
+     * chunks are split between threads that checksum them with positional reads.
+     *
+     * @throws CorruptBackupException if a checksum fails or the file is truncated
+     */
+    public static VerifyResult verify(File file, int threads) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<ChunkInfo> chunks = new ArrayList<>();
+            long records = scanChunks(channel, size, file, chunks);
+
+            int workers = Math.max(1, Math.min(threads, chunks.size()));
+            if (workers == 1) {
+                verifyChunks(channel, chunks);
+            } else {
+                ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+                    Thread thread = new Thread(runnable, "backup-verify");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                try {
+                    List<Future<?>> futures = new ArrayList<>();
+                    int perWorker = (chunks.size() + workers - 1) / workers;
+                    for (int from = 0; from < chunks.size(); from += perWorker) {
+                        List<ChunkInfo> slice = chunks.subList(from, Math.min(from + perWorker, chunks.size()));
+                        futures.add(pool.submit(() -> {
+                            verifyChunks(channel, slice);
+                            return null;
+                        }));
+                    }
+                    for (Future<?> future : futures) {
+                        future.get();
+                    }
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IOException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Verification interrupted", e);
+                } finally {
+                    pool.shutdownNow();
+                }
+            }
+            return new VerifyResult(chunks.size(), records, size, System.nanoTime() - start);
+        }
+    }
+
+    // Walks the chunk headers without reading the payloads and checks the footer
+    private static long scanChunks(FileChannel channel, long size, File file, List<ChunkInfo> chunks) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        readFully(channel, header, 0);
+        byte[] magic = new byte[MAGIC.length];
+        header.flip().get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new CorruptBackupException(file.getName() + " is not a chunked backup file");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new CorruptBackupException("Unsupported backup version " + version);
+        }
+
+        long records = 0;
+        long position = FILE_HEADER_SIZE;
+        ByteBuffer chunkHeader = ByteBuffer.allocate(CHUNK_HEADER_SIZE);
+        while (true) {
+            if (position + CHUNK_HEADER_SIZE > size) {
+                throw new CorruptBackupException("Backup file is truncated: " + file.getName());
+            }
+            chunkHeader.clear();
+            readFully(channel, chunkHeader, position);
+            chunkHeader.flip();
+            int length = chunkHeader.getInt();
+            int count = chunkHeader.getInt();
+            int crc = chunkHeader.getInt();
+            if (length == FOOTER) {
+                checkFooter(count, crc, chunks.size(), records);
+                return records;
+            }
+            position += CHUNK_HEADER_SIZE;
+            if (length < 0 || position + length > size) {
+                throw new CorruptBackupException("Chunk " + chunks.size() + " is truncated or has an invalid length");
+            }
+            chunks.add(new ChunkInfo(chunks.size(), position, length, crc));
+            records += count;
+            position += length;
+        }
+    }
+
+    private static void verifyChunks(FileChannel channel, List<ChunkInfo> chunks) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        CRC32C crc = new CRC32C();
+        for (ChunkInfo chunk : chunks) {
+            crc.reset();
+            long position = chunk.offset();
+            long end = chunk.offset() + chunk.length();
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                readFully(channel, buffer, position);
+                buffer.flip();
+                position += buffer.remaining();
+                crc.update(buffer);
+            }
+            if ((int) crc.getValue() != chunk.crc()) {
+                throw new CorruptBackupException("Chunk " + chunk.index() + " failed its checksum");
+            }
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            position += read;
+        }
+    }
+
+    private static void readFileHeader(DataInputStream in, File file) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new CorruptBackupException(file.getName() + " is not a chunked backup file");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new CorruptBackupException("Unsupported backup version " + version);
+        }
+    }
+
+    private static void checkFooter(int chunkCount, int recordCount, int chunksSeen, long recordsSeen)
+            throws CorruptBackupException {
+        if (chunkCount != chunksSeen || recordCount != recordsSeen) {
+            throw new CorruptBackupException(String.format(
+                    "Backup footer expects %d chunks and %d records but found %d and %d",
+                    chunkCount, recordCount, chunksSeen, recordsSeen));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package local.jfx360.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * <p> DatabaseCallEvent Class. </p>
+ *
+ * <p> Description: Flight Recorder event for one statement execution through
+ * {@link DatabaseUtil#getConnection()}, emitted by {@link InstrumentedJdbc}. It carries the
+ * normalized statement and, when it ran on the JavaFX application thread, the handler that
+ * issued it, so a recording shows which click held the UI on the database. The stack trace
+ * names the exact caller. </p>
+ */
+@Name("local.jfx360.DatabaseCall")
+@Label("Database Call")
+@Category({"CSE360", "Database"})
+@Description("A SQL statement executed through the connection pool")
+final class DatabaseCallEvent extends Event {
+
+    @Label("Statement")
+    @Description("Statement text with literals replaced by ?")
+    String sql;
+
+    @Label("Failed")
+    boolean failed;
+
+    @Label("On FX Thread")
+    boolean fxThread;
+
+    @Label("FX Handler")
+    @Description("Controller and handler being run on the JavaFX application thread")
+    String handler;
+}
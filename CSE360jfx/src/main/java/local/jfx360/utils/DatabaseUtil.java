@@ -1,6 +1,9 @@
-// ./src/main/java/local/jfx360/utils/DatabaseUtil.java
 package local.jfx360.utils;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -10,6 +13,17 @@ public class DatabaseUtil {
     private static final String USER = "root";
     private static final String PASSWORD = "cse360!!!";
 
+    // Maximum number of pooled connections, override with -Djfx360.db.poolSize=N
+    private static final int POOL_SIZE = Integer.getInteger("jfx360.db.poolSize", 10);
+
+    // "embedded" runs an in-process H2 database with the schema applied instead of MySQL
+    private static final boolean EMBEDDED = "embedded".equalsIgnoreCase(System.getProperty("jfx360.db", "mysql"));
+
+    // Record per-statement statistics in QueryStats, turn off with -Djfx360.db.instrument=false
+    private static final boolean INSTRUMENT = Boolean.parseBoolean(System.getProperty("jfx360.db.instrument", "true"));
+
+    private static volatile HikariDataSource dataSource;
+
     static {
         try {
             Class.forName("com.mysql.cj.jdbc.Driver"); // Ensure MySQL JDBC driver is loaded
@@ -19,11 +33,101 @@ public class DatabaseUtil {
         }
     }
 
+    /**
+     * Borrows a connection from the shared pool. Closing the connection returns it to the pool.
+     * Statements run on it are recorded in {@link QueryStats}.
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        Connection conn = getDataSource().getConnection();
+        return INSTRUMENT ? InstrumentedJdbc.wrap(conn) : conn;
     }
 
     public static Connection getConnection(String url) throws SQLException {
         return DriverManager.getConnection(url, USER, PASSWORD);
     }
+
+    /**
+     * Returns the shared pool, creating it on first use.
+     */
+    public static HikariDataSource getDataSource() {
+        HikariDataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (DatabaseUtil.class) {
+                ds = dataSource;
+                if (ds == null) {
+                    ds = createDataSource();
+                    dataSource = ds;
+                }
+            }
+        }
+        return ds;
+    }
+
+    public static int getPoolSize() {
+        return POOL_SIZE;
+    }
+
+    /**
+     * Returns the live counters of the pool, or null if it has not been created yet.
+     */
+    static HikariPoolMXBean getPoolBean() {
+        HikariDataSource ds = dataSource;
+        return ds == null ? null : ds.getHikariPoolMXBean();
+    }
+
+    /**
+     * Returns true when the application runs on the embedded database instead of MySQL.
+     */
+    public static boolean isEmbedded() {
+        return EMBEDDED;
+    }
+
+    private static HikariDataSource createDataSource() {
+        if (EMBEDDED) {
+            return createEmbeddedDataSource();
+        }
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("jfx360");
+        config.setJdbcUrl(URL);
+        config.setUsername(USER);
+        config.setPassword(PASSWORD);
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setConnectionTimeout(5000);
+        // Start even if the server is down; getConnection() then reports it as an SQLException
+        config.setInitializationFailTimeout(-1);
+
+        // Let Connector/J rewrite JDBC batches into multi-row INSERT statements
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        return new HikariDataSource(config);
+    }
+
+    private static HikariDataSource createEmbeddedDataSource() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("jfx360-embedded");
+        config.setJdbcUrl(EmbeddedDatabase.url("projectdb"));
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(POOL_SIZE);
+        HikariDataSource ds = new HikariDataSource(config);
+        try (Connection conn = ds.getConnection()) {
+            EmbeddedDatabase.applySchema(conn);
+        } catch (SQLException e) {
+            ds.close();
+            throw new IllegalStateException("Could not create the embedded database", e);
+        }
+        return ds;
+    }
+
+    /**
+     * Closes the pool. Called when the application exits.
+     */
+    public static void shutdown() {
+        HikariDataSource ds = dataSource;
+        if (ds != null) {
+            ds.close();
+        }
+    }
 }
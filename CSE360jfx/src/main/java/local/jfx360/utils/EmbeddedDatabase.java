@@ -0,0 +1,192 @@
+package local.jfx360.utils;
+
+import org.h2.api.Trigger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p> EmbeddedDatabase Class. </p>
+ *
+ * <p> Description: In-process H2 database in MySQL compatibility mode, used instead of the MySQL
+ * server when the application runs with -Djfx360.db=embedded. The database lives in memory and
+ * gets the schema from sqlscript.txt when it is created, so tests, demos and load runs start
+ * without any external service. Statements H2 cannot run as written are adapted: database
+ * statements and the full-text index are skipped, and MySQL trigger bodies run through
+ * {@link RowTrigger}. </p>
+ */
+final class EmbeddedDatabase {
+
+    private static final String SCHEMA_SCRIPT = "sqlscript.txt";
+
+    private static final Pattern TRIGGER = Pattern.compile(
+            "CREATE\\s+TRIGGER\\s+(\\w+)\\s+(BEFORE|AFTER)\\s+(INSERT|UPDATE|DELETE)\\s+ON\\s+(\\w+)\\s+" +
+                    "FOR\\s+EACH\\s+ROW\\s+(.+)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    // Trigger name -> MySQL trigger body, read by RowTrigger when H2 creates the trigger
+    private static final Map<String, String> TRIGGER_BODIES = new ConcurrentHashMap<>();
+
+    private EmbeddedDatabase() {
+    }
+
+    /**
+     * Returns the JDBC URL of the named in-memory database. It stays open until the JVM exits.
+     */
+    static String url(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;" +
+                "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * Creates the tables, views and triggers of sqlscript.txt in an empty database.
+     */
+    static void applySchema(Connection conn) throws SQLException {
+        String script;
+        try (InputStream in = EmbeddedDatabase.class.getResourceAsStream(SCHEMA_SCRIPT)) {
+            if (in == null) {
+                throw new SQLException(SCHEMA_SCRIPT + " is missing from the application resources");
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Could not read " + SCHEMA_SCRIPT, e);
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            for (String statement : splitStatements(script)) {
+                String translated = translate(statement);
+                if (translated != null) {
+                    stmt.execute(translated);
+                }
+            }
+        }
+    }
+
+    // Splits the script at semicolons ending a line, dropping comment lines
+    static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            int comment = line.indexOf("--");
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            current.append(line).append('\n');
+            if (line.trim().endsWith(";")) {
+                String statement = current.toString().trim();
+                statements.add(statement.substring(0, statement.length() - 1).trim());
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    /**
+     * Returns the statement as H2 should run it, or null if it does not apply to H2.
+     */
+    static String translate(String statement) {
+        String upper = statement.toUpperCase(Locale.ROOT);
+        if (upper.startsWith("DROP DATABASE") || upper.startsWith("CREATE DATABASE") || upper.startsWith("USE ")) {
+            return null;
+        }
+        if (upper.startsWith("CREATE FULLTEXT INDEX")) {
+            // Article search uses LIKE, the index only speeds it up on MySQL
+            return null;
+        }
+        if (upper.startsWith("CREATE OR REPLACE VIEW")) {
+            // H2 rejects SELECT ha.* ... GROUP BY ha.id, which MySQL allows; create the view unchecked
+            return "CREATE OR REPLACE FORCE VIEW" + statement.substring("CREATE OR REPLACE VIEW".length());
+        }
+        Matcher trigger = TRIGGER.matcher(statement);
+        if (trigger.matches()) {
+            String name = trigger.group(1).toLowerCase(Locale.ROOT);
+            TRIGGER_BODIES.put(name, trigger.group(5).trim());
+            return "CREATE TRIGGER " + name + " " + trigger.group(2) + " " + trigger.group(3) +
+                    " ON " + trigger.group(4) + " FOR EACH ROW CALL '" + RowTrigger.class.getName() + "'";
+        }
+        return statement;
+    }
+
+    /**
+     * <p> RowTrigger Class. </p>
+     *
+     * <p> Description: Runs the single-statement body of a MySQL trigger from sqlscript.txt.
+     * NEW.column and OLD.column references become parameters filled from the changed row. </p>
+     */
+    public static class RowTrigger implements Trigger {
+
+        private static final Pattern ROW_REFERENCE = Pattern.compile("\\b(NEW|OLD)\\.(\\w+)", Pattern.CASE_INSENSITIVE);
+
+        private String sql;
+        private final List<Boolean> fromNewRow = new ArrayList<>();
+        private final List<Integer> columnIndexes = new ArrayList<>();
+
+        @Override
+        public void init(Connection conn, String schemaName, String triggerName, String tableName,
+                         boolean before, int type) throws SQLException {
+            String body = TRIGGER_BODIES.get(triggerName.toLowerCase(Locale.ROOT));
+            if (body == null) {
+                throw new SQLException("No body registered for trigger " + triggerName);
+            }
+
+            Map<String, Integer> columns = new HashMap<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT column_name, ordinal_position FROM information_schema.columns " +
+                            "WHERE table_schema = ? AND table_name = ?")) {
+                pstmt.setString(1, schemaName);
+                pstmt.setString(2, tableName);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        columns.put(rs.getString(1).toLowerCase(Locale.ROOT), rs.getInt(2) - 1);
+                    }
+                }
+            }
+
+            Matcher reference = ROW_REFERENCE.matcher(body);
+            StringBuilder parameterized = new StringBuilder();
+            while (reference.find()) {
+                Integer index = columns.get(reference.group(2).toLowerCase(Locale.ROOT));
+                if (index == null) {
+                    throw new SQLException("Trigger " + triggerName + " references unknown column " + reference.group(2));
+                }
+                fromNewRow.add(reference.group(1).equalsIgnoreCase("NEW"));
+                columnIndexes.add(index);
+                reference.appendReplacement(parameterized, "?");
+            }
+            reference.appendTail(parameterized);
+            sql = parameterized.toString();
+        }
+
+        @Override
+        public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < columnIndexes.size(); i++) {
+                    Object[] row = fromNewRow.get(i) ? newRow : oldRow;
+                    pstmt.setObject(i + 1, row[columnIndexes.get(i)]);
+                }
+                pstmt.executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package local.jfx360.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.util.function.Supplier;
+
+/**
+ * <p> FxHandlerEvent Class. </p>
+ *
+ * <p> Description: Flight Recorder event for an input event that kept the JavaFX application
+ * thread busy for longer than the threshold (20 ms unless the recording settings say
+ * otherwise), carrying the controller and handler method that ran. </p>
+ *
+ * <p> The class also holds which handler the FX thread is running right now, so
+ * {@link DatabaseCallEvent}s issued from it can name it without this package depending on
+ * JavaFX. </p>
+ */
+@Name("local.jfx360.FxHandler")
+@Label("JavaFX Handler")
+@Category({"CSE360", "JavaFX"})
+@Description("An input event that blocked the JavaFX application thread")
+@Threshold("20 ms")
+@StackTrace(false)
+public final class FxHandlerEvent extends Event {
+
+    @Label("Controller")
+    public String controller;
+
+    @Label("Handler")
+    @Description("Controller method bound to the target in the FXML, if known")
+    public String handler;
+
+    @Label("Event Type")
+    public String eventType;
+
+    @Label("Target")
+    public String target;
+
+    @Label("Window Shown")
+    @Description("A dialog or window was opened while handling; time spent in showAndWait counts towards the duration")
+    public boolean windowShown;
+
+    // Only touched on the FX thread once it has been registered
+    private static volatile Thread fxThread;
+    private static Supplier<String> current;
+
+    /**
+     * Marks the calling thread, the FX application thread, as running the given handler and
+     * returns the handler it was running before.
+     */
+    public static Supplier<String> enter(Supplier<String> handler) {
+        fxThread = Thread.currentThread();
+        Supplier<String> previous = current;
+        current = handler;
+        return previous;
+    }
+
+    /**
+     * Restores the handler returned by {@link #enter(Supplier)}.
+     */
+    public static void exit(Supplier<String> previous) {
+        current = previous;
+    }
+
+    static boolean onFxThread() {
+        return Thread.currentThread() == fxThread;
+    }
+
+    static String currentHandler() {
+        Supplier<String> handler = onFxThread() ? current : null;
+        return handler == null ? null : handler.get();
+    }
+}
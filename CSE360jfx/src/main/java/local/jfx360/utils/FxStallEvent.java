@@ -0,0 +1,31 @@
+package local.jfx360.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p> FxStallEvent Class. </p>
+ *
+ * <p> Description: Flight Recorder event for a watchdog heartbeat that waited on the JavaFX
+ * application thread longer than the stall threshold. The duration is how long the heartbeat
+ * waited; the stack is the FX thread's, sampled during the stall, since the event itself is
+ * committed by the watchdog thread. </p>
+ */
+@Name("local.jfx360.FxStall")
+@Label("JavaFX Thread Stall")
+@Category({"CSE360", "JavaFX"})
+@Description("The JavaFX application thread did not run a heartbeat for longer than the stall threshold")
+@StackTrace(false)
+public final class FxStallEvent extends Event {
+
+    @Label("Culprit")
+    @Description("Application method the FX thread was in during the stall")
+    public String culprit;
+
+    @Label("FX Thread Stack")
+    public String stack;
+}
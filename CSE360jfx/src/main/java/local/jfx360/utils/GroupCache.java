@@ -0,0 +1,148 @@
+package local.jfx360.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p> GroupCache Class. </p>
+ *
+ * <p> Description: Process-wide dictionary of help article group names to ids. The whole
+ * help_article_groups table is loaded with one query the first time a name is resolved,
+ * so saving, updating and restoring articles normally resolves groups from memory.
+ * Missing groups are created with an upsert on a separate autocommit connection, which is
+ * safe when several threads or workstations create the same group at once and keeps the
+ * cached id valid even if the caller's transaction rolls back. </p>
+ */
+public class GroupCache {
+
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile boolean loaded;
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+
+    private GroupCache() {
+    }
+
+    /**
+     * Returns the id of the named group, creating the group if it does not exist yet.
+     *
+     * @param groupName the trimmed group name
+     * @return the group id
+     * @throws SQLException if the group could not be loaded or created
+     */
+    public static int resolve(String groupName) throws SQLException {
+        Integer id = ids.get(groupName);
+        if (id == null && !loaded) {
+            reload();
+            id = ids.get(groupName);
+        }
+        if (id != null) {
+            hits.increment();
+            return id;
+        }
+
+        misses.increment();
+        // LAST_INSERT_ID(id) makes the generated key the existing id when another client won the race
+        String upsertSql = "INSERT INTO help_article_groups (name) VALUES (?) " +
+                "ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)";
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(upsertSql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, groupName);
+            pstmt.executeUpdate();
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    int newId = rs.getInt(1);
+                    ids.put(groupName, newId);
+                    return newId;
+                }
+            }
+            // The embedded database returns no key when the row already existed
+            try (PreparedStatement select = conn.prepareStatement("SELECT id FROM help_article_groups WHERE name = ?")) {
+                select.setString(1, groupName);
+                try (ResultSet rs = select.executeQuery()) {
+                    if (rs.next()) {
+                        int existingId = rs.getInt(1);
+                        ids.put(groupName, existingId);
+                        return existingId;
+                    }
+                }
+            }
+        }
+        throw new SQLException("Failed to create group: " + groupName);
+    }
+
+    /**
+     * Returns the id of the named group without creating it.
+     *
+     * @param groupName the trimmed group name
+     * @return the group id, or null if there is no such group
+     * @throws SQLException if the groups could not be loaded
+     */
+    public static Integer lookup(String groupName) throws SQLException {
+        Integer id = ids.get(groupName);
+        if (id == null) {
+            // The group may have been created by another workstation since the last load
+            reload();
+            id = ids.get(groupName);
+        }
+        return id;
+    }
+
+    /**
+     * Reloads the whole group table in one query.
+     *
+     * @return the group names ordered by name
+     * @throws SQLException if the groups could not be loaded
+     */
+    public static List<String> reload() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return reload(conn);
+        }
+    }
+
+    /**
+     * Reloads the whole group table in one query using the given connection.
+     *
+     * @return the group names ordered by name
+     */
+    public static List<String> reload(Connection conn) throws SQLException {
+        List<String> names = new ArrayList<>();
+        ConcurrentHashMap<String, Integer> fresh = new ConcurrentHashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM help_article_groups ORDER BY name")) {
+            while (rs.next()) {
+                String name = rs.getString("name");
+                fresh.put(name, rs.getInt("id"));
+                names.add(name);
+            }
+        }
+        ids.keySet().retainAll(fresh.keySet());
+        ids.putAll(fresh);
+        loaded = true;
+        return names;
+    }
+
+    /**
+     * Forgets every cached id. Call after deleting or renaming groups.
+     */
+    public static void invalidateAll() {
+        ids.clear();
+        loaded = false;
+    }
+
+    public static long getHitCount() {
+        return hits.sum();
+    }
+
+    public static long getMissCount() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,103 @@
+package local.jfx360.utils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * <p> GroupRoleMaintenance Class. </p>
+ *
+ * <p> Description: Cleans up help_article_group_roles. Older versions of saveArticle inserted
+ * the full AdminRights x group cross product on every save, so databases created without the
+ * (group_id, user_id) primary key collected one duplicate row per admin, group and save.
+ * The job rewrites the table with its distinct rows in one transaction and then adds the
+ * primary key, so the duplicates cannot come back. It is a one-time migration: once the
+ * primary key exists the table cannot hold duplicates, so later runs only read the key from
+ * the database metadata and never scan the table. </p>
+ */
+public class GroupRoleMaintenance {
+
+    private static final System.Logger LOG = System.getLogger(GroupRoleMaintenance.class.getName());
+
+    private GroupRoleMaintenance() {
+    }
+
+    /**
+     * Returns how many rows of help_article_group_roles are duplicates of another row.
+     */
+    public static long countDuplicates() throws SQLException {
+        // COUNT(DISTINCT a, b) is MySQL only, a derived table also works on the embedded database
+        String sql = "SELECT COUNT(*) - (SELECT COUNT(*) FROM (SELECT DISTINCT group_id, user_id " +
+                "FROM help_article_group_roles) d) FROM help_article_group_roles";
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Removes duplicate rows and adds the primary key, unless the key is already there.
+     *
+     * @return the number of duplicate rows removed
+     */
+    public static long deduplicate() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (hasPrimaryKey(conn)) {
+                return 0;
+            }
+            long duplicates = countDuplicates();
+            if (duplicates > 0) {
+                conn.setAutoCommit(false);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("CREATE TEMPORARY TABLE help_article_group_roles_distinct AS " +
+                            "SELECT DISTINCT group_id, user_id FROM help_article_group_roles");
+                    try {
+                        stmt.executeUpdate("DELETE FROM help_article_group_roles");
+                        stmt.executeUpdate("INSERT INTO help_article_group_roles (group_id, user_id) " +
+                                "SELECT group_id, user_id FROM help_article_group_roles_distinct");
+                        conn.commit();
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        stmt.execute("DROP TEMPORARY TABLE IF EXISTS help_article_group_roles_distinct");
+                    }
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ALTER TABLE help_article_group_roles ADD PRIMARY KEY (group_id, user_id)");
+            }
+            return duplicates;
+        }
+    }
+
+    private static boolean hasPrimaryKey(Connection conn) throws SQLException {
+        // Read through JDBC metadata so this works on MySQL and on the embedded database
+        try (ResultSet rs = conn.getMetaData().getPrimaryKeys(conn.getCatalog(), null, "help_article_group_roles")) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Runs the migration on a background thread if the database still needs it.
+     */
+    public static void runInBackground() {
+        Thread thread = new Thread(() -> {
+            try {
+                long removed = deduplicate();
+                if (removed > 0) {
+                    LOG.log(System.Logger.Level.INFO, "Removed " + removed + " duplicate help_article_group_roles rows");
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }, "group-role-dedup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,122 @@
+package local.jfx360.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * <p> IdBlockAllocator Class. </p>
+ *
+ * <p> Description: Hands out ids from blocks reserved in the id_sequences table. Reserving a
+ * block locks the sequence row, moves it forward by the block size and commits, all in one
+ * short transaction on a separate connection, so two workstations can never receive the same
+ * range and a rolled back insert never returns ids to the pool. The ids of a block are then
+ * handed out from memory. A sequence is created on first use, starting after the largest id
+ * already in its table, or at zero for a sequence that numbers no table. Ids left in a block
+ * when the application exits are simply skipped. </p>
+ *
+ * <p> The table's AUTO_INCREMENT counter knows nothing about reserved blocks, and MySQL moves
+ * it just past every explicit id inserted, so a row inserted without an id would land in a
+ * block that is still being handed out. Every insert into a table numbered by a sequence
+ * must take its id from here. </p>
+ */
+public class IdBlockAllocator {
+
+    // Ids reserved per round trip for user accounts, override with -Djfx360.ids.userBlockSize=N
+    private static final int USER_BLOCK_SIZE = Integer.getInteger("jfx360.ids.userBlockSize", 50);
+
+    private static final IdBlockAllocator USERS = new IdBlockAllocator("users", "users", USER_BLOCK_SIZE);
+
+    private final String sequenceName;
+    private final String tableName;
+    private final int blockSize;
+
+    // Next id to hand out and the end (exclusive) of the current block
+    private long next;
+    private long limit;
+
+    IdBlockAllocator(String sequenceName, String tableName, int blockSize) {
+        this.sequenceName = sequenceName;
+        this.tableName = tableName;
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    /**
+     * Returns the allocator for ids of the users table.
+     */
+    public static IdBlockAllocator forUsers() {
+        return USERS;
+    }
+
+    /**
+     * Returns the next free id, reserving a new block when the current one is used up.
+     */
+    public synchronized long nextId() throws SQLException {
+        if (next >= limit) {
+            next = reserve(blockSize);
+            limit = next + blockSize;
+        }
+        return next++;
+    }
+
+    /**
+     * Reserves a dedicated range of ids for a bulk insert.
+     *
+     * @param count number of ids needed
+     * @return the first id of the range; the range is [first, first + count)
+     */
+    public long reserveRange(int count) throws SQLException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        return reserve(count);
+    }
+
+    private long reserve(int count) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                long start = lockSequence(conn);
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "UPDATE id_sequences SET next_value = next_value + ? WHERE name = ?")) {
+                    pstmt.setInt(1, count);
+                    pstmt.setString(2, sequenceName);
+                    pstmt.executeUpdate();
+                }
+                conn.commit();
+                return start;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Locks the sequence row, creating it after the table's largest id if it does not exist yet
+    private long lockSequence(Connection conn) throws SQLException {
+        String selectSql = "SELECT next_value FROM id_sequences WHERE name = ? FOR UPDATE";
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                pstmt.setString(1, sequenceName);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getLong(1);
+                    }
+                }
+            }
+            // INSERT IGNORE lets a concurrent workstation create the row first
+            String seedSql = tableName == null
+                    ? "INSERT IGNORE INTO id_sequences (name, next_value) VALUES (?, 0)"
+                    : "INSERT IGNORE INTO id_sequences (name, next_value) " +
+                    "SELECT ?, COALESCE(MAX(id), 0) + 1 FROM " + tableName;
+            try (PreparedStatement pstmt = conn.prepareStatement(seedSql)) {
+                pstmt.setString(1, sequenceName);
+                pstmt.executeUpdate();
+            }
+        }
+        throw new SQLException("Failed to create id sequence: " + sequenceName);
+    }
+}
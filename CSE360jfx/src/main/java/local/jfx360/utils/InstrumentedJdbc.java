@@ -0,0 +1,228 @@
+package local.jfx360.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * <p> InstrumentedJdbc Class. </p>
+ *
+ * <p> Description: Wraps a pooled connection in dynamic proxies that time every statement
+ * execution and count the rows and bytes it returns, recording them in {@link QueryStats}.
+ * Everything else passes straight through, so closing the connection still returns it to the
+ * pool. Latency covers the execute call; reading the rows afterwards is counted as rows and
+ * bytes only. Each execution is also a {@link DatabaseCallEvent} in Flight Recordings. </p>
+ */
+final class InstrumentedJdbc {
+
+    private InstrumentedJdbc() {
+    }
+
+    static Connection wrap(Connection connection) {
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InstrumentedJdbc.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    // Calls the real object, rethrowing what it threw instead of an InvocationTargetException
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Proxies are only equal to themselves
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> null;
+        };
+    }
+
+    private static boolean isIdentityMethod(Method method) {
+        return method.getDeclaringClass() == Object.class && !method.getName().equals("toString");
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            Object result = forward(target, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> InstrumentedJdbc.proxy(PreparedStatement.class,
+                        new StatementHandler((Statement) result, (Connection) proxy, (String) args[0]));
+                case "prepareCall" -> InstrumentedJdbc.proxy(CallableStatement.class,
+                        new StatementHandler((Statement) result, (Connection) proxy, (String) args[0]));
+                case "createStatement" -> InstrumentedJdbc.proxy(Statement.class,
+                        new StatementHandler((Statement) result, (Connection) proxy, null));
+                default -> result;
+            };
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final Connection connection;
+        // Statistics of the prepared statement, or null for a plain Statement
+        private final QueryStats.Entry prepared;
+        // Statement of the last execution, for getResultSet()
+        private QueryStats.Entry last;
+        // First SQL added to a plain Statement's batch
+        private String batchSql;
+
+        StatementHandler(Statement target, Connection connection, String sql) {
+            this.target = target;
+            this.connection = connection;
+            this.prepared = sql != null ? QueryStats.entryFor(sql) : null;
+            this.last = prepared;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1 && batchSql == null) {
+                batchSql = (String) args[0];
+            } else if (name.equals("getConnection")) {
+                return connection;
+            } else if (name.equals("getResultSet")) {
+                ResultSet rs = (ResultSet) forward(target, method, args);
+                return rs == null || last == null ? rs : wrapResultSet(rs, last);
+            }
+            if (!name.startsWith("execute")) {
+                return forward(target, method, args);
+            }
+
+            QueryStats.Entry entry;
+            if (args != null && args.length > 0 && args[0] instanceof String sql) {
+                entry = QueryStats.entryFor(sql);
+            } else if (prepared != null) {
+                entry = prepared;
+            } else {
+                entry = QueryStats.entryFor(batchSql);
+            }
+            if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                batchSql = null;
+            }
+            last = entry;
+
+            DatabaseCallEvent event = new DatabaseCallEvent();
+            event.begin();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = forward(target, method, args);
+            } catch (Throwable t) {
+                QueryStats.record(entry, System.nanoTime() - start, true);
+                commit(event, entry, true);
+                throw t;
+            }
+            QueryStats.record(entry, System.nanoTime() - start, false);
+            commit(event, entry, false);
+
+            if (result instanceof ResultSet rs) {
+                return wrapResultSet(rs, entry);
+            }
+            if (result instanceof Integer count) {
+                entry.addRows(count);
+            } else if (result instanceof Long count) {
+                entry.addRows(count);
+            } else if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    entry.addRows(count);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    entry.addRows(count);
+                }
+            }
+            return result;
+        }
+
+        private static void commit(DatabaseCallEvent event, QueryStats.Entry entry, boolean failed) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.sql = entry.sql;
+                event.failed = failed;
+                event.fxThread = FxHandlerEvent.onFxThread();
+                event.handler = FxHandlerEvent.currentHandler();
+                event.commit();
+            }
+        }
+
+        private static ResultSet wrapResultSet(ResultSet rs, QueryStats.Entry entry) {
+            return InstrumentedJdbc.proxy(ResultSet.class, new ResultSetHandler(rs, entry));
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final QueryStats.Entry entry;
+        // Counted locally and added to the entry when the rows run out or the result set closes
+        private long rows;
+        private long bytes;
+
+        ResultSetHandler(ResultSet target, QueryStats.Entry entry) {
+            this.target = target;
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            String name = method.getName();
+            Object result = forward(target, method, args);
+            if (name.equals("next")) {
+                if ((Boolean) result) {
+                    rows++;
+                } else {
+                    flush();
+                }
+            } else if (name.equals("close")) {
+                flush();
+            } else if (name.startsWith("get") && args != null && args.length >= 1
+                    && (args[0] instanceof Integer || args[0] instanceof String)) {
+                // A column getter; strings count one byte per character, other values eight
+                if (result instanceof String s) {
+                    bytes += s.length();
+                } else if (result instanceof byte[] b) {
+                    bytes += b.length;
+                } else if (result != null) {
+                    bytes += 8;
+                }
+            }
+            return result;
+        }
+
+        private void flush() {
+            entry.addRows(rows);
+            entry.addBytes(bytes);
+            rows = 0;
+            bytes = 0;
+        }
+    }
+}
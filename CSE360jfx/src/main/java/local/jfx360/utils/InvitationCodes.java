@@ -0,0 +1,177 @@
+package local.jfx360.utils;
+
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p> InvitationCodes Class. </p>
+ *
+ * <p> Description: Creates and cleans up invitation codes. Codes are 120 random bits from
+ * SecureRandom written as 20 URL-safe Base64 characters, so every code has the same short
+ * length in the unique index and can be pasted into a link without escaping. A batch of codes
+ * for one role is written with one multi-row INSERT. A background sweeper deletes used codes
+ * and codes that expired more than a retention period ago, a bounded number of rows per
+ * statement so it never holds long locks on the table the login screen reads. </p>
+ */
+public class InvitationCodes {
+
+    // 15 random bytes encode to exactly 20 Base64 characters without padding
+    private static final int CODE_BYTES = 15;
+
+    // Rows per INSERT statement when creating a large batch
+    private static final int INSERT_CHUNK = 500;
+
+    // Rows deleted per sweeper statement, override with -Djfx360.invitations.sweepChunk=N
+    private static final int SWEEP_CHUNK = Integer.getInteger("jfx360.invitations.sweepChunk", 1000);
+
+    // Minutes between sweeps, override with -Djfx360.invitations.sweepMinutes=N
+    private static final int SWEEP_MINUTES = Integer.getInteger("jfx360.invitations.sweepMinutes", 30);
+
+    // Expired codes are kept this many days so users still see "expired" rather than "invalid"
+    private static final int RETENTION_DAYS = Integer.getInteger("jfx360.invitations.retentionDays", 7);
+
+    private static final SecureRandom random = new SecureRandom();
+    private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+    private static ScheduledExecutorService sweeper;
+
+    private InvitationCodes() {
+    }
+
+    /**
+     * Returns a new random code.
+     */
+    public static String newCode() {
+        byte[] bytes = new byte[CODE_BYTES];
+        random.nextBytes(bytes);
+        return encoder.encodeToString(bytes);
+    }
+
+    /**
+     * Creates invitation codes for a role.
+     *
+     * @param roleId the role granted by the codes
+     * @param count number of codes to create
+     * @param validity how long the codes stay valid
+     * @return the new codes
+     * @throws SQLException if the codes could not be stored
+     */
+    public static List<String> createBatch(int roleId, int count, Duration validity) throws SQLException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        Timestamp expiration = Timestamp.valueOf(LocalDateTime.now().plus(validity));
+        List<String> codes = new ArrayList<>(count);
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (int from = 0; from < count; from += INSERT_CHUNK) {
+                    int rows = Math.min(INSERT_CHUNK, count - from);
+                    codes.addAll(insertChunk(conn, roleId, rows, expiration));
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return codes;
+    }
+
+    private static List<String> insertChunk(Connection conn, int roleId, int rows, Timestamp expiration)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder("INSERT INTO invitation_codes (code, role_id, expiration) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        }
+
+        // A collision of 120-bit codes is practically impossible, but retry once with new codes if it happens
+        for (int attempt = 0; ; attempt++) {
+            List<String> codes = new ArrayList<>(rows);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (int i = 0; i < rows; i++) {
+                    String code = newCode();
+                    codes.add(code);
+                    pstmt.setString(index++, code);
+                    pstmt.setInt(index++, roleId);
+                    pstmt.setTimestamp(index++, expiration);
+                }
+                pstmt.executeUpdate();
+                return codes;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                if (attempt > 0 || !e.getMessage().contains("Duplicate")) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes used codes and codes past their retention, in bounded chunks.
+     *
+     * @return the number of rows deleted
+     */
+    public static int sweep() throws SQLException {
+        String sql = "DELETE FROM invitation_codes " +
+                "WHERE is_used = TRUE OR expiration < TIMESTAMPADD(DAY, ?, NOW()) LIMIT ?";
+        int total = 0;
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, -RETENTION_DAYS);
+            pstmt.setInt(2, SWEEP_CHUNK);
+            int deleted;
+            do {
+                deleted = pstmt.executeUpdate();
+                total += deleted;
+            } while (deleted == SWEEP_CHUNK);
+        }
+        return total;
+    }
+
+    /**
+     * Starts sweeping expired and used codes in the background.
+     */
+    public static synchronized void startSweeper() {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invitation-code-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(() -> {
+            try {
+                int deleted = sweep();
+                if (deleted > 0) {
+                    System.out.println("Removed " + deleted + " used or expired invitation codes");
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }, 1, SWEEP_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public static synchronized void stopSweeper() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+}
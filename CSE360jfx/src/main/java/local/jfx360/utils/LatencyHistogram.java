@@ -0,0 +1,78 @@
+package local.jfx360.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p> LatencyHistogram Class. </p>
+ *
+ * <p> Description: Lock-free latency histogram with logarithmic buckets, each 2% wider than
+ * the previous one, from one microsecond up to several minutes. Recording is one atomic add,
+ * so thousands of threads can record without contention on a lock, and percentiles are
+ * accurate to about 2% whatever the number of samples. Used by the query statistics and the
+ * load harness. </p>
+ */
+public class LatencyHistogram {
+
+    private static final double GROWTH = 1.02;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+    private static final int BUCKETS = 1200;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(1, nanos / 1000);
+        counts.incrementAndGet(bucketOf(micros));
+        total.increment();
+        sumMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    public double meanMillis() {
+        long n = total.sum();
+        return n == 0 ? 0 : sumMicros.sum() / 1000.0 / n;
+    }
+
+    public double maxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * Returns the latency below which the given fraction of samples fall, in milliseconds.
+     *
+     * @param quantile between 0 and 1, for example 0.99
+     */
+    public double percentileMillis(double quantile) {
+        long n = total.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(1, rank)) {
+                // Report the bucket's upper bound, but never more than the largest sample
+                return Math.min(upperBoundMicros(i), maxMicros.get()) / 1000.0;
+            }
+        }
+        return maxMillis();
+    }
+
+    private static int bucketOf(long micros) {
+        int bucket = (int) (Math.log(micros) / LOG_GROWTH);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    private static double upperBoundMicros(int bucket) {
+        return Math.pow(GROWTH, bucket + 1);
+    }
+}
@@ -0,0 +1,206 @@
+package local.jfx360.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * <p> QueryStats Class. </p>
+ *
+ * <p> Description: Per-statement statistics of every SQL statement run through
+ * {@link DatabaseUtil#getConnection()}. Statements are grouped by their normalized text, with
+ * literals replaced by ? and placeholder lists folded, so the same query with different values
+ * counts as one. For each statement it keeps the number of executions and errors, a latency
+ * histogram, the rows returned or changed and the bytes of column values read. Executions
+ * slower than -Djfx360.db.slowQueryMillis (default 500) are counted and logged as warnings
+ * through {@link System.Logger}, so the logging configuration decides whether they are shown
+ * and where. Recording is lock-free;
+ * {@link #top(int)} and {@link #report(int)} show the worst statements. </p>
+ */
+public final class QueryStats {
+
+    /**
+     * Statistics of one normalized statement at the time of the snapshot.
+     */
+    public record Snapshot(String sql, long count, long errors, double totalMillis, double meanMillis,
+                           double p50Millis, double p95Millis, double p99Millis, double maxMillis,
+                           long rows, long bytes) {
+    }
+
+    static final class Entry {
+        final String sql;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+
+        Entry(String sql) {
+            this.sql = sql;
+        }
+
+        void addRows(long count) {
+            if (count > 0) {
+                rows.add(count);
+            }
+        }
+
+        void addBytes(long count) {
+            if (count > 0) {
+                bytes.add(count);
+            }
+        }
+    }
+
+    private static final long SLOW_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Integer.getInteger("jfx360.db.slowQueryMillis", 500));
+
+    // Statements built from varying text could grow the map without bound; the rest share one entry
+    private static final int MAX_STATEMENTS = 1000;
+    private static final String OTHER = "(other statements)";
+
+    // Normalized text of recently seen raw statements, so plain Statements are not normalized on every call
+    private static final int MAX_CACHED_TEXTS = 2000;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern REPEATED_LISTS = Pattern.compile("\\(\\?\\*\\)(?:\\s*,\\s*\\(\\?\\*\\))+");
+
+    private static final System.Logger LOG = System.getLogger(QueryStats.class.getName());
+
+    private static final Map<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+    private static final Map<String, String> NORMALIZED = new ConcurrentHashMap<>();
+    private static final LongAdder SLOW = new LongAdder();
+    private static final LongAdder EXECUTIONS = new LongAdder();
+
+    // Latency of all statements since the last takeWindow(), for live percentiles
+    private static volatile LatencyHistogram window = new LatencyHistogram();
+
+    private QueryStats() {
+    }
+
+    /**
+     * Returns the statement with literals replaced by ?, whitespace collapsed and lists of
+     * placeholders, such as IN (?, ?, ?) or multi-row VALUES, folded into (?*).
+     */
+    public static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        normalized = PLACEHOLDER_LIST.matcher(normalized).replaceAll("(?*)");
+        return REPEATED_LISTS.matcher(normalized).replaceAll("(?*), ...");
+    }
+
+    static Entry entryFor(String sql) {
+        if (sql == null) {
+            sql = "(unknown statement)";
+        }
+        String normalized = NORMALIZED.get(sql);
+        if (normalized == null) {
+            normalized = normalize(sql);
+            if (NORMALIZED.size() >= MAX_CACHED_TEXTS) {
+                NORMALIZED.clear();
+            }
+            NORMALIZED.put(sql, normalized);
+        }
+        Entry entry = ENTRIES.get(normalized);
+        if (entry == null) {
+            String key = ENTRIES.size() < MAX_STATEMENTS ? normalized : OTHER;
+            entry = ENTRIES.computeIfAbsent(key, Entry::new);
+        }
+        return entry;
+    }
+
+    static void record(Entry entry, long nanos, boolean failed) {
+        entry.latency.record(nanos);
+        window.record(nanos);
+        EXECUTIONS.increment();
+        if (failed) {
+            entry.errors.increment();
+        }
+        if (nanos >= SLOW_NANOS) {
+            SLOW.increment();
+            LOG.log(System.Logger.Level.WARNING, () -> "Slow query (" + TimeUnit.NANOSECONDS.toMillis(nanos) +
+                    " ms): " + entry.sql);
+        }
+    }
+
+    /**
+     * Returns the statistics of every statement seen since the start or the last reset.
+     */
+    public static List<Snapshot> snapshot() {
+        List<Snapshot> snapshots = new ArrayList<>(ENTRIES.size());
+        for (Entry entry : ENTRIES.values()) {
+            LatencyHistogram latency = entry.latency;
+            long count = latency.count();
+            snapshots.add(new Snapshot(entry.sql, count, entry.errors.sum(), latency.meanMillis() * count,
+                    latency.meanMillis(), latency.percentileMillis(0.50), latency.percentileMillis(0.95),
+                    latency.percentileMillis(0.99), latency.maxMillis(), entry.rows.sum(), entry.bytes.sum()));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Returns the statements that took the most time in total, worst first.
+     */
+    public static List<Snapshot> top(int limit) {
+        return snapshot().stream()
+                .sorted(Comparator.comparingDouble(Snapshot::totalMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Formats the top statements as a text table.
+     */
+    public static String report(int limit) {
+        StringBuilder report = new StringBuilder(String.format("%10s %8s %6s %10s %9s %9s %9s %10s %12s  %s%n",
+                "total ms", "count", "errors", "mean ms", "p50 ms", "p99 ms", "max ms", "rows", "bytes", "statement"));
+        for (Snapshot s : top(limit)) {
+            report.append(String.format("%10.0f %8d %6d %10.2f %9.2f %9.2f %9.2f %10d %12d  %s%n",
+                    s.totalMillis(), s.count(), s.errors(), s.meanMillis(), s.p50Millis(), s.p99Millis(),
+                    s.maxMillis(), s.rows(), s.bytes(), s.sql()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Returns how many executions exceeded the slow query threshold.
+     */
+    public static long getSlowQueryCount() {
+        return SLOW.sum();
+    }
+
+    /**
+     * Returns how many statements were executed, including failed ones.
+     */
+    public static long getExecutionCount() {
+        return EXECUTIONS.sum();
+    }
+
+    /**
+     * Returns the latency of every execution since the previous call and starts a new window.
+     */
+    public static LatencyHistogram takeWindow() {
+        LatencyHistogram taken = window;
+        window = new LatencyHistogram();
+        return taken;
+    }
+
+    /**
+     * Forgets all statistics, including the execution counts and the current window.
+     */
+    public static void reset() {
+        ENTRIES.clear();
+        NORMALIZED.clear();
+        SLOW.reset();
+        EXECUTIONS.reset();
+        window = new LatencyHistogram();
+    }
+}
@@ -0,0 +1,29 @@
+package local.jfx360.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * <p> SceneLoadEvent Class. </p>
+ *
+ * <p> Description: Flight Recorder event for loading one FXML view, including the
+ * controller's initialize method. </p>
+ */
+@Name("local.jfx360.SceneLoad")
+@Label("Scene Load")
+@Category({"CSE360", "JavaFX"})
+@Description("FXML view loaded and its controller initialized")
+public final class SceneLoadEvent extends Event {
+
+    @Label("FXML")
+    public String fxml;
+
+    @Label("Controller")
+    public String controller;
+
+    @Label("On FX Thread")
+    public boolean fxThread;
+}
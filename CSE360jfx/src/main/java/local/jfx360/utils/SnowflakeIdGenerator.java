@@ -0,0 +1,127 @@
+package local.jfx360.utils;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p> SnowflakeIdGenerator Class. </p>
+ *
+ * <p> Description: Generates 64-bit ids without talking to the database. An id is made of
+ * 41 bits of milliseconds since 2024-01-01 UTC, a 10-bit node id for the workstation and a
+ * 12-bit sequence within the millisecond, so ids from generators with different node ids never
+ * collide and ids from one generator are strictly increasing and roughly time ordered.
+ * The last timestamp and sequence live in one AtomicLong that is advanced with a CAS, so
+ * concurrent callers never block. When more than 4096 ids are taken in one millisecond, the
+ * sequence carries into the timestamp and the generator briefly runs ahead of the clock
+ * instead of waiting; the same happens if the system clock moves backwards. </p>
+ *
+ * <p> The shared generator leases its node id from the snowflake_nodes row of id_sequences
+ * the first time it is used: every process takes the next number, modulo 1023, so processes
+ * get distinct node ids as long as fewer than 1023 other ones started while they run. Set
+ * -Djfx360.nodeId=N to pin a node id instead. Node 1023 is never leased; it is kept for tools
+ * that build ids of their own with {@link #idOf(long, int, int)}. </p>
+ *
+ * <p> Ids created before this generator were plain currentTimeMillis() values, which are
+ * far smaller than any id produced here, so the two ranges cannot overlap. </p>
+ */
+public class SnowflakeIdGenerator {
+
+    // 2024-01-01T00:00:00Z
+    static final long EPOCH = 1704067200000L;
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    /**
+     * Node id that is never leased to a workstation, for tools that generate ids offline.
+     */
+    public static final int TOOL_NODE_ID = MAX_NODE_ID;
+
+    // Leases go round 0 .. TOOL_NODE_ID - 1
+    private static final IdBlockAllocator NODE_LEASES = new IdBlockAllocator("snowflake_nodes", null, 1);
+
+    private static volatile SnowflakeIdGenerator instance;
+
+    private final long nodeBits;
+
+    // (milliseconds since EPOCH << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * Returns the shared generator, whose node id comes from -Djfx360.nodeId=N or, when that
+     * is not set, is leased from the database on first use.
+     */
+    public static SnowflakeIdGenerator getInstance() throws SQLException {
+        SnowflakeIdGenerator generator = instance;
+        if (generator == null) {
+            synchronized (SnowflakeIdGenerator.class) {
+                generator = instance;
+                if (generator == null) {
+                    generator = new SnowflakeIdGenerator(defaultNodeId());
+                    instance = generator;
+                }
+            }
+        }
+        return generator;
+    }
+
+    /**
+     * Returns the next id.
+     */
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        long last;
+        long next;
+        do {
+            last = state.get();
+            // A new millisecond restarts the sequence, otherwise take the next one
+            next = Math.max(now, last + 1);
+        } while (!state.compareAndSet(last, next));
+
+        return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+    }
+
+    public int getNodeId() {
+        return (int) (nodeBits >>> SEQUENCE_BITS);
+    }
+
+    /**
+     * Returns the creation time encoded in an id, in epoch milliseconds.
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    public static int nodeIdOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+
+    /**
+     * Builds the id a generator with the given node id hands out at the given time and sequence,
+     * for tools that must produce the same ids on every run.
+     */
+    public static long idOf(long timestampMillis, int nodeId, int sequence) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        return ((timestampMillis - EPOCH) << (NODE_BITS + SEQUENCE_BITS))
+                | ((long) nodeId << SEQUENCE_BITS) | (sequence & SEQUENCE_MASK);
+    }
+
+    private static int defaultNodeId() throws SQLException {
+        Integer configured = Integer.getInteger("jfx360.nodeId");
+        if (configured != null) {
+            return configured;
+        }
+        return (int) (NODE_LEASES.reserveRange(1) % TOOL_NODE_ID);
+    }
+}
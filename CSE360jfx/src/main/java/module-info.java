@@ -17,7 +17,13 @@ module local.jfx360 {
     requires org.controlsfx.controls;
     requires net.synedra.validatorfx;
     requires java.sql;
+    requires com.zaxxer.hikari;
     requires com.dlsc.formsfx;
+    requires com.h2database;
+    requires jdk.httpserver;
+    requires jdk.jfr;
+    requires java.xml;
+    requires java.management;
 
     // Exporting packages for other modules to use
     exports local.jfx360.controllers;
@@ -27,6 +33,7 @@ module local.jfx360 {
     // Opening packages to allow JavaFX to perform reflection (necessary for FXML)
     opens local.jfx360.main to javafx.graphics, javafx.fxml;
     exports local.jfx360.utils;
+    exports local.jfx360.service;
     opens local.jfx360.controllers to javafx.fxml, javafx.graphics;
     opens local.jfx360.utils to javafx.fxml, javafx.graphics;
     // Open other packages as needed for FXML or reflection
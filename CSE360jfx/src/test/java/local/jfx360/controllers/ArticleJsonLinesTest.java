@@ -0,0 +1,191 @@
+package local.jfx360.controllers;
+
+import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.IdBlockAllocator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArticleJsonLinesTest {
+
+    @Test
+    @Timeout(30)
+    @EnabledIfSystemProperty(named = "jfx360.db", matches = "embedded")
+    void testImportCreatesGroupBeforeItsMappings(@TempDir Path dir) throws Exception {
+        String group = "Imported " + UUID.randomUUID();
+        int author = createAuthor(group);
+        long firstId = System.currentTimeMillis() * 1000;
+        List<String> lines = new ArrayList<>();
+        lines.add("{\"type\":\"header\",\"format\":\"jfx360-help-articles\",\"version\":1}");
+        lines.add("{\"type\":\"group\",\"name\":\"" + group + "\",\"specialAccess\":false}");
+        for (long id = firstId; id < firstId + 3; id++) {
+            lines.add("{\"type\":\"article\",\"id\":" + id + ",\"title\":\"Title " + id + "\",\"description\":\"d\"," +
+                    "\"level\":\"beginner\",\"keywords\":\"k\",\"body\":\"b\",\"restricted\":false," +
+                    "\"createdBy\":" + author + ",\"lastModifiedBy\":" + author + "}");
+        }
+        for (long id = firstId; id < firstId + 3; id++) {
+            lines.add("{\"type\":\"mapping\",\"articleId\":" + id + ",\"group\":\"" + group + "\"}");
+        }
+        File file = Files.write(dir.resolve("articles.jsonl"), lines).toFile();
+
+        try {
+            // A file smaller than one batch maps its articles before anything is committed
+            assertEquals(3, new QuietImport(file).call());
+
+            try (Connection conn = DatabaseUtil.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM help_article_group_mapping m " +
+                         "JOIN help_article_groups g ON m.group_id = g.id WHERE g.name = ?")) {
+                pstmt.setString(1, group);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(3, rs.getInt(1));
+                }
+            }
+        } finally {
+            cleanUp(firstId, group, author);
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    @EnabledIfSystemProperty(named = "jfx360.db", matches = "embedded")
+    void testExportedArticlesImportUnchanged(@TempDir Path dir) throws Exception {
+        String group = "Exported " + UUID.randomUUID();
+        int author = createAuthor(group);
+        long firstId = System.currentTimeMillis() * 1000 + 500;
+        try {
+            try (Connection conn = DatabaseUtil.getConnection();
+                 PreparedStatement groupStmt = conn.prepareStatement("INSERT INTO help_article_groups (name) VALUES (?)",
+                         Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement articleStmt = conn.prepareStatement("INSERT INTO help_articles (id, title, description, " +
+                         "level, keywords, body, created_by, last_modified_by) VALUES (?, ?, 'd', 'expert', 'k', 'b', ?, ?)");
+                 PreparedStatement mappingStmt = conn.prepareStatement("INSERT INTO help_article_group_mapping " +
+                         "(article_id, group_id) VALUES (?, ?)")) {
+                groupStmt.setString(1, group);
+                groupStmt.executeUpdate();
+                int groupId;
+                try (ResultSet rs = groupStmt.getGeneratedKeys()) {
+                    assertTrue(rs.next());
+                    groupId = rs.getInt(1);
+                }
+                for (long id = firstId; id < firstId + 2; id++) {
+                    articleStmt.setLong(1, id);
+                    articleStmt.setString(2, "Title " + id);
+                    // The second article's author was deleted
+                    if (id == firstId) {
+                        articleStmt.setInt(3, author);
+                        articleStmt.setInt(4, author);
+                    } else {
+                        articleStmt.setNull(3, Types.INTEGER);
+                        articleStmt.setNull(4, Types.INTEGER);
+                    }
+                    articleStmt.executeUpdate();
+                    mappingStmt.setLong(1, id);
+                    mappingStmt.setInt(2, groupId);
+                    mappingStmt.executeUpdate();
+                }
+            }
+
+            File file = dir.resolve("articles.jsonl").toFile();
+            ArticleJsonLines.ExportResult exported = ArticleJsonLines.export(file, group);
+            assertEquals(2, exported.articles());
+            assertEquals(2, exported.mappings());
+
+            deleteArticles(firstId);
+            assertEquals(2, new QuietImport(file).call());
+
+            try (Connection conn = DatabaseUtil.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement("SELECT ha.id, ha.title, ha.level, ha.created_by, " +
+                         "ha.last_modified_by, g.name FROM help_articles ha " +
+                         "JOIN help_article_group_mapping m ON m.article_id = ha.id " +
+                         "JOIN help_article_groups g ON m.group_id = g.id WHERE ha.id >= ? ORDER BY ha.id")) {
+                pstmt.setLong(1, firstId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(firstId, rs.getLong("id"));
+                    assertEquals("Title " + firstId, rs.getString("title"));
+                    assertEquals("expert", rs.getString("level"));
+                    assertEquals(author, rs.getInt("created_by"));
+                    assertEquals(author, rs.getInt("last_modified_by"));
+                    assertEquals(group, rs.getString("name"));
+
+                    assertTrue(rs.next());
+                    assertEquals(firstId + 1, rs.getLong("id"));
+                    rs.getInt("created_by");
+                    assertTrue(rs.wasNull(), "A deleted author should come back as null");
+                    rs.getInt("last_modified_by");
+                    assertTrue(rs.wasNull());
+                    assertFalse(rs.next());
+                }
+            }
+        } finally {
+            cleanUp(firstId, group, author);
+        }
+    }
+
+    private static void deleteArticles(long firstId) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement mappings = conn.prepareStatement("DELETE FROM help_article_group_mapping WHERE article_id >= ?");
+             PreparedStatement articles = conn.prepareStatement("DELETE FROM help_articles WHERE id >= ?")) {
+            mappings.setLong(1, firstId);
+            mappings.executeUpdate();
+            articles.setLong(1, firstId);
+            articles.executeUpdate();
+        }
+    }
+
+    private static void cleanUp(long firstId, String group, int author) throws Exception {
+        deleteArticles(firstId);
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement groups = conn.prepareStatement("DELETE FROM help_article_groups WHERE name = ?");
+             PreparedStatement users = conn.prepareStatement("DELETE FROM users WHERE id = ?")) {
+            groups.setString(1, group);
+            groups.executeUpdate();
+            users.setInt(1, author);
+            users.executeUpdate();
+        }
+    }
+
+    private static int createAuthor(String name) throws Exception {
+        int id = Math.toIntExact(IdBlockAllocator.forUsers().nextId());
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("INSERT INTO users (id, email_address, username, password, " +
+                     "first_name, last_name) VALUES (?, ?, ?, 'x', 'Test', 'Author')")) {
+            pstmt.setInt(1, id);
+            pstmt.setString(2, name + "@example.com");
+            pstmt.setString(3, name.substring(name.length() - 12));
+            pstmt.executeUpdate();
+            return id;
+        }
+    }
+
+    // Runs the import on the test thread, without the FX toolkit its progress updates need
+    private static class QuietImport extends ArticleJsonLines.ImportTask {
+        QuietImport(File file) {
+            super(file, true);
+        }
+
+        @Override
+        protected void updateMessage(String message) {
+        }
+
+        @Override
+        protected void updateProgress(long workDone, long max) {
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package local.jfx360.controllers;
+
+import local.jfx360.controllers.HelpSystemHelper.HelpArticle;
+import local.jfx360.utils.ChunkedBackup;
+import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.IdBlockAllocator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArticleRestoreTaskTest {
+
+    @Test
+    @Timeout(60)
+    @EnabledIfSystemProperty(named = "jfx360.db", matches = "embedded")
+    void testBackupIsStreamedToWriters(@TempDir Path dir) throws Exception {
+        String group = "Restored " + UUID.randomUUID();
+        int author = createAuthor(group);
+        // More than two chunks, each cut into several batches
+        int count = ChunkedBackup.DEFAULT_CHUNK_RECORDS * 2 + 123;
+        long firstId = System.currentTimeMillis() * 1000;
+        File file = dir.resolve("articles.backup").toFile();
+        try (ChunkedBackup.Writer<HelpArticle> out = ChunkedBackup.openWriter(file)) {
+            for (int i = 0; i < count; i++) {
+                HelpArticle article = new HelpArticle();
+                article.id = firstId + i;
+                article.title = "Title " + i;
+                article.description = "d";
+                article.level = "beginner";
+                article.keywords = "k";
+                article.body = "b";
+                article.groups = group;
+                article.createdBy = author;
+                article.lastModifiedBy = author;
+                out.add(article);
+            }
+            // A duplicate is checkpointed but not inserted twice
+            out.add(copyOf(firstId));
+            out.finish();
+        }
+
+        try {
+            QuietRestore task = new QuietRestore(file, 3, 170);
+            assertEquals(count, task.call());
+
+            try (Connection conn = DatabaseUtil.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM help_article_group_mapping m " +
+                         "JOIN help_article_groups g ON m.group_id = g.id WHERE g.name = ?")) {
+                pstmt.setString(1, group);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(count, rs.getInt(1));
+                }
+            }
+            assertNull(RestoreJournal.findResumable(file), "A finished restore should not be offered for resuming");
+
+            // Merging the same file again finds every article already there
+            assertEquals(0, new QuietRestore(file, 2, 500).call());
+        } finally {
+            try (Connection conn = DatabaseUtil.getConnection();
+                 PreparedStatement mappings = conn.prepareStatement("DELETE FROM help_article_group_mapping WHERE article_id >= ?");
+                 PreparedStatement articles = conn.prepareStatement("DELETE FROM help_articles WHERE id >= ?");
+                 PreparedStatement groups = conn.prepareStatement("DELETE FROM help_article_groups WHERE name = ?");
+                 PreparedStatement users = conn.prepareStatement("DELETE FROM users WHERE id = ?")) {
+                mappings.setLong(1, firstId);
+                mappings.executeUpdate();
+                articles.setLong(1, firstId);
+                articles.executeUpdate();
+                groups.setString(1, group);
+                groups.executeUpdate();
+                users.setInt(1, author);
+                users.executeUpdate();
+            }
+        }
+    }
+
+    private static HelpArticle copyOf(long id) {
+        HelpArticle article = new HelpArticle();
+        article.id = id;
+        article.title = "Duplicate";
+        article.description = "d";
+        article.level = "beginner";
+        article.keywords = "k";
+        article.body = "b";
+        return article;
+    }
+
+    private static int createAuthor(String name) throws Exception {
+        int id = Math.toIntExact(IdBlockAllocator.forUsers().nextId());
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("INSERT INTO users (id, email_address, username, password, " +
+                     "first_name, last_name) VALUES (?, ?, ?, 'x', 'Test', 'Author')")) {
+            pstmt.setInt(1, id);
+            pstmt.setString(2, name + "@example.com");
+            pstmt.setString(3, name.substring(name.length() - 12));
+            pstmt.executeUpdate();
+            return id;
+        }
+    }
+
+    // Runs a merge restore on the test thread, without the FX toolkit its progress updates need
+    private static class QuietRestore extends ArticleRestoreTask {
+        QuietRestore(File file, int writers, int batchSize) {
+            super(file, true, null, writers, batchSize);
+        }
+
+        @Override
+        protected void updateMessage(String message) {
+        }
+
+        @Override
+        protected void updateProgress(long workDone, long max) {
+        }
+    }
+}
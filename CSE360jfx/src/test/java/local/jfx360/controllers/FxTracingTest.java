@@ -0,0 +1,131 @@
+package local.jfx360.controllers;
+
+import javafx.event.Event;
+import javafx.event.EventDispatcher;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import local.jfx360.utils.AppMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxTracingTest {
+
+    private static final URL TRACED_VIEW = FxTracingTest.class.getResource("TracedView.fxml");
+
+    public static class TracedView {
+        @FXML
+        Pane cell;
+
+        @FXML
+        Pane unbound;
+
+        @FXML
+        private void pickRow() {
+        }
+    }
+
+    @Test
+    void testHandlersAreReadFromFxml() {
+        Map<String, String> handlers = FxTracing.parseHandlers(
+                FxTracingTest.class.getResource("/local/jfx360/fxml/AdminMainPage.fxml"));
+        assertEquals("handleLogoutButton", handlers.get("#logoutButton"));
+        // Buttons without an fx:id are found by their text
+        assertEquals("deleteUser", handlers.get("text:Delete User"));
+
+        assertEquals(Map.of("#row", "pickRow"), FxTracing.parseHandlers(TRACED_VIEW));
+    }
+
+    @Test
+    void testSceneLoadIsRecorded(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("scene.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("local.jfx360.SceneLoad");
+            recording.start();
+            FXMLLoader loader = new FXMLLoader(TRACED_VIEW);
+            FxTracing.load(loader);
+            assertInstanceOf(TracedView.class, loader.getController());
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = events(file, "local.jfx360.SceneLoad");
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals("TracedView.fxml", event.getString("fxml"));
+        assertEquals("TracedView", event.getString("controller"));
+        assertFalse(event.getBoolean("fxThread"), "The test thread is not the FX thread");
+    }
+
+    @Test
+    void testSlowHandlerIsRecordedWithItsMethod(@TempDir Path dir) throws Exception {
+        FXMLLoader loader = new FXMLLoader(TRACED_VIEW);
+        loader.load();
+        TracedView view = loader.getController();
+        long slowHandlers = (long) AppMetrics.sample().get("fx.slowHandlers");
+
+        // Stands in for the scene's own dispatcher, running a handler that blocks
+        EventDispatcher[] tracing = new EventDispatcher[1];
+        EventDispatcher handler = (event, tail) -> {
+            if (event.getEventType() == MouseEvent.MOUSE_CLICKED) {
+                // An event fired from inside the handler belongs to it
+                tracing[0].dispatchEvent(new Event(view.cell, view.cell, MouseEvent.MOUSE_RELEASED), null);
+                sleep(150);
+            }
+            return event;
+        };
+        tracing[0] = new FxTracing.TracingDispatcher(handler, "TracedView", FxTracing.parseHandlers(TRACED_VIEW));
+
+        Path file = dir.resolve("handler.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("local.jfx360.FxHandler");
+            recording.start();
+            // Dispatching marks the calling thread as the FX thread, so keep it off the test thread
+            Thread fxThread = new Thread(() -> {
+                // The cell has no handler of its own, the click is handled by its row
+                tracing[0].dispatchEvent(new Event(view.cell, view.cell, MouseEvent.MOUSE_CLICKED), null);
+                // Too fast to be recorded
+                tracing[0].dispatchEvent(new Event(view.unbound, view.unbound, MouseEvent.MOUSE_PRESSED), null);
+            }, "fx-stand-in");
+            fxThread.start();
+            fxThread.join();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = events(file, "local.jfx360.FxHandler");
+        assertEquals(1, events.size(), "Only the slow click should be recorded");
+        RecordedEvent event = events.get(0);
+        assertEquals("TracedView", event.getString("controller"));
+        assertEquals("pickRow", event.getString("handler"));
+        assertEquals("MOUSE_CLICKED", event.getString("eventType"));
+        assertEquals("Pane #cell", event.getString("target"));
+        assertFalse(event.getBoolean("windowShown"));
+        assertTrue(event.getDuration().toMillis() >= 150);
+        assertEquals(slowHandlers + 1, (long) AppMetrics.sample().get("fx.slowHandlers"));
+    }
+
+    private static List<RecordedEvent> events(Path file, String name) throws Exception {
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .toList();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package local.jfx360.controllers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxWatchdogTest {
+
+    @Test
+    void testCulpritIsInnermostControllerFrame() {
+        StackTraceElement[] stack = {
+                new StackTraceElement("java.net.SocketInputStream", "read", "SocketInputStream.java", 1),
+                new StackTraceElement("local.jfx360.utils.InstrumentedJdbc$StatementHandler", "invoke", "InstrumentedJdbc.java", 2),
+                new StackTraceElement("local.jfx360.controllers.InstructorMainPage$1", "loadStudents", "InstructorMainPage.java", 3),
+                new StackTraceElement("local.jfx360.controllers.FxTracing$TracingDispatcher", "dispatchEvent", "FxTracing.java", 4),
+                new StackTraceElement("com.sun.glass.ui.InvokeLaterDispatcher", "run", null, 5)
+        };
+        assertEquals("InstructorMainPage.loadStudents", FxWatchdog.culpritOf(stack));
+
+        StackTraceElement[] utilsOnly = {stack[0], stack[1], stack[4]};
+        assertEquals("InstrumentedJdbc.invoke", FxWatchdog.culpritOf(utilsOnly));
+        assertEquals("InvokeLaterDispatcher.run", FxWatchdog.culpritOf(new StackTraceElement[]{stack[4]}));
+    }
+
+    @Test
+    void testDetectsAndBlamesStall() throws Exception {
+        AtomicReference<Thread> watched = new AtomicReference<>();
+        ExecutorService uiThread = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "fake-fx-thread");
+            watched.set(t);
+            return t;
+        });
+        try {
+            uiThread.submit(() -> { }).get();
+            FxWatchdog watchdog = new FxWatchdog(uiThread::execute, watched.get(), 20, 100);
+            watchdog.startThread();
+            try {
+                Thread.sleep(100);
+                assertEquals(0, watchdog.getStallCount(), "An idle thread should not stall");
+
+                uiThread.submit(() -> blockFor(600)).get();
+                long deadline = System.currentTimeMillis() + 5000;
+                while (watchdog.getStallCount() == 0 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(20);
+                }
+            } finally {
+                watchdog.stopThread();
+            }
+
+            assertEquals(1, watchdog.getStallCount());
+            FxWatchdog.Stall stall = watchdog.getLastStall();
+            assertEquals("FxWatchdogTest.blockFor", stall.culprit());
+            // Measured from when the heartbeat was posted, somewhere inside the block
+            assertTrue(stall.millis() >= 100 && stall.millis() <= 700, "Stall was " + stall.millis() + " ms");
+            assertEquals(1L, watchdog.getStallsByCulprit().get("FxWatchdogTest.blockFor"));
+            assertTrue(watchdog.getMaxStallMillis() >= stall.millis());
+        } finally {
+            uiThread.shutdownNow();
+        }
+    }
+
+    // Stands in for a handler waiting on the database
+    private static void blockFor(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package local.jfx360.controllers;
+
+import local.jfx360.utils.DatabaseUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestoreJournalTest {
+
+    @Test
+    @Timeout(30)
+    @EnabledIfSystemProperty(named = "jfx360.db", matches = "embedded")
+    void testCheckpointsNeverGoBackwards(@TempDir Path dir) throws Exception {
+        File file = Files.writeString(dir.resolve("articles.backup"), "backup").toFile();
+        RestoreJournal journal = RestoreJournal.start(file, false, 1000);
+        try {
+            try (Connection conn = DatabaseUtil.getConnection()) {
+                journal.checkpoint(conn, 400, 250);
+                // A writer that finished earlier batches checkpoints after a later one
+                journal.checkpoint(conn, 200, 120);
+            }
+            journal.setStatus(RestoreJournal.FAILED);
+
+            RestoreJournal resumable = RestoreJournal.findResumable(file);
+            assertNotNull(resumable);
+            assertEquals(journal.id, resumable.id);
+            assertFalse(resumable.merge, "The journal should keep the mode the restore was started in");
+            assertEquals(1000, resumable.totalRows);
+            assertEquals(400, resumable.committedOffset);
+            assertEquals(250, resumable.restoredRows, "Skipped articles should not count as restored");
+        } finally {
+            try (Connection conn = DatabaseUtil.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement("DELETE FROM restore_journal WHERE id = ?")) {
+                pstmt.setInt(1, journal.id);
+                pstmt.executeUpdate();
+            }
+        }
+    }
+}
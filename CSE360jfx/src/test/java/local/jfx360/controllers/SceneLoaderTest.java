@@ -0,0 +1,105 @@
+package local.jfx360.controllers;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SceneLoaderTest {
+
+    // Runs the background loads when the test says so
+    private final List<Runnable> queued = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private boolean failing;
+
+    private SceneLoader newLoader(long maxSpareAgeMillis) {
+        return new SceneLoader(fxmlFile -> {
+            if (failing) {
+                throw new IOException("Cannot load " + fxmlFile);
+            }
+            return new SceneLoader.View<>(null, fxmlFile + " #" + loads.incrementAndGet());
+        }, queued::add, maxSpareAgeMillis);
+    }
+
+    private void runQueued() {
+        List<Runnable> tasks = new ArrayList<>(queued);
+        queued.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    @Test
+    void testPrefetchedViewIsHandedOverOnce() throws IOException {
+        SceneLoader loader = newLoader(60_000);
+        loader.prepare("AdminMainPage.fxml");
+        loader.prepare("AdminMainPage.fxml");
+        runQueued();
+        assertEquals(1, loads.get(), "A view being prefetched should not be prefetched twice");
+
+        assertEquals("AdminMainPage.fxml #1", loader.take("AdminMainPage.fxml").controller());
+        assertEquals("AdminMainPage.fxml #2", loader.take("AdminMainPage.fxml").controller());
+        assertEquals(1, loader.getHitCount());
+        assertEquals(1, loader.getMissCount());
+    }
+
+    @Test
+    void testWarmViewIsPrefetchedAgainWhenTaken() throws IOException {
+        SceneLoader loader = newLoader(60_000);
+        loader.keep("Login.fxml");
+        runQueued();
+        assertEquals("Login.fxml #1", loader.take("Login.fxml").controller());
+        runQueued();
+        assertEquals("Login.fxml #2", loader.take("Login.fxml").controller());
+        assertEquals(2, loader.getHitCount());
+        assertEquals(1, queued.size(), "The next Login view should be on its way");
+    }
+
+    @Test
+    void testViewNotStartedIsLoadedByCaller() throws IOException {
+        SceneLoader loader = newLoader(60_000);
+        loader.prepare("StudentMainPage.fxml");
+        assertEquals("StudentMainPage.fxml #1", loader.take("StudentMainPage.fxml").controller());
+        runQueued();
+        assertEquals(1, loads.get(), "The claimed view should not be loaded again in the background");
+        assertEquals(1, loader.getMissCount());
+    }
+
+    @Test
+    void testStaleViewIsNotUsed() throws Exception {
+        SceneLoader loader = newLoader(20);
+        loader.prepare("InstructorMainPage.fxml");
+        runQueued();
+        Thread.sleep(50);
+        assertEquals("InstructorMainPage.fxml #2", loader.take("InstructorMainPage.fxml").controller());
+        assertEquals(0, loader.getHitCount());
+    }
+
+    @Test
+    void testPrefetchedControllerIsToldOfHandOver() throws IOException {
+        AtomicInteger handOvers = new AtomicInteger();
+        SceneLoader loader = new SceneLoader(fxmlFile -> new SceneLoader.View<SceneLoader.HandOver>(null,
+                handOvers::incrementAndGet), queued::add, 60_000);
+        loader.prepare("StudentMainPage.fxml");
+        runQueued();
+        loader.take("StudentMainPage.fxml");
+        assertEquals(1, handOvers.get());
+
+        // A view loaded by the caller was built on its thread already
+        loader.take("StudentMainPage.fxml");
+        assertEquals(1, handOvers.get());
+    }
+
+    @Test
+    void testFailedPrefetchIsLoadedAgainByCaller() throws IOException {
+        SceneLoader loader = newLoader(60_000);
+        failing = true;
+        loader.prepare("AdminMainPage.fxml");
+        runQueued();
+        failing = false;
+        assertEquals("AdminMainPage.fxml #1", loader.take("AdminMainPage.fxml").controller());
+        assertEquals(1, loader.getMissCount());
+    }
+}
@@ -0,0 +1,163 @@
+package local.jfx360.controllers;
+
+import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.GroupCache;
+import local.jfx360.utils.QueryStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportTaskTest {
+
+    private static final String LOAD_GROUPS = "SELECT id, name FROM help_article_groups ORDER BY name";
+
+    @Test
+    void testParseLine() {
+        assertEquals(List.of("a", "b", "", "c"), UserImportTask.parseLine("a,b,,c"));
+        assertEquals(List.of("Smith, John", "say \"hi\"", ""), UserImportTask.parseLine("\"Smith, John\",\"say \"\"hi\"\"\","));
+        assertEquals(List.of(""), UserImportTask.parseLine(""));
+    }
+
+    @Test
+    @Timeout(60)
+    @EnabledIfSystemProperty(named = "jfx360.db", matches = "embedded")
+    void testInvalidRowsAreReportedAndSkipped(@TempDir Path dir) throws Exception {
+        String prefix = "imp" + UUID.randomUUID().toString().substring(0, 8) + "_";
+        String group = "Import " + prefix;
+        GroupCache.resolve(group);
+        String missingGroup = "Missing " + prefix;
+        File file = writeCsv(dir, "username,password,first_name,last_name,email,roles,groups",
+                prefix + "ok,pw,Ada,Lovelace,,Student,\"" + group + "\"",
+                prefix + "nofirst,pw,,Lovelace,,,",
+                prefix + "bademail,pw,Ada,Lovelace,not-an-email,,",
+                prefix + "badrole,pw,Ada,Lovelace,,Janitor,",
+                prefix + "nogroup1,pw,Ada,Lovelace,,,\"" + missingGroup + "\"",
+                prefix + "nogroup2,pw,Ada,Lovelace,,,\"" + missingGroup + "\"",
+                prefix + "OK,pw,Ada,Lovelace,,,",
+                "",
+                prefix + "second,pw,Grace,Hopper,,Student;Instructor,");
+        try {
+            long groupLoads = executions(LOAD_GROUPS);
+            UserImportTask.Result result = new QuietImport(file, 2).call();
+
+            assertEquals(2, result.imported());
+            assertEquals(List.of(3, 4, 5, 6, 7, 8), result.errors().stream().map(UserImportTask.RowError::line).toList());
+            assertTrue(result.errors().get(0).message().contains("required"));
+            assertTrue(result.errors().get(1).message().contains("invalid email"));
+            assertTrue(result.errors().get(2).message().contains("unknown role"));
+            assertTrue(result.errors().get(3).message().contains("unknown group"));
+            assertTrue(result.errors().get(5).message().contains("username already exists"),
+                    "Usernames should be compared without case");
+            assertEquals(1, executions(LOAD_GROUPS) - groupLoads,
+                    "A missing group should be looked up once per import");
+
+            try (Connection conn = DatabaseUtil.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM user_roles ur " +
+                         "JOIN users u ON u.id = ur.user_id WHERE u.username LIKE ?");
+                 PreparedStatement groups = conn.prepareStatement("SELECT COUNT(*) FROM student_group_mapping sgm " +
+                         "JOIN users u ON u.id = sgm.user_id WHERE u.username = ?")) {
+                pstmt.setString(1, prefix + "%");
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(3, rs.getInt(1));
+                }
+                groups.setString(1, prefix + "ok");
+                try (ResultSet rs = groups.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(1, rs.getInt(1));
+                }
+            }
+
+            // Importing the same file again finds every user already there
+            UserImportTask.Result again = new QuietImport(file, 2).call();
+            assertEquals(0, again.imported());
+        } finally {
+            cleanUp(prefix, group);
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    @EnabledIfSystemProperty(named = "jfx360.db", matches = "embedded")
+    void testFailedBatchIsRetriedRowByRow(@TempDir Path dir) throws Exception {
+        String prefix = "ret" + UUID.randomUUID().toString().substring(0, 8) + "_";
+        // Passes validation but is longer than the email column, so the database refuses it
+        String longEmail = "x".repeat(300) + "@example.com";
+        File file = writeCsv(dir, "username,password,first_name,last_name,email",
+                prefix + "a,pw,Ada,Lovelace,",
+                prefix + "b,pw,Ada,Lovelace," + longEmail,
+                prefix + "c,pw,Ada,Lovelace,",
+                prefix + "d,pw,Ada,Lovelace,");
+        try {
+            UserImportTask.Result result = new QuietImport(file, 10).call();
+            assertEquals(3, result.imported(), "Only the row the database refused should be left out");
+            assertEquals(1, result.errors().size());
+            assertEquals(3, result.errors().get(0).line());
+            assertEquals(prefix + "b", result.errors().get(0).username());
+
+            try (Connection conn = DatabaseUtil.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM users WHERE username LIKE ?")) {
+                pstmt.setString(1, prefix + "%");
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(3, rs.getInt(1));
+                }
+            }
+        } finally {
+            cleanUp(prefix, null);
+        }
+    }
+
+    private static File writeCsv(Path dir, String... lines) throws Exception {
+        File file = dir.resolve("users.csv").toFile();
+        Files.write(file.toPath(), List.of(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static long executions(String sql) {
+        return QueryStats.snapshot().stream().filter(s -> s.sql().equals(sql))
+                .mapToLong(QueryStats.Snapshot::count).sum();
+    }
+
+    private static void cleanUp(String prefix, String group) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement users = conn.prepareStatement("DELETE FROM users WHERE username LIKE ?");
+             PreparedStatement groups = conn.prepareStatement("DELETE FROM help_article_groups WHERE name = ?")) {
+            users.setString(1, prefix + "%");
+            users.executeUpdate();
+            if (group != null) {
+                groups.setString(1, group);
+                groups.executeUpdate();
+                GroupCache.invalidateAll();
+            }
+        }
+    }
+
+    // Runs the import on the test thread, without the FX toolkit its progress updates need
+    private static class QuietImport extends UserImportTask {
+        QuietImport(File file, int chunkSize) {
+            super(file, chunkSize);
+        }
+
+        @Override
+        protected void updateMessage(String message) {
+        }
+
+        @Override
+        protected void updateProgress(long workDone, long max) {
+        }
+    }
+}
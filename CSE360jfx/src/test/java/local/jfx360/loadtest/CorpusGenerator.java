@@ -0,0 +1,541 @@
+package local.jfx360.loadtest;
+
+import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.IdBlockAllocator;
+import local.jfx360.utils.PasswordUtils;
+import local.jfx360.utils.SnowflakeIdGenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static local.jfx360.utils.SimpleEncryption.encrypt;
+
+/**
+ * <p> CorpusGenerator Class. </p>
+ *
+ * <p> Description: Fills the database with a synthetic help system of a chosen size: users
+ * with their roles, article groups, articles with their group mappings, student group
+ * memberships, special access grants and help messages. Every row is computed from the seed
+ * and its own index only, so the same seed and sizes give the same data however many threads
+ * insert it. Rows are written in batches by several connections at once. </p>
+ *
+ * <p> Settings (system properties, prefix {@code jfx360.corpus.}): scale (users, articles and
+ * messages at once, default 1000), users, articles, messages, groups, seed, restrictedRatio,
+ * instructorRatio, adminRatio, groupsPerArticle, groupsPerStudent, threads, batchSize and
+ * password. Users are named {@code corpus_<n>} and share one password; their ids come from the
+ * users id sequence. Articles get Snowflake ids of {@link SnowflakeIdGenerator#TOOL_NODE_ID}
+ * stamped in early 2024; that node is never leased to a workstation. Run with
+ * {@code mvn test -Dtest=CorpusGeneratorTest -Djfx360.corpus=true}. </p>
+ */
+public class CorpusGenerator {
+
+    // 2024-01-01T00:00:00Z; article ids and creation times start here
+    private static final long BASE_TIME = 1704067200000L;
+    private static final long TWO_YEARS_MILLIS = TimeUnit.DAYS.toMillis(730);
+
+    // Article bodies follow a log-normal distribution around 1.5 KB, like hand-written help text
+    private static final double BODY_MEDIAN_LOG = Math.log(1500);
+    private static final double BODY_SIGMA = 1.0;
+    static final int MIN_BODY = 80;
+    static final int MAX_BODY = 64 * 1024;
+
+    // Share of groups that need special access
+    private static final double SPECIAL_GROUP_RATIO = 0.1;
+    private static final int INSTRUCTORS_PER_SPECIAL_GROUP = 3;
+
+    // Salts that give every table its own random stream
+    private static final long USERS = 1, GROUPS = 2, ARTICLES = 3, MESSAGES = 4, GRANTS = 5;
+
+    private static final String[] WORDS = {
+            "java", "login", "password", "group", "backup", "restore", "article", "search", "account",
+            "invitation", "role", "student", "instructor", "admin", "database", "eclipse", "intellij",
+            "github", "compile", "debug", "thread", "class", "method", "interface", "exception", "stream",
+            "collection", "map", "list", "queue", "javafx", "scene", "stage", "button", "table", "column",
+            "query", "index", "join", "transaction", "commit", "branch", "merge", "test", "assert", "build",
+            "maven", "gradle", "module", "package", "import", "variable", "loop", "array", "string", "file"
+    };
+
+    private static final String[] LEVELS = {"beginner", "intermediate", "advanced", "expert"};
+
+    private static final String[] FIRST_NAMES = {
+            "Alex", "Sam", "Jordan", "Taylor", "Morgan", "Casey", "Riley", "Jamie", "Avery", "Quinn",
+            "Robin", "Drew", "Kai", "Noor", "Ari", "Sasha"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Nguyen", "Smith", "Garcia", "Patel", "Kim", "Johnson", "Lopez", "Chen", "Brown", "Singh",
+            "Martinez", "Davis", "Khan", "Wilson", "Lee", "Shah"
+    };
+
+    record Config(long seed, int users, int articles, int messages, int groups, double restrictedRatio,
+                  double instructorRatio, double adminRatio, int groupsPerArticle, int groupsPerStudent,
+                  int threads, int batchSize, String password) {
+
+        static Config fromSystemProperties() {
+            int scale = Integer.getInteger("jfx360.corpus.scale", 1000);
+            return new Config(
+                    Long.getLong("jfx360.corpus.seed", 360L),
+                    Integer.getInteger("jfx360.corpus.users", scale),
+                    Integer.getInteger("jfx360.corpus.articles", scale),
+                    Integer.getInteger("jfx360.corpus.messages", scale),
+                    Integer.getInteger("jfx360.corpus.groups", Math.max(10, scale / 1000)),
+                    Double.parseDouble(System.getProperty("jfx360.corpus.restrictedRatio", "0.1")),
+                    Double.parseDouble(System.getProperty("jfx360.corpus.instructorRatio", "0.08")),
+                    Double.parseDouble(System.getProperty("jfx360.corpus.adminRatio", "0.02")),
+                    Integer.getInteger("jfx360.corpus.groupsPerArticle", 2),
+                    Integer.getInteger("jfx360.corpus.groupsPerStudent", 2),
+                    Integer.getInteger("jfx360.corpus.threads",
+                            Math.min(Runtime.getRuntime().availableProcessors(), DatabaseUtil.getPoolSize())),
+                    Integer.getInteger("jfx360.corpus.batchSize", 1000),
+                    System.getProperty("jfx360.corpus.password", "Corpus-1"));
+        }
+    }
+
+    record Article(long id, String title, String description, String level, String keywords, String body,
+                   boolean restricted, int[] groups, int author, long createdAt, long updatedAt) {
+    }
+
+    record Message(int user, String type, String content, long createdAt) {
+    }
+
+    record Group(String name, boolean special) {
+    }
+
+    // Writes the rows [from, to) of one table on the given connection and returns the number of
+    // rows it added to other tables
+    private interface ChunkWriter {
+        long write(Connection conn, int from, int to) throws SQLException;
+    }
+
+    private final Config config;
+    private final LoadHarness.Role[] roles;
+    // Indexes of the users allowed to write articles
+    private final int[] authors;
+    private final Map<String, Long> rowCounts = new LinkedHashMap<>();
+
+    public CorpusGenerator(Config config) {
+        this.config = config;
+        roles = new LoadHarness.Role[config.users()];
+        int authorCount = 0;
+        for (int i = 0; i < roles.length; i++) {
+            double r = random(USERS, i).nextDouble();
+            roles[i] = r < config.adminRatio() ? LoadHarness.Role.ADMIN
+                    : r < config.adminRatio() + config.instructorRatio() ? LoadHarness.Role.INSTRUCTOR
+                    : LoadHarness.Role.STUDENT;
+            if (roles[i] != LoadHarness.Role.STUDENT) {
+                authorCount++;
+            }
+        }
+        authors = new int[authorCount];
+        for (int i = 0, a = 0; i < roles.length; i++) {
+            if (roles[i] != LoadHarness.Role.STUDENT) {
+                authors[a++] = i;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        CorpusGenerator generator = new CorpusGenerator(Config.fromSystemProperties());
+        generator.generate();
+        DatabaseUtil.shutdown();
+    }
+
+    /**
+     * Inserts the whole corpus. Refuses to run when corpus users already exist.
+     */
+    public void generate() throws SQLException, InterruptedException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM users WHERE username LIKE 'corpus\\_%'");
+             ResultSet rs = pstmt.executeQuery()) {
+            if (rs.next() && rs.getInt(1) > 0) {
+                throw new IllegalStateException("The database already holds a corpus; start from an empty database");
+            }
+        }
+        long started = System.nanoTime();
+        System.out.printf("Generating %,d users, %,d groups, %,d articles and %,d messages with seed %d on %d threads%n",
+                config.users(), config.groups(), config.articles(), config.messages(), config.seed(), config.threads());
+
+        int[] groupIds = insertGroups();
+        long firstUserId = config.users() > 0 ? IdBlockAllocator.forUsers().reserveRange(config.users()) : 0;
+        insertUsers(firstUserId, groupIds);
+        insertArticles(firstUserId, groupIds);
+        insertMessages(firstUserId);
+        insertGrants(firstUserId, groupIds);
+
+        System.out.printf("Corpus generated in %.1f s%n", (System.nanoTime() - started) / 1e9);
+    }
+
+    /**
+     * Returns the number of rows written per table by {@link #generate()}.
+     */
+    Map<String, Long> getRowCounts() {
+        return rowCounts;
+    }
+
+    LoadHarness.Role roleOf(int user) {
+        return roles[user];
+    }
+
+    /**
+     * Returns the article with the given index. The body is returned unencrypted.
+     */
+    Article article(int index) {
+        SplittableRandom random = random(ARTICLES, index);
+        String topic = WORDS[random.nextInt(WORDS.length)];
+        String second = WORDS[random.nextInt(WORDS.length)];
+        String title = capitalize(topic) + " and " + second + " " + index;
+        String description = "How to work with " + topic + " " + sentence(random, 8);
+        String keywords = topic + "," + second + "," + WORDS[random.nextInt(WORDS.length)];
+        String level = LEVELS[random.nextInt(LEVELS.length)];
+        boolean restricted = random.nextDouble() < config.restrictedRatio();
+
+        int length = (int) Math.exp(BODY_MEDIAN_LOG + BODY_SIGMA * random.nextGaussian());
+        String body = text(random, Math.max(MIN_BODY, Math.min(MAX_BODY, length)));
+
+        int groupCount = config.groups() == 0 ? 0 : 1 + random.nextInt(Math.max(1, 2 * config.groupsPerArticle() - 1));
+        int[] groups = pickGroups(random, groupCount);
+        int author = authors.length == 0 ? -1 : authors[random.nextInt(authors.length)];
+        long createdAt = BASE_TIME + random.nextLong(TWO_YEARS_MILLIS);
+        long updatedAt = createdAt + random.nextLong(TimeUnit.DAYS.toMillis(30));
+
+        long id = SnowflakeIdGenerator.idOf(BASE_TIME + index / 4096, SnowflakeIdGenerator.TOOL_NODE_ID, index % 4096);
+        return new Article(id, title, description, level, keywords, body, restricted, groups, author,
+                createdAt, updatedAt);
+    }
+
+    Group group(int index) {
+        SplittableRandom random = random(GROUPS, index);
+        return new Group("Corpus " + WORDS[random.nextInt(WORDS.length)] + " " + index,
+                random.nextDouble() < SPECIAL_GROUP_RATIO);
+    }
+
+    Message message(int index) {
+        SplittableRandom random = random(MESSAGES, index);
+        int user = random.nextInt(config.users());
+        String type = random.nextDouble() < 0.7 ? "general" : "specific";
+        String content = "I need help with " + WORDS[random.nextInt(WORDS.length)] + ": " +
+                sentence(random, 5 + random.nextInt(30));
+        return new Message(user, type, content, BASE_TIME + random.nextLong(TWO_YEARS_MILLIS));
+    }
+
+    private int[] insertGroups() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO help_article_groups (name, is_special_access) VALUES (?, ?)")) {
+                for (int i = 0; i < config.groups(); i++) {
+                    Group group = group(i);
+                    pstmt.setString(1, group.name());
+                    pstmt.setBoolean(2, group.special());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            Map<String, Integer> idsByName = new HashMap<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT id, name FROM help_article_groups WHERE name LIKE ?")) {
+                pstmt.setString(1, "Corpus %");
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        idsByName.put(rs.getString("name"), rs.getInt("id"));
+                    }
+                }
+            }
+            int[] ids = new int[config.groups()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = idsByName.get(group(i).name());
+            }
+            rowCounts.put("help_article_groups", (long) ids.length);
+            return ids;
+        }
+    }
+
+    private void insertUsers(long firstUserId, int[] groupIds) throws SQLException, InterruptedException {
+        Map<LoadHarness.Role, Integer> roleIds = loadRoleIds();
+        // Hash once; PBKDF2 per user would take longer than the whole insert
+        String hash = PasswordUtils.hashPassword(config.password());
+
+        long memberships = writeInChunks("users", config.users(), (conn, from, to) -> {
+            long mappings = 0;
+            try (PreparedStatement users = conn.prepareStatement("INSERT INTO users (id, email_address, username, " +
+                    "password, first_name, last_name) VALUES (?, ?, ?, ?, ?, ?)");
+                 PreparedStatement userRoles = conn.prepareStatement(
+                         "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)");
+                 PreparedStatement studentGroups = conn.prepareStatement(
+                         "INSERT INTO student_group_mapping (user_id, group_id) VALUES (?, ?)")) {
+                for (int i = from; i < to; i++) {
+                    SplittableRandom random = random(USERS, i);
+                    random.nextDouble(); // role, drawn in the constructor
+                    int id = Math.toIntExact(firstUserId + i);
+                    users.setInt(1, id);
+                    users.setString(2, "corpus_" + i + "@corpus.invalid");
+                    users.setString(3, "corpus_" + i);
+                    users.setString(4, hash);
+                    users.setString(5, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                    users.setString(6, LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                    users.addBatch();
+                    userRoles.setInt(1, id);
+                    userRoles.setInt(2, roleIds.get(roles[i]));
+                    userRoles.addBatch();
+                    if (roles[i] == LoadHarness.Role.STUDENT) {
+                        for (int group : pickGroups(random, Math.min(config.groupsPerStudent(), config.groups()))) {
+                            studentGroups.setInt(1, id);
+                            studentGroups.setInt(2, groupIds[group]);
+                            studentGroups.addBatch();
+                            mappings++;
+                        }
+                    }
+                }
+                users.executeBatch();
+                userRoles.executeBatch();
+                studentGroups.executeBatch();
+            }
+            return mappings;
+        });
+        rowCounts.put("user_roles", (long) config.users());
+        rowCounts.put("student_group_mapping", memberships);
+    }
+
+    private void insertArticles(long firstUserId, int[] groupIds) throws SQLException, InterruptedException {
+        long mappings = writeInChunks("help_articles", config.articles(), (conn, from, to) -> {
+            long written = 0;
+            try (PreparedStatement articles = conn.prepareStatement("INSERT INTO help_articles (id, title, " +
+                    "description, level, keywords, body, is_restricted, created_by, last_modified_by, created_at, " +
+                    "updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                 PreparedStatement groups = conn.prepareStatement(
+                         "INSERT INTO help_article_group_mapping (article_id, group_id) VALUES (?, ?)")) {
+                for (int i = from; i < to; i++) {
+                    Article article = article(i);
+                    articles.setLong(1, article.id());
+                    articles.setString(2, article.title());
+                    articles.setString(3, article.description());
+                    articles.setString(4, article.level());
+                    articles.setString(5, article.keywords());
+                    // Stored like the pages store them: only restricted bodies are encrypted
+                    articles.setString(6, article.restricted() ? encrypt(article.body()) : article.body());
+                    articles.setBoolean(7, article.restricted());
+                    if (article.author() >= 0) {
+                        articles.setInt(8, Math.toIntExact(firstUserId + article.author()));
+                        articles.setInt(9, Math.toIntExact(firstUserId + article.author()));
+                    } else {
+                        articles.setNull(8, Types.INTEGER);
+                        articles.setNull(9, Types.INTEGER);
+                    }
+                    articles.setTimestamp(10, new Timestamp(article.createdAt()));
+                    articles.setTimestamp(11, new Timestamp(article.updatedAt()));
+                    articles.addBatch();
+                    for (int group : article.groups()) {
+                        groups.setLong(1, article.id());
+                        groups.setInt(2, groupIds[group]);
+                        groups.addBatch();
+                        written++;
+                    }
+                }
+                articles.executeBatch();
+                groups.executeBatch();
+            }
+            return written;
+        });
+        rowCounts.put("help_article_group_mapping", mappings);
+    }
+
+    private void insertMessages(long firstUserId) throws SQLException, InterruptedException {
+        if (config.users() == 0) {
+            return;
+        }
+        writeInChunks("help_system_messages", config.messages(), (conn, from, to) -> {
+            try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO help_system_messages " +
+                    "(user_id, message_type, content, created_at, updated_at) VALUES (?, ?, ?, ?, ?)")) {
+                for (int i = from; i < to; i++) {
+                    Message message = message(i);
+                    pstmt.setInt(1, Math.toIntExact(firstUserId + message.user()));
+                    pstmt.setString(2, message.type());
+                    pstmt.setString(3, message.content());
+                    pstmt.setTimestamp(4, new Timestamp(message.createdAt()));
+                    pstmt.setTimestamp(5, new Timestamp(message.createdAt()));
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            return 0;
+        });
+    }
+
+    // Gives a few instructors access to every special access group
+    private void insertGrants(long firstUserId, int[] groupIds) throws SQLException {
+        List<Integer> instructors = new ArrayList<>();
+        for (int i = 0; i < roles.length; i++) {
+            if (roles[i] == LoadHarness.Role.INSTRUCTOR) {
+                instructors.add(i);
+            }
+        }
+        long grants = 0;
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT IGNORE INTO help_article_group_roles (group_id, user_id) VALUES (?, ?)")) {
+                for (int g = 0; g < groupIds.length && !instructors.isEmpty(); g++) {
+                    if (!group(g).special()) {
+                        continue;
+                    }
+                    SplittableRandom random = random(GRANTS, g);
+                    for (int k = 0; k < INSTRUCTORS_PER_SPECIAL_GROUP; k++) {
+                        pstmt.setInt(1, groupIds[g]);
+                        pstmt.setInt(2, Math.toIntExact(firstUserId + instructors.get(random.nextInt(instructors.size()))));
+                        pstmt.addBatch();
+                        grants++;
+                    }
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        rowCounts.put("help_article_group_roles", grants);
+    }
+
+    private Map<LoadHarness.Role, Integer> loadRoleIds() throws SQLException {
+        Map<LoadHarness.Role, Integer> ids = new HashMap<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM roles")) {
+            while (rs.next()) {
+                ids.put(LoadHarness.Role.valueOf(rs.getString("name").toUpperCase()), rs.getInt("id"));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Splits the rows into batches and writes them with up to the configured number of
+     * connections, one transaction per batch.
+     *
+     * @return the sum of the extra rows reported by the writer
+     */
+    private long writeInChunks(String table, int rows, ChunkWriter writer) throws SQLException, InterruptedException {
+        if (rows == 0) {
+            rowCounts.put(table, 0L);
+            return 0;
+        }
+        long started = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, config.threads()), runnable -> {
+            Thread thread = new Thread(runnable, "corpus-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long extra = 0;
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int from = 0; from < rows; from += config.batchSize()) {
+                int start = from;
+                int end = Math.min(rows, from + config.batchSize());
+                futures.add(pool.submit(() -> writeChunk(writer, start, end)));
+            }
+            for (Future<Long> future : futures) {
+                extra += future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Writing " + table + " failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%-28s %,12d rows in %6.1f s (%,.0f rows/s)%n", table, rows, seconds, rows / seconds);
+        rowCounts.put(table, (long) rows);
+        return extra;
+    }
+
+    private long writeChunk(ChunkWriter writer, int from, int to) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                long extra = writer.write(conn, from, to);
+                conn.commit();
+                return extra;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Picks distinct group indexes; low indexes are picked more often, like popular groups
+    private int[] pickGroups(SplittableRandom random, int count) {
+        Set<Integer> picked = new LinkedHashSet<>();
+        count = Math.min(count, config.groups());
+        while (picked.size() < count) {
+            double r = random.nextDouble();
+            picked.add((int) (config.groups() * r * r));
+        }
+        return picked.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // A random stream that only depends on the seed, the table and the row
+    private SplittableRandom random(long table, long index) {
+        return new SplittableRandom(config.seed() * 0x9E3779B97F4A7C15L + table * 0xBF58476D1CE4E5B9L + index);
+    }
+
+    private static String text(SplittableRandom random, int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(capitalize(WORDS[random.nextInt(WORDS.length)]));
+            int words = 5 + random.nextInt(15);
+            for (int w = 0; w < words; w++) {
+                text.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            text.append(random.nextInt(8) == 0 ? ".\n\n" : ". ");
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+
+    private static String sentence(SplittableRandom random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.append('.').toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
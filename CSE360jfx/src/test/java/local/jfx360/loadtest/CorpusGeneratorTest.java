@@ -0,0 +1,72 @@
+package local.jfx360.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorpusGeneratorTest {
+
+    private static CorpusGenerator.Config config(long seed) {
+        return new CorpusGenerator.Config(seed, 2000, 2000, 500, 20, 0.1, 0.08, 0.02, 2, 2, 2, 500, "Corpus-1");
+    }
+
+    @Test
+    void testSameSeedGivesSameRows() {
+        CorpusGenerator first = new CorpusGenerator(config(42));
+        CorpusGenerator second = new CorpusGenerator(config(42));
+        CorpusGenerator other = new CorpusGenerator(config(43));
+
+        for (int i = 0; i < 50; i++) {
+            CorpusGenerator.Article a = first.article(i);
+            CorpusGenerator.Article b = second.article(i);
+            assertEquals(a.id(), b.id());
+            assertEquals(a.title(), b.title());
+            assertEquals(a.body(), b.body());
+            assertEquals(a.author(), b.author());
+            assertArrayEquals(a.groups(), b.groups());
+            assertEquals(first.message(i), second.message(i));
+            assertEquals(first.group(i % 20), second.group(i % 20));
+            assertEquals(first.roleOf(i), second.roleOf(i));
+        }
+        assertNotEquals(first.article(0).body(), other.article(0).body());
+    }
+
+    @Test
+    void testArticleDistribution() {
+        CorpusGenerator generator = new CorpusGenerator(config(360));
+        int restricted = 0;
+        int[] lengths = new int[2000];
+        for (int i = 0; i < lengths.length; i++) {
+            CorpusGenerator.Article article = generator.article(i);
+            restricted += article.restricted() ? 1 : 0;
+            lengths[i] = article.body().length();
+            assertTrue(article.groups().length >= 1 && article.groups().length <= 3);
+            assertEquals(article.groups().length, Arrays.stream(article.groups()).distinct().count());
+        }
+        Arrays.sort(lengths);
+        assertEquals(0.1, restricted / 2000.0, 0.03, "About one article in ten should be restricted");
+        assertTrue(lengths[0] >= CorpusGenerator.MIN_BODY);
+        assertTrue(lengths[lengths.length - 1] <= CorpusGenerator.MAX_BODY);
+        assertTrue(lengths[1000] > 1000 && lengths[1000] < 2200, "Median body length was " + lengths[1000]);
+    }
+
+    /**
+     * Writes a corpus to the configured database. Only runs when asked for:
+     * mvn test -Dtest=CorpusGeneratorTest -Djfx360.corpus=true -Djfx360.corpus.scale=100000
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "jfx360.corpus", matches = "true")
+    void generateCorpus() throws Exception {
+        CorpusGenerator.Config config = CorpusGenerator.Config.fromSystemProperties();
+        CorpusGenerator generator = new CorpusGenerator(config);
+        generator.generate();
+        Map<String, Long> rows = generator.getRowCounts();
+        assertEquals(config.users(), rows.get("users"));
+        assertEquals(config.articles(), rows.get("help_articles"));
+        assertEquals(config.messages(), rows.get("help_system_messages"));
+    }
+}
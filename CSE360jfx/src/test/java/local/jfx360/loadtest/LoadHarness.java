@@ -0,0 +1,444 @@
+package local.jfx360.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import local.jfx360.service.ApiServer;
+import local.jfx360.service.ArticleService;
+import local.jfx360.service.AuthService;
+import local.jfx360.service.HelpRequestService;
+import local.jfx360.utils.ArticleCatalog;
+import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.IdBlockAllocator;
+import local.jfx360.utils.LatencyHistogram;
+import local.jfx360.utils.PasswordUtils;
+import local.jfx360.utils.QueryStats;
+import local.jfx360.utils.SnowflakeIdGenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p> LoadHarness Class. </p>
+ *
+ * <p> Description: Simulates students, instructors and admins using the help system at the
+ * same time. Every simulated user runs on its own virtual thread and repeatedly picks an
+ * operation from its role's mix, runs it and waits an exponentially distributed think time.
+ * The operations call the same services the pages use: logging in
+ * ({@code Login.handleLoginButtonAction}), listing articles as the API sends them (copied into
+ * JSON), searching articles ({@code searchArticles}), opening an article
+ * ({@code loadArticlePreview}), sending a help request ({@code handleHelpRequest}) and editing an
+ * article ({@code updateArticle}). Publishing an edit to the catalog is timed on its own row,
+ * refresh, so that it does not hide in the update latency. At the end it prints throughput,
+ * errors and p50/p95/p99/max latency per operation, followed by the errors of each operation
+ * by exception type with one sample message. </p>
+ *
+ * <p> Settings (system properties, prefix {@code jfx360.load.}): students, instructors, admins,
+ * durationSeconds, warmupSeconds, thinkMillis, articles (seeded when the database has fewer),
+ * password, and mix.student / mix.instructor / mix.admin as {@code op=weight,...} with the ops
+ * login, list, search, preview, help and update. Users named {@code load_<role>_<n>} are created
+ * when missing. Run with {@code mvn test -Dtest=LoadHarnessTest -Djfx360.load=true}. </p>
+ */
+public class LoadHarness {
+
+    enum Role { STUDENT, INSTRUCTOR, ADMIN }
+
+    enum Operation { LOGIN, LIST, SEARCH, PREVIEW, HELP, UPDATE }
+
+    private static final String[] WORDS = {
+            "java", "login", "password", "group", "backup", "restore", "article", "search",
+            "account", "invitation", "role", "student", "instructor", "admin", "database"
+    };
+
+    private static final String TITLE_PREFIX = "Load test article";
+
+    private static final String[] LEVELS = {"beginner", "intermediate", "advanced", "expert"};
+
+    record Config(int students, int instructors, int admins, int durationSeconds, int warmupSeconds,
+                  int thinkMillis, int articles, String password, Map<Role, Map<Operation, Integer>> mixes) {
+
+        static Config fromSystemProperties() {
+            Map<Role, Map<Operation, Integer>> mixes = new EnumMap<>(Role.class);
+            mixes.put(Role.STUDENT, parseMix(System.getProperty("jfx360.load.mix.student",
+                    "search=40,preview=40,list=10,help=5,login=5")));
+            mixes.put(Role.INSTRUCTOR, parseMix(System.getProperty("jfx360.load.mix.instructor",
+                    "search=30,preview=30,update=30,login=10")));
+            mixes.put(Role.ADMIN, parseMix(System.getProperty("jfx360.load.mix.admin",
+                    "list=50,update=40,login=10")));
+            return new Config(
+                    Integer.getInteger("jfx360.load.students", 200),
+                    Integer.getInteger("jfx360.load.instructors", 10),
+                    Integer.getInteger("jfx360.load.admins", 2),
+                    Integer.getInteger("jfx360.load.durationSeconds", 60),
+                    Integer.getInteger("jfx360.load.warmupSeconds", 10),
+                    Integer.getInteger("jfx360.load.thinkMillis", 1000),
+                    Integer.getInteger("jfx360.load.articles", 200),
+                    System.getProperty("jfx360.load.password", "LoadTest-1"),
+                    mixes);
+        }
+
+        int usersOf(Role role) {
+            return switch (role) {
+                case STUDENT -> students;
+                case INSTRUCTOR -> instructors;
+                case ADMIN -> admins;
+            };
+        }
+    }
+
+    /**
+     * Results of one operation.
+     */
+    static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final Map<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+        final AtomicReference<Throwable> sampleError = new AtomicReference<>();
+
+        void recordError(Throwable error) {
+            errors.increment();
+            errorsByType.computeIfAbsent(error.getClass().getSimpleName(), type -> new LongAdder()).increment();
+            sampleError.compareAndSet(null, error);
+        }
+    }
+
+    private record SimulatedUser(Role role, int userId, String username) {
+    }
+
+    private final Config config;
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    // Catalog refreshes after updates, kept apart from the update itself
+    private final Stats refresh = new Stats();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private List<Long> articleIds = List.of();
+    private List<Long> ownArticleIds = List.of();
+    private volatile long measureFrom;
+
+    public LoadHarness(Config config) {
+        this.config = config;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadHarness harness = new LoadHarness(Config.fromSystemProperties());
+        harness.run();
+        System.out.println(harness.report());
+        System.out.println(QueryStats.report(15));
+        DatabaseUtil.shutdown();
+    }
+
+    /**
+     * Seeds users and articles if needed, then runs the load for the configured duration.
+     */
+    public void run() throws SQLException, InterruptedException {
+        List<SimulatedUser> users = new ArrayList<>();
+        for (Role role : Role.values()) {
+            users.addAll(ensureUsers(role, config.usersOf(role)));
+        }
+        ensureArticles(config.articles());
+        ArticleCatalog.getInstance().reload();
+        articleIds = ArticleCatalog.getInstance().getArticles().stream().map(ArticleCatalog.Entry::id).toList();
+        // Edits only touch articles the harness created, never real content
+        ownArticleIds = ArticleCatalog.getInstance().getArticles().stream()
+                .filter(entry -> entry.title().startsWith(TITLE_PREFIX))
+                .map(ArticleCatalog.Entry::id).toList();
+
+        long start = System.nanoTime();
+        measureFrom = start + TimeUnit.SECONDS.toNanos(config.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+        System.out.printf("Running %d users for %d s after %d s warm-up%n",
+                users.size(), config.durationSeconds(), config.warmupSeconds());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (SimulatedUser user : users) {
+                executor.submit(() -> simulate(user, end));
+            }
+        }
+    }
+
+    private void simulate(SimulatedUser user, long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Spread the first requests over one think time so the users do not start in lockstep
+        if (!sleep((long) (random.nextDouble() * config.thinkMillis()))) {
+            return;
+        }
+        Map<Operation, Integer> mix = config.mixes().get(user.role());
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        while (System.nanoTime() < end) {
+            Operation operation = pick(mix, totalWeight, random);
+            long started = System.nanoTime();
+            Exception failure = null;
+            try {
+                execute(user, operation, random);
+            } catch (Exception e) {
+                failure = e;
+            }
+            record(stats.get(operation), started, failure);
+            if (operation == Operation.UPDATE && failure == null) {
+                // The pages publish every edit to the catalog
+                long refreshStarted = System.nanoTime();
+                Exception refreshFailure = null;
+                try {
+                    ArticleCatalog.getInstance().refresh();
+                } catch (Exception e) {
+                    refreshFailure = e;
+                }
+                record(refresh, refreshStarted, refreshFailure);
+            }
+            // Exponential think time, as produced by users acting independently
+            long think = (long) (-Math.log(1 - random.nextDouble()) * config.thinkMillis());
+            if (!sleep(think)) {
+                return;
+            }
+        }
+    }
+
+    private void record(Stats s, long started, Exception failure) {
+        long elapsed = System.nanoTime() - started;
+        if (started >= measureFrom) {
+            s.latency.record(elapsed);
+            if (failure != null) {
+                s.recordError(failure);
+            }
+        }
+    }
+
+    private void execute(SimulatedUser user, Operation operation, ThreadLocalRandom random) throws Exception {
+        switch (operation) {
+            case LOGIN -> {
+                AuthService.LoginResult result = AuthService.getInstance().verify(user.username(), config.password());
+                if (result.status() != AuthService.Status.OK) {
+                    throw new IllegalStateException("Login failed for " + user.username());
+                }
+            }
+            case LIST -> mapper.writeValueAsBytes(ApiServer.toJson(ArticleService.getInstance().listArticles(null)));
+            case SEARCH -> ArticleService.getInstance().search(WORDS[random.nextInt(WORDS.length)]);
+            case PREVIEW -> ArticleService.getInstance().getArticle(randomArticle(articleIds, random), user.userId(),
+                    user.role() != Role.STUDENT);
+            case HELP -> HelpRequestService.getInstance().submit(user.userId(),
+                    random.nextBoolean() ? "general" : "specific", "Load test request from " + user.username());
+            case UPDATE -> {
+                long id = randomArticle(ownArticleIds, random);
+                ArticleService.getInstance().updateArticle(new ArticleService.ArticleUpdate(id,
+                        TITLE_PREFIX + " " + id + " rev " + random.nextInt(1000),
+                        "Updated by " + user.username(), LEVELS[random.nextInt(LEVELS.length)],
+                        WORDS[random.nextInt(WORDS.length)], "Body of article " + id, null, false, null, null,
+                        List.of("loadtest")), user.userId());
+            }
+        }
+    }
+
+    private static long randomArticle(List<Long> ids, ThreadLocalRandom random) {
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No articles to use");
+        }
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private static Operation pick(Map<Operation, Integer> mix, int totalWeight, ThreadLocalRandom random) {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Mix entries must look like op=weight: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no operations: " + spec);
+        }
+        return mix;
+    }
+
+    /**
+     * Returns the results as a table, one row per operation that ran.
+     */
+    public String report() {
+        double seconds = config.durationSeconds();
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-8s %9s %8s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "ops/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        long count = 0;
+        Map<String, Stats> rows = new LinkedHashMap<>();
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            rows.put(entry.getKey().name().toLowerCase(), entry.getValue());
+            count += entry.getValue().latency.count();
+        }
+        rows.put("refresh", refresh);
+        for (Map.Entry<String, Stats> row : rows.entrySet()) {
+            LatencyHistogram latency = row.getValue().latency;
+            if (latency.count() == 0) {
+                continue;
+            }
+            out.append(String.format("%-8s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    row.getKey(), latency.count(), row.getValue().errors.sum(),
+                    latency.count() / seconds, latency.percentileMillis(0.50), latency.percentileMillis(0.95),
+                    latency.percentileMillis(0.99), latency.maxMillis()));
+        }
+        // Refreshes are part of the updates, so they are not counted again
+        out.append(String.format("total    %9d %8s %9.1f%n", count, "", count / seconds));
+        for (Map.Entry<String, Stats> row : rows.entrySet()) {
+            Stats s = row.getValue();
+            if (s.errors.sum() == 0) {
+                continue;
+            }
+            out.append(String.format("%nerrors in %s:%n", row.getKey()));
+            s.errorsByType.forEach((type, errors) -> out.append(String.format("  %-30s %8d%n", type, errors.sum())));
+            Throwable sample = s.sampleError.get();
+            out.append(String.format("  sample: %s%n", sample));
+        }
+        return out.toString();
+    }
+
+    Map<Operation, Stats> getStats() {
+        return stats;
+    }
+
+    Stats getRefreshStats() {
+        return refresh;
+    }
+
+    // Creates load_<role>_<n> accounts that do not exist yet and returns all of them
+    private List<SimulatedUser> ensureUsers(Role role, int count) throws SQLException {
+        if (count == 0) {
+            return List.of();
+        }
+        String roleName = role.name().charAt(0) + role.name().substring(1).toLowerCase();
+        String prefix = "load_" + role.name().toLowerCase() + "_";
+        // Hash once; every simulated user shares the password
+        String hash = PasswordUtils.hashPassword(config.password());
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            Map<String, Integer> existing = new LinkedHashMap<>();
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT id, username FROM users WHERE username LIKE ?")) {
+                pstmt.setString(1, prefix + "%");
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        existing.put(rs.getString("username"), rs.getInt("id"));
+                    }
+                }
+            }
+
+            List<String> missing = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                if (!existing.containsKey(prefix + i)) {
+                    missing.add(prefix + i);
+                }
+            }
+            if (!missing.isEmpty()) {
+                long firstId = IdBlockAllocator.forUsers().reserveRange(missing.size());
+                conn.setAutoCommit(false);
+                try (PreparedStatement insertUser = conn.prepareStatement("INSERT INTO users (id, email_address, " +
+                        "username, password, first_name, last_name) VALUES (?, ?, ?, ?, ?, ?)");
+                     PreparedStatement insertRole = conn.prepareStatement("INSERT INTO user_roles (user_id, role_id) " +
+                             "SELECT ?, id FROM roles WHERE name = ?")) {
+                    for (int i = 0; i < missing.size(); i++) {
+                        int id = Math.toIntExact(firstId + i);
+                        String username = missing.get(i);
+                        insertUser.setInt(1, id);
+                        insertUser.setString(2, username + "@loadtest.invalid");
+                        insertUser.setString(3, username);
+                        insertUser.setString(4, hash);
+                        insertUser.setString(5, "Load");
+                        insertUser.setString(6, roleName);
+                        insertUser.addBatch();
+                        insertRole.setInt(1, id);
+                        insertRole.setString(2, roleName);
+                        insertRole.addBatch();
+                        existing.put(username, id);
+                    }
+                    insertUser.executeBatch();
+                    insertRole.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+
+            List<SimulatedUser> users = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                users.add(new SimulatedUser(role, existing.get(prefix + i), prefix + i));
+            }
+            return users;
+        }
+    }
+
+    // Inserts simple articles until the database holds at least the wanted number of load test articles
+    private void ensureArticles(int wanted) throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("INSERT INTO help_articles (id, title, description, " +
+                     "level, keywords, body) VALUES (?, ?, ?, ?, ?, ?)")) {
+            int have;
+            try (PreparedStatement count = conn.prepareStatement(
+                    "SELECT COUNT(*) FROM help_articles WHERE title LIKE '" + TITLE_PREFIX + "%'");
+                 ResultSet rs = count.executeQuery()) {
+                have = rs.next() ? rs.getInt(1) : 0;
+            }
+            if (have >= wanted) {
+                return;
+            }
+            conn.setAutoCommit(false);
+            try {
+                for (int i = have; i < wanted; i++) {
+                    String word = WORDS[random.nextInt(WORDS.length)];
+                    pstmt.setLong(1, SnowflakeIdGenerator.getInstance().nextId());
+                    pstmt.setString(2, TITLE_PREFIX + " about " + word + " " + i);
+                    pstmt.setString(3, "How to work with " + word);
+                    pstmt.setString(4, LEVELS[random.nextInt(LEVELS.length)]);
+                    pstmt.setString(5, word);
+                    pstmt.setString(6, "Body text about " + word);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package local.jfx360.loadtest;
+
+import local.jfx360.utils.QueryStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadHarnessTest {
+
+    @Test
+    void testParseMix() {
+        var mix = LoadHarness.parseMix("search=40, preview=60, help=0");
+        assertEquals(2, mix.size(), "Operations with weight 0 should be left out");
+        assertEquals(40, mix.get(LoadHarness.Operation.SEARCH));
+        assertEquals(60, mix.get(LoadHarness.Operation.PREVIEW));
+        assertThrows(IllegalArgumentException.class, () -> LoadHarness.parseMix("search"));
+    }
+
+    @Test
+    void testReportBreaksDownErrors() {
+        LoadHarness harness = new LoadHarness(new LoadHarness.Config(1, 0, 0, 10, 0, 1, 0, "p",
+                Map.of(LoadHarness.Role.STUDENT, Map.of(LoadHarness.Operation.SEARCH, 1))));
+        LoadHarness.Stats search = harness.getStats().get(LoadHarness.Operation.SEARCH);
+        for (int i = 0; i < 3; i++) {
+            search.latency.record(1_000_000);
+        }
+        search.recordError(new SQLException("Connection is not available"));
+        search.recordError(new SQLException("Another timeout"));
+        search.recordError(new IllegalStateException("No articles to use"));
+
+        String report = harness.report();
+        assertTrue(report.contains("errors in search:"), report);
+        assertTrue(report.matches("(?s).*SQLException +2\\R.*"), report);
+        assertTrue(report.matches("(?s).*IllegalStateException +1\\R.*"), report);
+        assertTrue(report.contains("sample: java.sql.SQLException: Connection is not available"), report);
+        assertFalse(report.contains("refresh"), "Rows that did not run should be left out");
+    }
+
+    /**
+     * Runs the full load test. Needs a database, so it only runs when asked for:
+     * mvn test -Dtest=LoadHarnessTest -Djfx360.load=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "jfx360.load", matches = "true")
+    void runLoad() throws Exception {
+        LoadHarness harness = new LoadHarness(LoadHarness.Config.fromSystemProperties());
+        harness.run();
+        System.out.println(harness.report());
+        System.out.println(QueryStats.report(15));
+        long operations = harness.getStats().values().stream().mapToLong(s -> s.latency.count()).sum();
+        assertTrue(operations > 0, "The load run should complete some operations");
+    }
+}
@@ -1,9 +1,12 @@
 package local.jfx360.main;
 
 import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.IdBlockAllocator;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.junit.jupiter.api.Test;
 import local.jfx360.utils.PasswordUtils;
 
@@ -16,12 +19,15 @@ class MainAppTest {
     // Test if the Database Exists
     @Test
     void doesDataBaseExistTest() {
-        try (Connection conn = DatabaseUtil.getConnection("jdbc:mysql://localhost:3306/")) {
-            String query = "CREATE DATABASE IF NOT EXISTS projectdb";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+        // The embedded database is created together with the connection pool
+        if (!DatabaseUtil.isEmbedded()) {
+            try (Connection conn = DatabaseUtil.getConnection("jdbc:mysql://localhost:3306/")) {
+                String query = "CREATE DATABASE IF NOT EXISTS projectdb";
+                PreparedStatement stmt = conn.prepareStatement(query);
+                stmt.executeUpdate();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
         }
         boolean database = mainApp.doesDatabaseExist("projectdb");
         assertTrue(database);
@@ -29,35 +35,32 @@ class MainAppTest {
 
     @Test
     void doesUsersTableExist() throws SQLException {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            Statement statement = conn.createStatement();
-            String query = "SHOW TABLES LIKE 'users'";
-            ResultSet resultSet = statement.executeQuery(query);
+        try (Connection conn = DatabaseUtil.getConnection();
+             ResultSet resultSet = conn.getMetaData().getTables(conn.getCatalog(), null, "users", null)) {
             assertTrue(resultSet.next());
         }
     }
 
     @Test
     void doesArticlesTableExist() throws SQLException {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            Statement statement = conn.createStatement();
-            String query = "SHOW TABLES LIKE 'help_articles'";
-            ResultSet resultSet = statement.executeQuery(query);
+        try (Connection conn = DatabaseUtil.getConnection();
+             ResultSet resultSet = conn.getMetaData().getTables(conn.getCatalog(), null, "help_articles", null)) {
             assertTrue(resultSet.next());
         }
     }
 
     @Test
     void doesHelpMessageTableExist() throws SQLException {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            Statement statement = conn.createStatement();
-            String query = "SHOW TABLES LIKE 'help_system_messages'";
-            ResultSet resultSet = statement.executeQuery(query);
+        try (Connection conn = DatabaseUtil.getConnection();
+             ResultSet resultSet = conn.getMetaData().getTables(conn.getCatalog(), null, "help_system_messages", null)) {
             assertTrue(resultSet.next());
         }
     }
 
+    // The developer database gets its admin from the first account created by hand, the
+    // embedded one starts without accounts
     @Test
+    @DisabledIfSystemProperty(named = "jfx360.db", matches = "embedded")
     public void doesAdminAccountExist() throws SQLException {
         try (Connection conn = DatabaseUtil.getConnection()) {
             Statement statement = conn.createStatement();
@@ -67,6 +70,37 @@ class MainAppTest {
         }
     }
 
+    // Decides whether the application opens on Login or on CreateAccount for the first admin
+    @Test
+    @EnabledIfSystemProperty(named = "jfx360.db", matches = "embedded")
+    void checkIfUsersExistFollowsUsersTable() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            boolean hadUsers;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM users")) {
+                assertTrue(rs.next());
+                hadUsers = rs.getInt(1) > 0;
+            }
+            assertEquals(hadUsers, mainApp.checkIfUsersExist());
+
+            String username = "first" + System.nanoTime();
+            try (PreparedStatement insert = conn.prepareStatement("INSERT INTO users (id, email_address, username, " +
+                    "password, first_name, last_name) VALUES (?, ?, ?, 'x', 'First', 'User')");
+                 PreparedStatement delete = conn.prepareStatement("DELETE FROM users WHERE username = ?")) {
+                insert.setInt(1, Math.toIntExact(IdBlockAllocator.forUsers().nextId()));
+                insert.setString(2, username + "@example.com");
+                insert.setString(3, username);
+                insert.executeUpdate();
+                try {
+                    assertTrue(mainApp.checkIfUsersExist());
+                } finally {
+                    delete.setString(1, username);
+                    delete.executeUpdate();
+                }
+            }
+            assertEquals(hadUsers, mainApp.checkIfUsersExist());
+        }
+    }
 
     private PasswordUtils passwordUtils;
 
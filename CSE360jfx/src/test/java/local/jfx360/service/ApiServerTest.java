@@ -0,0 +1,227 @@
+package local.jfx360.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import local.jfx360.utils.ArticleCatalog;
+import local.jfx360.utils.DatabaseUtil;
+import local.jfx360.utils.IdBlockAllocator;
+import local.jfx360.utils.PasswordUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnabledIfSystemProperty(named = "jfx360.db", matches = "embedded")
+class ApiServerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String PASSWORD = "Secret#1234";
+
+    // Larger than 2^53, where JavaScript numbers stop being exact
+    private static final long ARTICLE_ID = (1L << 60) + 12345;
+
+    private static final String SUFFIX = UUID.randomUUID().toString().substring(0, 8);
+    private static final String STUDENT = "student" + SUFFIX;
+    private static final String ADMIN = "admin" + SUFFIX;
+
+    private static ApiServer server;
+    private static int studentId;
+    private static int adminId;
+
+    private record Response(int status, JsonNode body, HttpURLConnection connection) {
+    }
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        studentId = createUser(STUDENT, "Student");
+        adminId = createUser(ADMIN, "Admin");
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("INSERT INTO help_articles (id, title, description, " +
+                     "level, keywords, body) VALUES (?, 'Big id', 'd', 'beginner', 'k', 'b')")) {
+            pstmt.setLong(1, ARTICLE_ID);
+            pstmt.executeUpdate();
+        }
+        ArticleCatalog.getInstance().reload();
+        server = new ApiServer();
+        server.start(0);
+    }
+
+    @AfterAll
+    static void stopServer() throws Exception {
+        if (server != null) {
+            server.stop(0);
+        }
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement articles = conn.prepareStatement("DELETE FROM help_articles WHERE id = ?");
+             PreparedStatement users = conn.prepareStatement("DELETE FROM users WHERE id IN (?, ?)")) {
+            articles.setLong(1, ARTICLE_ID);
+            articles.executeUpdate();
+            users.setInt(1, studentId);
+            users.setInt(2, adminId);
+            users.executeUpdate();
+        }
+        ArticleCatalog.getInstance().reload();
+    }
+
+    @Test
+    @Timeout(30)
+    void testLoginOpensSession() throws Exception {
+        assertEquals(401, login(server, STUDENT, "wrong").status());
+        assertEquals(401, login(server, "nobody" + SUFFIX, PASSWORD).status());
+        assertEquals(400, send(server, "POST", "/api/login", null, "{}").status());
+
+        Response ok = login(server, STUDENT, PASSWORD);
+        assertEquals(200, ok.status());
+        assertEquals(studentId, ok.body().path("userId").asInt());
+        assertEquals("Student", ok.body().path("roles").path(0).asText());
+        String token = ok.body().path("token").asText();
+
+        assertEquals(200, send(server, "GET", "/api/groups", token, null).status());
+        assertEquals(200, send(server, "POST", "/api/logout", token, null).status());
+        assertEquals(401, send(server, "GET", "/api/groups", token, null).status(),
+                "A token should stop working after logout");
+    }
+
+    @Test
+    @Timeout(30)
+    void testRequestsWithoutSessionAreRefused() throws Exception {
+        assertEquals(200, send(server, "GET", "/api/health", null, null).status());
+        assertEquals(401, send(server, "GET", "/api/articles", null, null).status());
+        assertEquals(401, send(server, "GET", "/api/articles", "not-a-token", null).status());
+    }
+
+    @Test
+    @Timeout(30)
+    void testQueryMetricsNeedAdminRole() throws Exception {
+        String student = login(server, STUDENT, PASSWORD).body().path("token").asText();
+        String admin = login(server, ADMIN, PASSWORD).body().path("token").asText();
+        assertEquals(403, send(server, "GET", "/api/metrics/queries", student, null).status());
+        Response metrics = send(server, "GET", "/api/metrics/queries?top=5", admin, null);
+        assertEquals(200, metrics.status());
+        assertTrue(metrics.body().path("statements").isArray());
+    }
+
+    @Test
+    @Timeout(30)
+    void testArticleIdsAreSentAsStrings() throws Exception {
+        String token = login(server, ADMIN, PASSWORD).body().path("token").asText();
+        Response list = send(server, "GET", "/api/articles", token, null);
+        assertEquals(200, list.status());
+        JsonNode found = null;
+        for (JsonNode article : list.body()) {
+            if (article.path("id").asText().equals(Long.toString(ARTICLE_ID))) {
+                found = article;
+            }
+        }
+        assertNotNull(found, "The article should be listed");
+        assertTrue(found.path("id").isTextual());
+
+        Response detail = send(server, "GET", "/api/articles/" + ARTICLE_ID, token, null);
+        assertEquals(200, detail.status());
+        assertTrue(detail.body().path("id").isTextual());
+        assertEquals(Long.toString(ARTICLE_ID), detail.body().path("id").asText());
+    }
+
+    @Test
+    @Timeout(30)
+    void testWrongMethodAndLargeBodyAreRefused() throws Exception {
+        Response wrongMethod = send(server, "GET", "/api/login", null, null);
+        assertEquals(405, wrongMethod.status());
+        assertEquals("POST", wrongMethod.connection().getHeaderField("Allow"));
+
+        String large = "{\"username\":\"" + "x".repeat(20 * 1024) + "\",\"password\":\"p\"}";
+        assertEquals(413, send(server, "POST", "/api/login", null, large).status());
+    }
+
+    @Test
+    @Timeout(30)
+    void testFullAuthQueueAnswersBusy() throws Exception {
+        // With no room in the queue every password check is refused
+        AuthService auth = new AuthService(1, 0);
+        ApiServer busyServer = new ApiServer(auth, ArticleService.getInstance());
+        busyServer.start(0);
+        try {
+            Response busy = login(busyServer, STUDENT, PASSWORD);
+            assertEquals(503, busy.status());
+            assertEquals("1", busy.connection().getHeaderField("Retry-After"));
+            assertEquals(1, auth.getRejectedCount());
+        } finally {
+            busyServer.stop(0);
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    void testUnknownUserIsCheckedLikeKnownUser() throws Exception {
+        // An unknown name still goes through the password check queue, so it is refused as busy
+        // the same as a real user instead of answering early
+        AuthService auth = new AuthService(1, 0);
+        assertThrows(AuthService.BusyException.class, () -> auth.verify("nobody" + SUFFIX, PASSWORD));
+        assertThrows(AuthService.BusyException.class, () -> auth.verify(STUDENT, PASSWORD));
+
+        AuthService.LoginResult result = AuthService.getInstance().verify("nobody" + SUFFIX, PASSWORD);
+        assertEquals(AuthService.Status.INVALID, result.status());
+        assertEquals(0, result.userId());
+    }
+
+    private static Response login(ApiServer target, String username, String password) throws IOException {
+        String body = MAPPER.createObjectNode().put("username", username).put("password", password).toString();
+        return send(target, "POST", "/api/login", null, body);
+    }
+
+    private static Response send(ApiServer target, String method, String path, String token, String body)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create("http://localhost:" + target.getPort() + path)
+                .toURL().openConnection();
+        connection.setRequestMethod(method);
+        if (token != null) {
+            connection.setRequestProperty("Authorization", "Bearer " + token);
+        }
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                // The server may answer 413 and close before the whole body is sent
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        try (in) {
+            return new Response(status, MAPPER.readTree(in.readAllBytes()), connection);
+        }
+    }
+
+    private static int createUser(String username, String role) throws Exception {
+        int id = Math.toIntExact(IdBlockAllocator.forUsers().nextId());
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement user = conn.prepareStatement("INSERT INTO users (id, email_address, username, password, " +
+                     "first_name, last_name) VALUES (?, ?, ?, ?, 'Test', 'User')");
+             PreparedStatement roles = conn.prepareStatement("INSERT INTO user_roles (user_id, role_id) " +
+                     "SELECT ?, id FROM roles WHERE name = ?")) {
+            user.setInt(1, id);
+            user.setString(2, username + "@example.com");
+            user.setString(3, username);
+            user.setString(4, PasswordUtils.hashPassword(PASSWORD));
+            user.executeUpdate();
+            roles.setInt(1, id);
+            roles.setString(2, role);
+            roles.executeUpdate();
+            return id;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package local.jfx360.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppMetricsTest {
+
+    @Test
+    void testGaugesAndCounterRates() throws InterruptedException {
+        AtomicLong count = new AtomicLong();
+        AppMetrics.gauge("test.gauge", () -> 42);
+        AppMetrics.gauge("test.broken", () -> {
+            throw new IllegalStateException("broken");
+        });
+        AppMetrics.counter("test.counter", count::get);
+
+        AppMetrics.Sample first = AppMetrics.sample();
+        assertEquals(42, first.get("test.gauge"));
+        assertTrue(Double.isNaN(first.get("test.broken")), "A failing gauge should read as NaN");
+        assertTrue(Double.isNaN(first.get("test.missing")));
+
+        count.addAndGet(100);
+        Thread.sleep(200);
+        AppMetrics.Sample second = AppMetrics.sample();
+        assertEquals(100, second.get("test.counter"));
+        double rate = second.get("test.counter.rate");
+        assertTrue(rate > 100 && rate <= 500, "Rate was " + rate);
+    }
+
+    @Test
+    void testBuiltInMetrics() {
+        QueryStats.takeWindow();
+        QueryStats.record(QueryStats.entryFor("SELECT 1"), TimeUnit.MILLISECONDS.toNanos(3), false);
+        AppMetrics.Sample sample = AppMetrics.sample();
+        assertEquals(3, sample.get("db.query.p99Millis"), 0.1);
+        assertTrue(sample.get("db.queries") >= 1);
+        assertTrue(sample.get("jvm.heap.usedMB") > 0);
+        assertEquals(DatabaseUtil.getPoolSize(), sample.get("db.pool.max"));
+        assertTrue(sample.values().containsKey("cache.groups.hitRatio"));
+        // The window was taken by the sample
+        assertEquals(0, AppMetrics.sample().get("db.query.p99Millis"));
+    }
+
+    @Test
+    void testListenerReceivesSamples() throws InterruptedException {
+        CountDownLatch received = new CountDownLatch(1);
+        AtomicReference<AppMetrics.Sample> last = new AtomicReference<>();
+        Consumer<AppMetrics.Sample> listener = sample -> {
+            last.set(sample);
+            received.countDown();
+        };
+        AppMetrics.addListener(listener);
+        try {
+            assertTrue(received.await(5, TimeUnit.SECONDS));
+            assertFalse(last.get().values().isEmpty());
+        } finally {
+            AppMetrics.removeListener(listener);
+        }
+    }
+}
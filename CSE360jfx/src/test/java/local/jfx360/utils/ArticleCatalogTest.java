@@ -0,0 +1,21 @@
+package local.jfx360.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArticleCatalogTest {
+
+    @Test
+    void testPeekIsNotCountedAsLookup() {
+        ArticleCatalog catalog = ArticleCatalog.getInstance();
+        long hits = catalog.getHitCount();
+        long misses = catalog.getMissCount();
+        assertNull(catalog.peek(-1));
+        assertEquals(hits, catalog.getHitCount());
+        assertEquals(misses, catalog.getMissCount());
+
+        assertNull(catalog.get(-1));
+        assertEquals(misses + 1, catalog.getMissCount());
+    }
+}
@@ -0,0 +1,64 @@
+package local.jfx360.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeLogCursorTest {
+
+    @Test
+    void testAdvancesOverContiguousRows() {
+        ChangeLogCursor cursor = new ChangeLogCursor(1000);
+        cursor.reset(10);
+        assertTrue(cursor.accept(11));
+        assertTrue(cursor.accept(12));
+        cursor.advance(0);
+        assertEquals(12, cursor.position());
+        assertFalse(cursor.accept(12), "Rows at or below the position should not be applied again");
+    }
+
+    @Test
+    void testWaitsForMissingRowUntilItCommits() {
+        ChangeLogCursor cursor = new ChangeLogCursor(1000);
+        cursor.accept(1);
+        cursor.accept(3);
+        cursor.advance(0);
+        assertEquals(1, cursor.position(), "The cursor should stop before the missing row");
+        assertEquals(1, cursor.pendingGaps());
+
+        // The row above the gap is read again but was already applied
+        assertFalse(cursor.accept(3));
+        assertTrue(cursor.accept(2));
+        cursor.advance(500);
+        assertEquals(3, cursor.position());
+        assertEquals(0, cursor.pendingGaps());
+    }
+
+    @Test
+    void testSkipsGapAfterTimeout() {
+        ChangeLogCursor cursor = new ChangeLogCursor(1000);
+        cursor.accept(1);
+        cursor.accept(3);
+        cursor.advance(0);
+        cursor.advance(999);
+        assertEquals(1, cursor.position());
+        cursor.advance(1000);
+        assertEquals(3, cursor.position(), "A row missing longer than the timeout was rolled back");
+    }
+
+    @Test
+    void testRowIsNotHandledUntilAccepted() {
+        ChangeLogCursor cursor = new ChangeLogCursor(1000);
+        cursor.reset(10);
+        assertTrue(cursor.isNew(11));
+        // The rows were read but could not be applied
+        cursor.advance(0);
+        assertEquals(10, cursor.position());
+        assertTrue(cursor.isNew(11), "A row that was only looked at should be read again");
+
+        assertTrue(cursor.accept(11));
+        assertFalse(cursor.isNew(11));
+        cursor.advance(0);
+        assertEquals(11, cursor.position());
+    }
+}
@@ -0,0 +1,129 @@
+package local.jfx360.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedBackupTest {
+
+    @TempDir
+    File tempDir;
+
+    private File writeBackup(int records) throws IOException {
+        File file = new File(tempDir, "articles.backup");
+        try (ChunkedBackup.Writer<String> out = ChunkedBackup.openWriter(file)) {
+            for (int i = 0; i < records; i++) {
+                out.add("article-" + i);
+            }
+            out.finish();
+        }
+        return file;
+    }
+
+    @Test
+    void testRoundTrip() throws Exception {
+        File file = writeBackup(2500);
+
+        assertTrue(ChunkedBackup.isChunked(file));
+        assertFalse(ChunkedBackup.isLegacy(file));
+
+        List<String> records = ChunkedBackup.readAll(file);
+        assertEquals(2500, records.size());
+        assertEquals("article-0", records.get(0));
+        assertEquals("article-2499", records.get(2499));
+    }
+
+    @Test
+    void testReaderReturnsOneChunkAtATime() throws Exception {
+        File file = writeBackup(2500);
+
+        try (ChunkedBackup.Reader<String> reader = ChunkedBackup.openReader(file)) {
+            List<String> first = reader.nextChunk();
+            assertEquals(ChunkedBackup.DEFAULT_CHUNK_RECORDS, first.size());
+            assertEquals("article-0", first.get(0));
+            int records = first.size();
+            List<String> chunk;
+            while ((chunk = reader.nextChunk()) != null) {
+                records += chunk.size();
+            }
+            assertEquals(2500, records);
+            assertNull(reader.nextChunk());
+        }
+    }
+
+    @Test
+    void testVerifyIntactFile() throws Exception {
+        File file = writeBackup(2500);
+
+        ChunkedBackup.VerifyResult result = ChunkedBackup.verify(file, 4);
+        assertEquals(2500, result.records());
+        assertEquals((2500 + ChunkedBackup.DEFAULT_CHUNK_RECORDS - 1) / ChunkedBackup.DEFAULT_CHUNK_RECORDS,
+                result.chunks());
+        assertEquals(file.length(), result.bytes());
+    }
+
+    @Test
+    void testVerifyDetectsFlippedByte() throws Exception {
+        File file = writeBackup(2500);
+
+        // Flip a byte in the middle of the file, inside one of the chunk payloads
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long position = file.length() / 2;
+            raf.seek(position);
+            int value = raf.read();
+            raf.seek(position);
+            raf.write(value ^ 0xFF);
+        }
+
+        assertThrows(ChunkedBackup.CorruptBackupException.class, () -> ChunkedBackup.verify(file, 4));
+        assertThrows(ChunkedBackup.CorruptBackupException.class, () -> ChunkedBackup.readAll(file));
+    }
+
+    @Test
+    void testVerifyDetectsTruncation() throws Exception {
+        File file = writeBackup(2500);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(file.length() - 4);
+        }
+
+        assertThrows(ChunkedBackup.CorruptBackupException.class, () -> ChunkedBackup.verify(file, 4));
+        assertThrows(ChunkedBackup.CorruptBackupException.class, () -> ChunkedBackup.readAll(file));
+    }
+
+    @Test
+    void testAbortedWriterDeletesFile() {
+        File file = new File(tempDir, "aborted.backup");
+        assertThrows(IllegalStateException.class, () -> {
+            try (ChunkedBackup.Writer<String> out = ChunkedBackup.openWriter(file)) {
+                for (int i = 0; i < 2500; i++) {
+                    out.add("article-" + i);
+                }
+                // Stands in for the result set failing half way through
+                throw new IllegalStateException("Connection lost");
+            }
+        });
+
+        assertFalse(file.exists(), "A backup that was not finished should not be left behind");
+    }
+
+    @Test
+    void testDetectsLegacyFormat() throws Exception {
+        File file = new File(tempDir, "legacy.backup");
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+            out.writeObject(new ArrayList<>(List.of("article-0")));
+        }
+
+        assertTrue(ChunkedBackup.isLegacy(file));
+        assertFalse(ChunkedBackup.isChunked(file));
+    }
+}
@@ -0,0 +1,84 @@
+package local.jfx360.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddedDatabaseTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection(EmbeddedDatabase.url("test_" + UUID.randomUUID().toString().replace("-", "")), "sa", "");
+        EmbeddedDatabase.applySchema(conn);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        }
+        conn.close();
+    }
+
+    @Test
+    void testSchemaIsApplied() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM roles ORDER BY id")) {
+            List<String> roles = new ArrayList<>();
+            while (rs.next()) {
+                roles.add(rs.getString(1));
+            }
+            assertEquals(List.of("Admin", "Student", "Instructor"), roles);
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM AdminRights")) {
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void testTriggersFillChangeLog() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO help_articles (id, title, description, level, keywords, body) " +
+                    "VALUES (7, 'Title', 'Description', 'beginner', 'keys', 'body')");
+            stmt.executeUpdate("INSERT IGNORE INTO help_article_group_mapping (article_id, group_id) VALUES (7, 1), (7, 1)");
+            stmt.executeUpdate("UPDATE help_articles SET title = 'Changed' WHERE id = 7");
+            stmt.executeUpdate("DELETE FROM help_article_group_mapping WHERE article_id = 7");
+            stmt.executeUpdate("DELETE FROM help_articles WHERE id = 7");
+        }
+
+        List<String> log = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT article_id, op FROM help_articles_changes ORDER BY seq");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                log.add(rs.getLong(1) + rs.getString(2));
+            }
+        }
+        assertEquals(List.of("7I", "7G", "7U", "7G", "7D"), log);
+    }
+
+    @Test
+    void testSplitSkipsComments() {
+        List<String> statements = EmbeddedDatabase.splitStatements(
+                "-- comment\nCREATE TABLE a (\n  id INT -- the id\n);\n\nUSE projectdb;\n");
+        assertEquals(2, statements.size());
+        assertEquals("CREATE TABLE a (\n  id INT \n)", statements.get(0));
+        assertNull(EmbeddedDatabase.translate(statements.get(1)));
+    }
+}
@@ -0,0 +1,27 @@
+package local.jfx360.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupRoleMaintenanceTest {
+
+    @Test
+    @EnabledIfSystemProperty(named = "jfx360.db", matches = "embedded")
+    void testMigratedTableIsNotScanned() throws Exception {
+        // The embedded schema is created with the primary key, like a database already migrated
+        long scans = scans();
+        assertEquals(0, GroupRoleMaintenance.deduplicate());
+        assertEquals(scans, scans(), "Only the database metadata should be read");
+
+        assertEquals(0, GroupRoleMaintenance.countDuplicates());
+        assertEquals(scans + 1, scans());
+    }
+
+    private static long scans() {
+        return QueryStats.snapshot().stream()
+                .filter(s -> s.sql().contains("FROM help_article_group_roles"))
+                .mapToLong(QueryStats.Snapshot::count).sum();
+    }
+}
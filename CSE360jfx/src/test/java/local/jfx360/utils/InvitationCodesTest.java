@@ -0,0 +1,28 @@
+package local.jfx360.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvitationCodesTest {
+
+    @Test
+    void testCodeIsUrlSafeAndFixedLength() {
+        for (int i = 0; i < 1000; i++) {
+            String code = InvitationCodes.newCode();
+            assertEquals(20, code.length(), "Codes should always be 20 characters");
+            assertTrue(code.matches("[A-Za-z0-9_-]+"), "Codes should only use URL-safe characters");
+        }
+    }
+
+    @Test
+    void testCodesAreUnique() {
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(codes.add(InvitationCodes.newCode()));
+        }
+    }
+}
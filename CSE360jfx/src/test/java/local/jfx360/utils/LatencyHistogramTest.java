@@ -0,0 +1,30 @@
+package local.jfx360.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesWithinTwoPercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1 ms .. 1000 ms, one sample each
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+        assertEquals(1000, histogram.count());
+        assertEquals(500, histogram.percentileMillis(0.50), 500 * 0.021);
+        assertEquals(950, histogram.percentileMillis(0.95), 950 * 0.021);
+        assertEquals(990, histogram.percentileMillis(0.99), 990 * 0.021);
+        assertEquals(1000, histogram.maxMillis(), 0.001);
+        assertEquals(500.5, histogram.meanMillis(), 0.001);
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentileMillis(0.99));
+    }
+}
@@ -0,0 +1,145 @@
+package local.jfx360.utils;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryStatsTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Connection raw = DriverManager.getConnection(EmbeddedDatabase.url("query_stats_test"), "sa", "");
+        conn = InstrumentedJdbc.wrap(raw);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS stats_test (id INT PRIMARY KEY, name VARCHAR(20))");
+            stmt.execute("DELETE FROM stats_test");
+        }
+        QueryStats.reset();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("SELECT * FROM users WHERE name = ? AND id = ?",
+                QueryStats.normalize("SELECT *  FROM users\n WHERE name = 'it''s' AND id = 42"));
+        assertEquals("SELECT id FROM t WHERE id IN (?*)",
+                QueryStats.normalize("SELECT id FROM t WHERE id IN (?, ?, ?)"));
+        assertEquals("SELECT * FROM t1 LIMIT ?",
+                QueryStats.normalize("SELECT * FROM t1 LIMIT 10"));
+        assertEquals("INSERT INTO m (a, b) VALUES (?*), ...",
+                QueryStats.normalize("INSERT INTO m (a, b) VALUES (?, ?), (?, ?), (?, ?)"));
+    }
+
+    @Test
+    void testResetForgetsEverything() {
+        QueryStats.record(QueryStats.entryFor("SELECT 1"), 1_000_000, false);
+        QueryStats.record(QueryStats.entryFor("SELECT 2"), 1_000_000_000, false);
+        assertEquals(2, QueryStats.getExecutionCount());
+        assertEquals(1, QueryStats.getSlowQueryCount());
+
+        QueryStats.reset();
+        assertEquals(0, QueryStats.getExecutionCount());
+        assertEquals(0, QueryStats.getSlowQueryCount());
+        assertTrue(QueryStats.snapshot().isEmpty());
+        assertEquals(0, QueryStats.takeWindow().count(), "The window should start again after a reset");
+    }
+
+    @Test
+    void testRecordsCountsRowsAndBytes() throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO stats_test (id, name) VALUES (?, ?)")) {
+            for (int i = 0; i < 3; i++) {
+                pstmt.setInt(1, i);
+                pstmt.setString(2, "name" + i);
+                pstmt.executeUpdate();
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT name FROM stats_test WHERE id < ?")) {
+            pstmt.setInt(1, 10);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rs.getString("name");
+                }
+            }
+        }
+
+        QueryStats.Snapshot insert = find("INSERT INTO stats_test (id, name) VALUES (?*)");
+        assertEquals(3, insert.count());
+        assertEquals(3, insert.rows());
+        QueryStats.Snapshot select = find("SELECT name FROM stats_test WHERE id < ?");
+        assertEquals(1, select.count());
+        assertEquals(3, select.rows());
+        assertEquals(15, select.bytes());
+        assertTrue(select.p99Millis() >= select.p50Millis());
+    }
+
+    @Test
+    void testCountsErrors() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            assertThrows(SQLException.class, () -> stmt.executeQuery("SELECT missing FROM stats_test"));
+            stmt.executeQuery("SELECT id FROM stats_test WHERE id = 5").close();
+            stmt.executeQuery("SELECT id FROM stats_test WHERE id = 6").close();
+        }
+        assertEquals(1, find("SELECT missing FROM stats_test").errors());
+        assertEquals(2, find("SELECT id FROM stats_test WHERE id = ?").count());
+        assertEquals(2, QueryStats.top(5).size());
+    }
+
+    @Test
+    void testProxyKeepsConnectionBehaviour() throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1")) {
+            assertSame(conn, pstmt.getConnection());
+            assertEquals(pstmt, pstmt);
+        }
+        assertFalse(conn.isClosed());
+    }
+
+    @Test
+    void testEmitsFlightRecorderEvents() throws Exception {
+        Path file = Files.createTempFile("query-stats", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("local.jfx360.DatabaseCall");
+            recording.start();
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeQuery("SELECT name FROM stats_test WHERE id = 7").close();
+            }
+            recording.stop();
+            recording.dump(file);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals("local.jfx360.DatabaseCall"))
+                    .toList();
+            assertEquals(1, events.size());
+            assertEquals("SELECT name FROM stats_test WHERE id = ?", events.get(0).getString("sql"));
+            assertFalse(events.get(0).getBoolean("fxThread"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static QueryStats.Snapshot find(String sql) {
+        return QueryStats.snapshot().stream()
+                .filter(s -> s.sql().equals(sql))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No statistics for " + sql));
+    }
+}
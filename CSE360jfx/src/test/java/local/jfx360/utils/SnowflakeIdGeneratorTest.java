@@ -0,0 +1,111 @@
+package local.jfx360.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void testIdsAreIncreasing() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "Ids should be strictly increasing");
+            previous = id;
+        }
+    }
+
+    @Test
+    void testIdEncodesNodeAndTime() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(513);
+
+        long before = System.currentTimeMillis();
+        long id = generator.nextId();
+        long after = System.currentTimeMillis();
+
+        assertEquals(513, SnowflakeIdGenerator.nodeIdOf(id));
+        assertTrue(SnowflakeIdGenerator.timestampOf(id) >= before);
+        assertTrue(SnowflakeIdGenerator.timestampOf(id) <= after);
+        // New ids must never overlap the old currentTimeMillis() article ids
+        assertTrue(id > after);
+    }
+
+    @Test
+    void testNoDuplicatesUnderConcurrency() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 50_000;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(generator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    void testDifferentNodesNeverCollide() {
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(1);
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(2);
+        Set<Long> ids = new HashSet<>();
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(ids.add(first.nextId()));
+            assertTrue(ids.add(second.nextId()));
+        }
+    }
+
+    @Test
+    void testIdOfMatchesDecoders() {
+        long millis = SnowflakeIdGenerator.EPOCH + 123_456L;
+        long id = SnowflakeIdGenerator.idOf(millis, 7, 42);
+        assertEquals(millis, SnowflakeIdGenerator.timestampOf(id));
+        assertEquals(7, SnowflakeIdGenerator.nodeIdOf(id));
+        assertTrue(id < SnowflakeIdGenerator.idOf(millis, 7, 43));
+    }
+
+    @Test
+    void testRejectsInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "jfx360.db", matches = "embedded")
+    void testNodeIdsAreLeasedInTurn() throws Exception {
+        IdBlockAllocator leases = new IdBlockAllocator("test_nodes_" + UUID.randomUUID(), null, 1);
+        assertEquals(0, leases.reserveRange(1));
+        assertEquals(1, leases.reserveRange(1), "The next process should get the next node id");
+
+        int nodeId = SnowflakeIdGenerator.getInstance().getNodeId();
+        assertTrue(nodeId < SnowflakeIdGenerator.TOOL_NODE_ID, "The tool node must never be leased");
+    }
+}